@@ -18,10 +18,19 @@ package uk.ucl.solar.tonic;
 import gin.edit.Edit;
 import org.uma.jmetal.algorithm.multiobjective.nsgaii.NSGAII;
 import org.uma.jmetal.operator.selection.impl.BinaryTournamentSelection;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
 import org.uma.jmetal.util.evaluator.impl.SequentialSolutionListEvaluator;
+import uk.ucl.solar.tonic.algorithm.CheckpointingNSGAII;
+import uk.ucl.solar.tonic.evaluator.BatchPatchSolutionListEvaluator;
+import uk.ucl.solar.tonic.evaluator.ListeningSolutionListEvaluator;
+import uk.ucl.solar.tonic.evaluator.ParallelPatchSolutionListEvaluator;
 import uk.ucl.solar.tonic.operator.crossover.UniformPatchCrossover;
 import uk.ucl.solar.tonic.operator.mutation.RandomPatchMutation;
+import uk.ucl.solar.tonic.print.gi.EvaluationLog;
+import uk.ucl.solar.tonic.problem.gi.GeneticImprovementProblem;
+import uk.ucl.solar.tonic.problem.gi.MethodSearchScheduler;
 import uk.ucl.solar.tonic.problem.gi.impl.RuntimeGeneticImprovementProblem;
+import uk.ucl.solar.tonic.solution.PatchSolution;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -32,22 +41,75 @@ import java.util.List;
  */
 public class Experiment {
 
-    public static void main(String[] args) throws IOException {
-        List<Edit.EditType> allowableEditTypesTree = Arrays.asList(Edit.EditType.STATEMENT, Edit.EditType.MODIFY_STATEMENT);
+    /**
+     * @param args {@code --resume} continues each search from its last
+     *             checkpoint, if checkpointDirectory is set
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
         String propertiesFile = "./unittests/maven-simple/tonic.properties";
+        boolean resume = Arrays.asList(args).contains("--resume");
         final RuntimeGeneticImprovementProblem runtimeGeneticImprovementProblem = new RuntimeGeneticImprovementProblem(propertiesFile);
-        NSGAII nsgaii = new NSGAII(runtimeGeneticImprovementProblem,
-                6000,
-                100,
-                100,
-                100,
-                new UniformPatchCrossover(1.0),
-                new RandomPatchMutation(0.8, Edit.getEditClassesOfTypes(allowableEditTypesTree)),
-                new BinaryTournamentSelection<>(),
-                new SequentialSolutionListEvaluator<>());
-        runtimeGeneticImprovementProblem.nextMethod();
-        nsgaii.run();
-        nsgaii.getResult();
+        final EvaluationLog log = runtimeGeneticImprovementProblem.getEvaluationLog() == null ? null
+                : new EvaluationLog(runtimeGeneticImprovementProblem.getEvaluationLog(), EvaluationLog.DEFAULT_COLUMNS, 1024, runtimeGeneticImprovementProblem.getEvaluationLogFlushMS(), ",");
+        try {
+            if (runtimeGeneticImprovementProblem.getMethodConcurrency() > 1) {
+                new MethodSearchScheduler(runtimeGeneticImprovementProblem, runtimeGeneticImprovementProblem.getMethodConcurrency()).run(problem -> search(problem, resume, log));
+            } else {
+                runtimeGeneticImprovementProblem.nextMethod();
+                search(runtimeGeneticImprovementProblem, resume, log);
+            }
+        } finally {
+            if (log != null) {
+                log.close();
+            }
+            runtimeGeneticImprovementProblem.shutdown();
+        }
+    }
+
+    private static List<PatchSolution> search(GeneticImprovementProblem problem, boolean resume, EvaluationLog log) {
+        List<Edit.EditType> allowableEditTypesTree = Arrays.asList(Edit.EditType.STATEMENT, Edit.EditType.MODIFY_STATEMENT);
+        SolutionListEvaluator<PatchSolution> evaluator;
+        if (problem.isBatchEvaluation()) {
+            evaluator = new BatchPatchSolutionListEvaluator();
+        } else if (problem.getParallelism() > 1) {
+            evaluator = new ParallelPatchSolutionListEvaluator(problem.getParallelism());
+        } else {
+            evaluator = new SequentialSolutionListEvaluator<>();
+        }
+        if (log != null) {
+            evaluator = new ListeningSolutionListEvaluator(evaluator, log);
+        }
+        UniformPatchCrossover crossover = new UniformPatchCrossover(1.0);
+        RandomPatchMutation mutation = new RandomPatchMutation(0.8, Edit.getEditClassesOfTypes(allowableEditTypesTree));
+        final NSGAII<PatchSolution> nsgaii;
+        if (problem.getCheckpointDirectory() != null) {
+            nsgaii = new CheckpointingNSGAII(problem,
+                    6000,
+                    100,
+                    100,
+                    100,
+                    crossover,
+                    mutation,
+                    new BinaryTournamentSelection<>(),
+                    evaluator,
+                    resume);
+        } else {
+            nsgaii = new NSGAII<>(problem,
+                    6000,
+                    100,
+                    100,
+                    100,
+                    crossover,
+                    mutation,
+                    new BinaryTournamentSelection<>(),
+                    evaluator);
+        }
+        try {
+            nsgaii.run();
+            return nsgaii.getResult();
+        } finally {
+            evaluator.shutdown();
+        }
     }
 
 }
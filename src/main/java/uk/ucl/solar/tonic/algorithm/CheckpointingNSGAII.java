@@ -0,0 +1,157 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.algorithm;
+
+import org.apache.commons.lang3.Validate;
+import org.pmw.tinylog.Logger;
+import org.uma.jmetal.algorithm.multiobjective.nsgaii.NSGAII;
+import org.uma.jmetal.operator.selection.SelectionOperator;
+import org.uma.jmetal.util.JMetalException;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+import org.uma.jmetal.util.pseudorandom.JMetalRandom;
+import uk.ucl.solar.tonic.operator.crossover.UniformPatchCrossover;
+import uk.ucl.solar.tonic.operator.mutation.RandomPatchMutation;
+import uk.ucl.solar.tonic.problem.gi.GeneticImprovementProblem;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NSGA-II that saves a {@link SearchCheckpoint} every
+ * {@link GeneticImprovementProblem#getCheckpointInterval()} evaluations, and
+ * after the last generation. When resumed, it continues from the checkpoint
+ * of the problem's target method instead of creating a new population; a
+ * search whose checkpoint is complete just returns its final population.
+ * <p>
+ * Checkpoints restore jMetal's random generator, which is shared by every
+ * search of the JVM, so they are refused when several methods are searched
+ * concurrently.
+ *
+ * @author Giovani
+ */
+public class CheckpointingNSGAII extends NSGAII<PatchSolution> {
+
+    private final GeneticImprovementProblem problem;
+    private final RandomPatchMutation mutation;
+    private final UniformPatchCrossover crossover;
+    private final File checkpointFile;
+    private final boolean resume;
+    private int lastCheckpoint = 0;
+
+    public CheckpointingNSGAII(GeneticImprovementProblem problem, int maxEvaluations, int populationSize, int matingPoolSize, int offspringPopulationSize,
+                               UniformPatchCrossover crossover, RandomPatchMutation mutation, SelectionOperator<List<PatchSolution>, PatchSolution> selection,
+                               SolutionListEvaluator<PatchSolution> evaluator, boolean resume) {
+        super(problem, maxEvaluations, populationSize, matingPoolSize, offspringPopulationSize, crossover, mutation, selection, evaluator);
+        Validate.notNull(problem.getCheckpointDirectory(), "Checkpoints need a checkpointDirectory.");
+        Validate.isTrue(problem.getMethodConcurrency() == 1, "Checkpoints cannot be used with a methodConcurrency above 1, as concurrent searches share jMetal's random generator.");
+        this.problem = problem;
+        this.mutation = mutation;
+        this.crossover = crossover;
+        this.checkpointFile = problem.getCheckpointFile();
+        this.resume = resume;
+    }
+
+    public File getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    @Override
+    public void run() {
+        SearchCheckpoint checkpoint = null;
+        if (this.resume) {
+            try {
+                checkpoint = SearchCheckpoint.read(this.checkpointFile);
+            } catch (IOException ex) {
+                throw new JMetalException("Could not read the checkpoint " + this.checkpointFile, ex);
+            }
+        }
+        if (checkpoint == null) {
+            population = createInitialPopulation();
+            population = evaluatePopulation(population);
+            initProgress();
+        } else {
+            restore(checkpoint);
+        }
+        while (!isStoppingConditionReached()) {
+            List<PatchSolution> matingPopulation = selection(population);
+            List<PatchSolution> offspringPopulation = reproduction(matingPopulation);
+            offspringPopulation = evaluatePopulation(offspringPopulation);
+            population = replacement(population, offspringPopulation);
+            updateProgress();
+            if (this.evaluations - this.lastCheckpoint >= this.problem.getCheckpointInterval() || isStoppingConditionReached()) {
+                save();
+            }
+        }
+    }
+
+    private void save() {
+        SearchCheckpoint checkpoint = new SearchCheckpoint(this.problem.getTargetedMethod().getMethodID(), this.evaluations, population,
+                this.problem.getRandom(), this.mutation.getRandom(), this.crossover.getRandom(), JMetalRandom.getInstance().getRandomGenerator());
+        try {
+            checkpoint.write(this.checkpointFile);
+            this.lastCheckpoint = this.evaluations;
+            Logger.debug("Saved checkpoint after " + this.evaluations + " evaluations: " + this.checkpointFile);
+        } catch (IOException ex) {
+            // Losing a checkpoint is no reason to lose the search
+            Logger.warn(ex, "Could not save the checkpoint " + this.checkpointFile);
+        }
+    }
+
+    private void restore(SearchCheckpoint checkpoint) {
+        int methodID = this.problem.getTargetedMethod().getMethodID();
+        Validate.isTrue(checkpoint.getMethodID() == methodID, "The checkpoint " + this.checkpointFile + " is of method " + checkpoint.getMethodID() + " instead of " + methodID + ".");
+        Logger.info("Resuming method " + methodID + " after " + checkpoint.getEvaluations() + " evaluations.");
+
+        // The original program is the reference of every fitness, and
+        // creating the first solution sets it
+        PatchSolution original = this.problem.createSolution();
+        if (original == this.problem.getOriginalPatchSolution()) {
+            this.problem.evaluate(original);
+        }
+
+        List<PatchSolution> restored = new ArrayList<>(checkpoint.getPopulation().size());
+        for (SearchCheckpoint.SolutionState state : checkpoint.getPopulation()) {
+            PatchSolution solution = this.problem.createSolution(state.getEdits());
+            for (int i = 0; i < state.getObjectives().length; i++) {
+                solution.setObjective(i, state.getObjectives()[i]);
+            }
+            for (Map.Entry<String, Serializable> attribute : state.getAttributes().entrySet()) {
+                solution.setAttribute(attribute.getKey(), attribute.getValue());
+            }
+            restored.add(solution);
+        }
+        Validate.isTrue(restored.size() == getMaxPopulationSize(), "The checkpoint " + this.checkpointFile + " has a population of " + restored.size() + " instead of " + getMaxPopulationSize() + ".");
+        // Ranks and crowding distances are not kept in the checkpoint, and
+        // the selection of the next generation needs them
+        population = replacement(restored, new ArrayList<>());
+        this.evaluations = checkpoint.getEvaluations();
+        this.lastCheckpoint = checkpoint.getEvaluations();
+        this.problem.setRandom(checkpoint.getProblemRandom());
+        this.mutation.setRandom(checkpoint.getMutationRandom());
+        this.crossover.setRandom(checkpoint.getCrossoverRandom());
+        JMetalRandom.getInstance().setRandomGenerator(checkpoint.getJMetalRandom());
+    }
+
+}
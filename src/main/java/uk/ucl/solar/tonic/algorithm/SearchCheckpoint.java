@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.algorithm;
+
+import org.uma.jmetal.util.pseudorandom.PseudoRandomGenerator;
+import uk.ucl.solar.tonic.distributed.WorkItem;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * State of a search after a generation: the population, the number of
+ * evaluations so far and the state of every random generator the search
+ * draws from. Solutions are kept as the textual form of their edits, with
+ * their objectives and attributes, so they can be rebuilt without being
+ * evaluated again.
+ *
+ * @author Giovani
+ */
+public class SearchCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int methodID;
+    private final int evaluations;
+    private final List<SolutionState> population;
+    private final Random problemRandom;
+    private final Random mutationRandom;
+    private final Random crossoverRandom;
+    private final PseudoRandomGenerator jMetalRandom;
+
+    public SearchCheckpoint(int methodID, int evaluations, List<PatchSolution> population, Random problemRandom, Random mutationRandom, Random crossoverRandom, PseudoRandomGenerator jMetalRandom) {
+        this.methodID = methodID;
+        this.evaluations = evaluations;
+        this.population = new ArrayList<>(population.size());
+        for (PatchSolution solution : population) {
+            this.population.add(new SolutionState(solution));
+        }
+        this.problemRandom = problemRandom;
+        this.mutationRandom = mutationRandom;
+        this.crossoverRandom = crossoverRandom;
+        this.jMetalRandom = jMetalRandom;
+    }
+
+    public int getMethodID() {
+        return methodID;
+    }
+
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    public List<SolutionState> getPopulation() {
+        return Collections.unmodifiableList(population);
+    }
+
+    public Random getProblemRandom() {
+        return problemRandom;
+    }
+
+    public Random getMutationRandom() {
+        return mutationRandom;
+    }
+
+    public Random getCrossoverRandom() {
+        return crossoverRandom;
+    }
+
+    public PseudoRandomGenerator getJMetalRandom() {
+        return jMetalRandom;
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file first and then moves it in
+     * place, so a crash while saving leaves the previous checkpoint intact.
+     */
+    public void write(File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        Files.createDirectories(directory.toPath());
+        File temporary = File.createTempFile(file.getName(), ".tmp", directory);
+        try (OutputStream output = Files.newOutputStream(temporary.toPath());
+             ObjectOutputStream objectOutput = new ObjectOutputStream(output)) {
+            objectOutput.writeObject(this);
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the checkpoint saved in the file, or null if there is none
+     */
+    public static SearchCheckpoint read(File file) throws IOException {
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+        try (InputStream input = Files.newInputStream(file.toPath());
+             ObjectInputStream objectInput = new ObjectInputStream(input)) {
+            return (SearchCheckpoint) objectInput.readObject();
+        } catch (ClassNotFoundException | ClassCastException ex) {
+            throw new IOException("Invalid checkpoint: " + file, ex);
+        }
+    }
+
+    /**
+     * An evaluated solution of the population.
+     */
+    public static class SolutionState implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> edits;
+        private final double[] objectives;
+        private final Map<String, Serializable> attributes = new LinkedHashMap<>();
+
+        SolutionState(PatchSolution solution) {
+            this.edits = WorkItem.describe(solution.getPatch());
+            this.objectives = solution.getObjectives().clone();
+            // Attributes set by jMetal, e.g. rankings, are computed again
+            for (Map.Entry<Object, Object> attribute : solution.getAttributes().entrySet()) {
+                if (attribute.getKey() instanceof String && attribute.getValue() instanceof Serializable) {
+                    this.attributes.put((String) attribute.getKey(), (Serializable) attribute.getValue());
+                }
+            }
+        }
+
+        public List<String> getEdits() {
+            return edits;
+        }
+
+        public double[] getObjectives() {
+            return objectives;
+        }
+
+        public Map<String, Serializable> getAttributes() {
+            return attributes;
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.base;
+
+import gin.SourceFile;
+import gin.test.UnitTest;
+import gin.test.UnitTestResultSet;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Everything a search knows about the method it improves. Instances are
+ * immutable: the original solution and its results are added by creating a
+ * new context, so a context can be read by several evaluator threads without
+ * locking.
+ *
+ * @author Giovani
+ */
+public final class MethodContext {
+
+    /**
+     * Context of a problem that has no method to improve.
+     */
+    public static final MethodContext NONE = new MethodContext(null, null, null, null, Collections.emptyMap());
+
+    private final TargetMethod targetMethod;
+    private final SourceFile sourceFile;
+    private final PatchSolution originalPatchSolution;
+    private final UnitTestResultSet originalProgramResults;
+    private final Map<UnitTest, Long> testTimeouts;
+
+    public MethodContext(TargetMethod targetMethod, SourceFile sourceFile) {
+        this(targetMethod, sourceFile, null, null, Collections.emptyMap());
+    }
+
+    private MethodContext(TargetMethod targetMethod, SourceFile sourceFile, PatchSolution originalPatchSolution, UnitTestResultSet originalProgramResults, Map<UnitTest, Long> testTimeouts) {
+        this.targetMethod = targetMethod;
+        this.sourceFile = sourceFile;
+        this.originalPatchSolution = originalPatchSolution;
+        this.originalProgramResults = originalProgramResults;
+        this.testTimeouts = testTimeouts;
+    }
+
+    public TargetMethod getTargetMethod() {
+        return targetMethod;
+    }
+
+    public SourceFile getSourceFile() {
+        return sourceFile;
+    }
+
+    public PatchSolution getOriginalPatchSolution() {
+        return originalPatchSolution;
+    }
+
+    public UnitTestResultSet getOriginalProgramResults() {
+        return originalProgramResults;
+    }
+
+    /**
+     * @return the timeout in milliseconds of each test whose timeout differs
+     * from the one it was created with, e.g. because it was computed from the
+     * original program's runtime
+     */
+    public Map<UnitTest, Long> getTestTimeouts() {
+        return testTimeouts;
+    }
+
+    public MethodContext withOriginalPatchSolution(PatchSolution originalPatchSolution) {
+        return new MethodContext(targetMethod, sourceFile, originalPatchSolution, originalProgramResults, testTimeouts);
+    }
+
+    public MethodContext withOriginalProgramResults(UnitTestResultSet originalProgramResults) {
+        return new MethodContext(targetMethod, sourceFile, originalPatchSolution, originalProgramResults, testTimeouts);
+    }
+
+    public MethodContext withTestTimeouts(Map<UnitTest, Long> testTimeouts) {
+        return new MethodContext(targetMethod, sourceFile, originalPatchSolution, originalProgramResults, Collections.unmodifiableMap(new HashMap<>(testTimeouts)));
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(targetMethod);
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.base;
+
+import org.apache.commons.lang3.Validate;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Index of the Java source files of a project laid out without a build tool,
+ * i.e. where class a.b.C is in a/b/C.java under the project directory. The
+ * tree is scanned once, one fork/join task per directory, so that resolving
+ * a class is then a map lookup rather than a directory listing.
+ * Directories that cannot be part of a package name, such as .git, are not
+ * scanned.
+ *
+ * @author Giovani
+ */
+public class SourceIndex {
+
+    private static final String SOURCE_EXTENSION = ".java";
+
+    private final File root;
+    private final Map<String, File> sources;
+
+    private SourceIndex(File root, Map<String, File> sources) {
+        this.root = root;
+        this.sources = Collections.unmodifiableMap(sources);
+    }
+
+    public static SourceIndex build(File root) {
+        return build(root, ForkJoinPool.commonPool());
+    }
+
+    public static SourceIndex build(File root, ForkJoinPool pool) {
+        Validate.notNull(root, "The root directory cannot be null.");
+        Validate.isTrue(root.isDirectory(), "The root is not a directory: " + root);
+        Map<String, File> sources = new ConcurrentHashMap<>();
+        pool.invoke(new ScanTask(root, "", sources));
+        return new SourceIndex(root, sources);
+    }
+
+    public File getRoot() {
+        return root;
+    }
+
+    /**
+     * @param className fully qualified name of a top-level class
+     * @return its source file, or null if there is none
+     */
+    public File find(String className) {
+        return sources.get(className);
+    }
+
+    public int size() {
+        return sources.size();
+    }
+
+    private static boolean isIdentifier(String name) {
+        if (name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isJavaIdentifierPart(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class ScanTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final File directory;
+        private final String packagePrefix;
+        private final transient Map<String, File> sources;
+
+        ScanTask(File directory, String packagePrefix, Map<String, File> sources) {
+            this.directory = directory;
+            this.packagePrefix = packagePrefix;
+            this.sources = sources;
+        }
+
+        @Override
+        protected void compute() {
+            File[] files = directory.listFiles();
+            if (files == null) {
+                return;
+            }
+            List<ScanTask> subdirectories = new ArrayList<>();
+            for (File file : files) {
+                String name = file.getName();
+                if (file.isDirectory()) {
+                    if (isIdentifier(name)) {
+                        subdirectories.add(new ScanTask(file, packagePrefix + name + ".", sources));
+                    }
+                } else if (name.endsWith(SOURCE_EXTENSION)) {
+                    String className = name.substring(0, name.length() - SOURCE_EXTENSION.length());
+                    if (isIdentifier(className)) {
+                        sources.put(packagePrefix + className, file);
+                    }
+                }
+            }
+            invokeAll(subdirectories);
+        }
+
+    }
+
+}
@@ -58,6 +58,10 @@ public class TargetMethod {
         return tests;
     }
 
+    public void setGinTests(List<UnitTest> tests) {
+        this.tests = tests;
+    }
+
     public Integer getMethodID() {
         return methodID;
     }
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.cache;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.commons.lang3.Validate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Computed classpaths of projects, persisted between runs. An entry is
+ * reused only while the project's build files are unchanged and every jar
+ * on the classpath is still the one that was resolved, i.e. while neither
+ * the build nor the local repository changed.
+ *
+ * @author Giovani
+ */
+public class ClasspathCache {
+
+    private static final Set<String> BUILD_FILES = new HashSet<>(Arrays.asList(
+            "pom.xml",
+            "build.gradle",
+            "build.gradle.kts",
+            "settings.gradle",
+            "settings.gradle.kts",
+            "gradle.properties"));
+
+    // Build outputs may hold copies of the build files, e.g. in META-INF
+    private static final Set<String> SKIPPED_DIRECTORIES = new HashSet<>(Arrays.asList(
+            "target",
+            "build",
+            "node_modules"));
+
+    private static final String FINGERPRINT = "fingerprint";
+    private static final String REPOSITORY_STATE = "repositoryState";
+    private static final String CLASS_PATH = "classPath";
+
+    private final File directory;
+
+    public ClasspathCache(File directory) throws IOException {
+        Validate.notNull(directory, "The cache directory cannot be null.");
+        this.directory = directory;
+        Files.createDirectories(directory.toPath());
+    }
+
+    /**
+     * Hashes the path and content of every build file of the project, and
+     * the Maven installation used to compute the classpath.
+     */
+    public static String fingerprint(File projectDirectory, File mavenHome) throws IOException {
+        Path root = projectDirectory.toPath();
+        List<Path> buildFiles = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                String name = dir.getFileName() == null ? "" : dir.getFileName().toString();
+                if (!dir.equals(root) && (name.startsWith(".") || SKIPPED_DIRECTORIES.contains(name))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile() && BUILD_FILES.contains(file.getFileName().toString())) {
+                    buildFiles.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(buildFiles);
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (Path buildFile : buildFiles) {
+            hasher.putString(root.relativize(buildFile).toString().replace('\\', '/'), StandardCharsets.UTF_8);
+            hasher.putBytes(Files.readAllBytes(buildFile));
+        }
+        hasher.putString(mavenHome == null ? "" : mavenHome.getAbsolutePath(), StandardCharsets.UTF_8);
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Hashes the size and modification time of each jar on the classpath.
+     * Directories, such as the project's own classes, are rebuilt all the
+     * time and only need to exist.
+     *
+     * @return the hash, or null if an entry of the classpath is missing
+     */
+    public static String repositoryState(String classPath) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (String entry : classPath.split(File.pathSeparator)) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            File file = new File(entry);
+            if (!file.exists()) {
+                return null;
+            }
+            hasher.putString(entry, StandardCharsets.UTF_8);
+            if (file.isFile()) {
+                hasher.putLong(file.length());
+                hasher.putLong(file.lastModified());
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * @return the cached classpath of the project, or null if there is none
+     * or it is out of date
+     */
+    public String get(File projectDirectory, String fingerprint) throws IOException {
+        Properties entry = new Properties();
+        try (InputStream input = Files.newInputStream(this.fileOf(projectDirectory).toPath())) {
+            entry.load(input);
+        } catch (NoSuchFileException ex) {
+            return null;
+        }
+        String classPath = entry.getProperty(CLASS_PATH);
+        if (classPath == null || !fingerprint.equals(entry.getProperty(FINGERPRINT))) {
+            return null;
+        }
+        String repositoryState = repositoryState(classPath);
+        return repositoryState != null && repositoryState.equals(entry.getProperty(REPOSITORY_STATE)) ? classPath : null;
+    }
+
+    /**
+     * Stores the classpath, replacing the previous one atomically so that
+     * concurrent runs never read a partial entry.
+     */
+    public void put(File projectDirectory, String fingerprint, String classPath) throws IOException {
+        Validate.notNull(fingerprint, "Fingerprint cannot be null.");
+        Validate.notNull(classPath, "Classpath cannot be null.");
+        Properties entry = new Properties();
+        entry.setProperty(FINGERPRINT, fingerprint);
+        entry.setProperty(CLASS_PATH, classPath);
+        String repositoryState = repositoryState(classPath);
+        if (repositoryState != null) {
+            entry.setProperty(REPOSITORY_STATE, repositoryState);
+        }
+        File file = this.fileOf(projectDirectory);
+        Path temporary = Files.createTempFile(directory.toPath(), file.getName(), ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temporary)) {
+                entry.store(output, projectDirectory.getAbsolutePath());
+            }
+            Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    private File fileOf(File projectDirectory) throws IOException {
+        String hash = Hashing.sha256().hashString(projectDirectory.getCanonicalPath(), StandardCharsets.UTF_8).toString();
+        return new File(directory, hash + ".properties");
+    }
+
+}
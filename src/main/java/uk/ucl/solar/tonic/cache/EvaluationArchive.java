@@ -0,0 +1,308 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.cache;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import gin.test.UnitTest;
+import org.apache.commons.lang3.Validate;
+import org.pmw.tinylog.Logger;
+import uk.ucl.solar.tonic.distributed.WorkResult;
+import uk.ucl.solar.tonic.runner.ProcessReaper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * On-disk store of test results that outlives a run, so that patches
+ * measured by earlier experiments on the same project, e.g. with another
+ * seed or algorithm, are not tested again. Entries are keyed by
+ * {@link #key(String, String, PatchFingerprint, List)}, one file per entry.
+ * <p>
+ * Several Tonic processes on the same host may share an archive: entries are
+ * written to a temporary file and atomically renamed, so readers never see a
+ * partial entry, and only the process holding the directory's lock evicts.
+ * Once the archive grows beyond its maximum size, the least recently used
+ * entries are deleted until it is back to 90% of it. Each process tracks the
+ * size from its last scan of the directory plus its own writes, and rescans
+ * after writing a tenth of the maximum size, which bounds how far the
+ * entries of other processes can make it overshoot.
+ *
+ * @author Giovani
+ */
+public class EvaluationArchive {
+
+    private static final String ENTRY_SUFFIX = ".result";
+
+    private final File directory;
+    private final long maximumBytes;
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    private final AtomicLong bytesSinceScan = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public EvaluationArchive(File directory, long maximumBytes) throws IOException {
+        Validate.notNull(directory, "The archive directory cannot be null.");
+        Validate.isTrue(maximumBytes > 0, "The archive size must be greater than zero.");
+        this.directory = directory;
+        this.maximumBytes = maximumBytes;
+        Files.createDirectories(directory.toPath());
+        this.estimatedBytes.set(this.scanEntries().stream().mapToLong(entry -> entry.toFile().length()).sum());
+    }
+
+    /**
+     * @param projectHash a hash of the project, e.g. from
+     *                    {@link #hashProject(File, String)}
+     * @param fitnessMode the fitness function and the settings its results
+     *                    depend on
+     * @param fingerprint the method and the patch
+     * @param tests       the tests run, in order
+     * @return the key of the results of the patch
+     */
+    public static String key(String projectHash, String fitnessMode, PatchFingerprint fingerprint, List<UnitTest> tests) {
+        StringBuilder key = new StringBuilder()
+                .append(projectHash).append('\n')
+                .append(fitnessMode).append('\n')
+                .append(fingerprint.getMethodID()).append('\n');
+        for (String edit : fingerprint.getEdits()) {
+            key.append(edit).append('\n');
+        }
+        key.append('\n');
+        for (UnitTest test : tests) {
+            key.append(test).append('\n');
+        }
+        return key.toString();
+    }
+
+    /**
+     * Hashes the path and content of every Java source file in the project,
+     * in a stable order, and the classpath, so that any change to the code
+     * or its dependencies gives a new hash.
+     */
+    public static String hashProject(File projectDirectory, String classPath) throws IOException {
+        Path root = projectDirectory.toPath();
+        List<Path> sources;
+        try (Stream<Path> files = Files.walk(root)) {
+            sources = files.filter(file -> file.toString().endsWith(".java") && Files.isRegularFile(file))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (Path source : sources) {
+            hasher.putString(root.relativize(source).toString().replace('\\', '/'), StandardCharsets.UTF_8);
+            hasher.putBytes(Files.readAllBytes(source));
+        }
+        hasher.putString(String.valueOf(classPath), StandardCharsets.UTF_8);
+        return hasher.hash().toString();
+    }
+
+    /**
+     * @return the archived results, or null if there are none. A hit marks
+     * the entry as recently used.
+     */
+    public WorkResult get(String key) {
+        File file = this.fileOf(key);
+        WorkResult result = null;
+        try (ObjectInputStream input = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            Entry entry = (Entry) input.readObject();
+            // Guards against the unlikely hash collision
+            if (key.equals(entry.key)) {
+                result = entry.result;
+            }
+        } catch (NoSuchFileException ex) {
+            // Not archived, or evicted meanwhile
+        } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+            Logger.debug(ex, "Discarding unreadable archive entry " + file);
+            this.delete(file.toPath());
+        }
+        if (result == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+            file.setLastModified(System.currentTimeMillis());
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link #get(String)} != null, without reading the entry nor
+     * counting a hit or a miss.
+     */
+    public boolean contains(String key) {
+        return this.fileOf(key).isFile();
+    }
+
+    public void put(String key, WorkResult result) throws IOException {
+        Validate.notNull(key, "Key cannot be null.");
+        Validate.notNull(result, "Result cannot be null.");
+        File file = this.fileOf(key);
+        Files.createDirectories(file.getParentFile().toPath());
+        Path temporary = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+        try {
+            try (ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                output.writeObject(new Entry(key, result));
+            }
+            Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        writes.incrementAndGet();
+        long length = file.length();
+        estimatedBytes.addAndGet(length);
+        if (bytesSinceScan.addAndGet(length) > maximumBytes / 10 || estimatedBytes.get() > maximumBytes) {
+            this.evict();
+        }
+    }
+
+    /**
+     * Rescans the archive and, if it is larger than its maximum size, deletes
+     * the least recently used entries. Does nothing if another process is
+     * already evicting.
+     */
+    public synchronized void evict() throws IOException {
+        FileLock lock;
+        try {
+            lock = ProcessReaper.lock(directory);
+        } catch (IOException ex) {
+            Logger.trace(ex);
+            return;
+        }
+        try {
+            List<Path> entries = this.scanEntries();
+            // Hits touch the entries, so their times may change while sorting
+            Map<Path, Long> lastUsed = new HashMap<>();
+            long total = 0;
+            for (Path entry : entries) {
+                lastUsed.put(entry, entry.toFile().lastModified());
+                total += entry.toFile().length();
+            }
+            if (total > maximumBytes) {
+                long target = maximumBytes / 10 * 9;
+                entries.sort(Comparator.comparing(lastUsed::get));
+                for (Path entry : entries) {
+                    if (total <= target) {
+                        break;
+                    }
+                    long length = entry.toFile().length();
+                    if (this.delete(entry)) {
+                        total -= length;
+                        evictions.incrementAndGet();
+                    }
+                }
+                Logger.debug("Evicted archived evaluations down to " + total + " bytes.");
+            }
+            estimatedBytes.set(total);
+            bytesSinceScan.set(0);
+        } finally {
+            lock.channel().close();
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public long getMaximumBytes() {
+        return maximumBytes;
+    }
+
+    /**
+     * @return the size of the archive as of the last scan, plus what this
+     * process wrote since
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes.get();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getWrites() {
+        return writes.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public double getHitRate() {
+        long lookups = hits.get() + misses.get();
+        return lookups == 0 ? 0.0 : (double) hits.get() / lookups;
+    }
+
+    // Entries are spread over 256 subdirectories to keep directories small
+    private File fileOf(String key) {
+        String hash = Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString();
+        return new File(new File(directory, hash.substring(0, 2)), hash + ENTRY_SUFFIX);
+    }
+
+    private List<Path> scanEntries() throws IOException {
+        try (Stream<Path> files = Files.walk(directory.toPath(), 2)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(ENTRY_SUFFIX))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private boolean delete(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            Logger.debug(ex, "Could not delete archive entry " + file);
+            return false;
+        }
+    }
+
+    private static class Entry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String key;
+        private final WorkResult result;
+
+        Entry(String key, WorkResult result) {
+            this.key = key;
+            this.result = result;
+        }
+
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.cache;
+
+import gin.test.UnitTestResultSet;
+import org.apache.commons.lang3.Validate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded in-memory store of test results, keyed by {@link PatchFingerprint}.
+ * Once full, the least recently used entry is evicted.
+ *
+ * @author Giovani
+ */
+public class EvaluationCache {
+
+    private final int maximumSize;
+    private final LinkedHashMap<PatchFingerprint, UnitTestResultSet> entries;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public EvaluationCache(int maximumSize) {
+        Validate.isTrue(maximumSize > 0, "The cache size must be greater than zero.");
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<PatchFingerprint, UnitTestResultSet>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PatchFingerprint, UnitTestResultSet> eldest) {
+                if (size() > EvaluationCache.this.maximumSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized UnitTestResultSet get(PatchFingerprint fingerprint) {
+        UnitTestResultSet results = entries.get(fingerprint);
+        if (results == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return results;
+    }
+
+    /**
+     * Same as {@link #get(PatchFingerprint)} != null, without counting a hit or
+     * a miss nor refreshing the entry.
+     */
+    public synchronized boolean contains(PatchFingerprint fingerprint) {
+        return entries.containsKey(fingerprint);
+    }
+
+    public synchronized void put(PatchFingerprint fingerprint, UnitTestResultSet results) {
+        Validate.notNull(fingerprint, "Fingerprint cannot be null.");
+        Validate.notNull(results, "Results cannot be null.");
+        entries.put(fingerprint, results);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "EvaluationCache{size=" + entries.size() + "/" + maximumSize
+                + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + "}";
+    }
+
+}
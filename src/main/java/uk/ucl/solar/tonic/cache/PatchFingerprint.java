@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.cache;
+
+import gin.Patch;
+import gin.edit.Edit;
+import org.apache.commons.lang3.Validate;
+import uk.ucl.solar.tonic.base.TargetMethod;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Canonical identity of a patch applied to a target method: the method ID plus
+ * the normalised textual form of each edit, in order. Two patches with the same
+ * fingerprint produce the same program variant.
+ *
+ * @author Giovani
+ */
+public final class PatchFingerprint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Integer methodID;
+    private final List<String> edits;
+
+    public PatchFingerprint(Integer methodID, List<String> edits) {
+        Validate.notNull(edits, "Edits cannot be null.");
+        this.methodID = methodID;
+        List<String> normalisedEdits = new ArrayList<>(edits.size());
+        for (String edit : edits) {
+            normalisedEdits.add(normalise(edit));
+        }
+        this.edits = Collections.unmodifiableList(normalisedEdits);
+    }
+
+    public static PatchFingerprint of(TargetMethod method, Patch patch) {
+        Validate.notNull(method, "Target method cannot be null.");
+        Validate.notNull(patch, "Patch cannot be null.");
+        List<String> edits = new ArrayList<>(patch.size());
+        for (Edit edit : patch.getEdits()) {
+            edits.add(edit.toString());
+        }
+        return new PatchFingerprint(method.getMethodID(), edits);
+    }
+
+    // Gin pads some edit descriptions with extra spaces and uses the platform
+    // separator in file paths, neither of which changes the edit itself
+    private static String normalise(String edit) {
+        return edit.trim()
+                .replace('\\', '/')
+                .replaceAll("\\s+", " ");
+    }
+
+    public Integer getMethodID() {
+        return methodID;
+    }
+
+    public List<String> getEdits() {
+        return edits;
+    }
+
+    public int size() {
+        return edits.size();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(methodID).append(" |");
+        for (String edit : edits) {
+            builder.append(' ').append(edit).append(" |");
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 53 * hash + Objects.hashCode(this.methodID);
+        hash = 53 * hash + Objects.hashCode(this.edits);
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final PatchFingerprint other = (PatchFingerprint) obj;
+        if (!Objects.equals(this.methodID, other.methodID)) {
+            return false;
+        }
+        return Objects.equals(this.edits, other.edits);
+    }
+
+}
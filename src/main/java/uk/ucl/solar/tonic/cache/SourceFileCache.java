@@ -0,0 +1,225 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.cache;
+
+import com.google.common.hash.Hashing;
+import gin.SourceFile;
+import gin.edit.Edit;
+import org.apache.commons.lang3.Validate;
+import org.pmw.tinylog.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded in-memory store of parsed source files, so that a file is parsed
+ * once however many listed methods it holds, and so that the source of the
+ * next method can be parsed in the background while the current one is
+ * searched. Entries are keyed by the file's path and content hash, the edit
+ * types and the target methods. Gin binds a parse to the methods it targets
+ * and cannot build a parsed file from another's compilation unit, so methods
+ * of the same class with different targets are parsed separately; what they
+ * share is the file's content hash, which is computed once per version of
+ * the file. A new version of a file drops the entries parsed from the old
+ * one. Once full, the least recently used entry is evicted.
+ * <p>
+ * Parsed files are shared, which is safe as Gin applies patches to copies.
+ *
+ * @author Giovani
+ */
+public class SourceFileCache {
+
+    private final int maximumSize;
+    private final LinkedHashMap<String, CompletableFuture<SourceFile>> entries;
+    private final Map<String, FileVersion> versions = new HashMap<>();
+    private final ExecutorService parser = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tonic-source-parser");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long hits = 0;
+    private long misses = 0;
+
+    public SourceFileCache(int maximumSize) {
+        Validate.isTrue(maximumSize > 0, "The cache size must be greater than zero.");
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<String, CompletableFuture<SourceFile>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<SourceFile>> eldest) {
+                return size() > SourceFileCache.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * @return the parsed source file, waiting for it if it is being parsed in
+     * the background, or parsing it in this thread if it is not cached
+     */
+    public SourceFile get(List<Class<? extends Edit>> editTypes, File source, List<String> targetMethods) {
+        String key = key(editTypes, source, targetMethods);
+        CompletableFuture<SourceFile> parse;
+        boolean parsing = false;
+        synchronized (this) {
+            parse = entries.get(key);
+            if (parse == null) {
+                parse = new CompletableFuture<>();
+                entries.put(key, parse);
+                parsing = true;
+                misses++;
+            } else {
+                hits++;
+            }
+        }
+        if (parsing) {
+            this.parse(key, parse, editTypes, source, targetMethods);
+        }
+        try {
+            return parse.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            } else if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Parses the source file in the background, unless it is already cached,
+     * so that a later {@link #get(List, File, List)} does not have to.
+     */
+    public void prefetch(List<Class<? extends Edit>> editTypes, File source, List<String> targetMethods) {
+        try {
+            parser.execute(() -> prefetchNow(editTypes, source, targetMethods));
+        } catch (RejectedExecutionException ex) {
+            // Shut down, the file is parsed when it is needed
+        }
+    }
+
+    private void prefetchNow(List<Class<? extends Edit>> editTypes, File source, List<String> targetMethods) {
+        try {
+            String key = key(editTypes, source, targetMethods);
+            CompletableFuture<SourceFile> parse = new CompletableFuture<>();
+            synchronized (this) {
+                if (entries.putIfAbsent(key, parse) != null) {
+                    return;
+                }
+            }
+            this.parse(key, parse, editTypes, source, targetMethods);
+        } catch (RuntimeException ex) {
+            // The error is reported when the file is actually needed
+            Logger.debug(ex, "Could not parse " + source + " in the background.");
+        }
+    }
+
+    private void parse(String key, CompletableFuture<SourceFile> parse, List<Class<? extends Edit>> editTypes, File source, List<String> targetMethods) {
+        try {
+            parse.complete(SourceFile.makeSourceFileForEditTypes(editTypes, source.getPath(), targetMethods));
+        } catch (RuntimeException | Error ex) {
+            // Failures are not cached, so they are retried and reported again
+            synchronized (this) {
+                entries.remove(key, parse);
+            }
+            parse.completeExceptionally(ex);
+        }
+    }
+
+    private String key(List<Class<? extends Edit>> editTypes, File source, List<String> targetMethods) {
+        String path = source.getAbsolutePath();
+        return path + "\n"
+                + contentHash(path, source) + "\n"
+                + editTypes.stream().map(Class::getName).collect(Collectors.joining(",")) + "\n"
+                + String.join("\n", targetMethods);
+    }
+
+    /**
+     * @return the content hash of the file, read again only if its size or
+     * modification time changed since it was last hashed
+     */
+    private String contentHash(String path, File source) {
+        long lastModified = source.lastModified();
+        long length = source.length();
+        synchronized (this) {
+            FileVersion version = versions.get(path);
+            if (version != null && version.lastModified == lastModified && version.length == length) {
+                return version.contentHash;
+            }
+        }
+        String contentHash;
+        try {
+            contentHash = Hashing.sha256().hashBytes(Files.readAllBytes(source.toPath())).toString();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read " + source, ex);
+        }
+        synchronized (this) {
+            FileVersion previous = versions.put(path, new FileVersion(lastModified, length, contentHash));
+            if (previous != null && !previous.contentHash.equals(contentHash)) {
+                String stalePrefix = path + "\n" + previous.contentHash + "\n";
+                entries.keySet().removeIf(key -> key.startsWith(stalePrefix));
+            }
+        }
+        return contentHash;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public void shutdown() {
+        parser.shutdownNow();
+    }
+
+    private static class FileVersion {
+
+        private final long lastModified;
+        private final long length;
+        private final String contentHash;
+
+        FileVersion(long lastModified, long length, String contentHash) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.contentHash = contentHash;
+        }
+
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.coverage;
+
+import org.apache.commons.lang3.StringUtils;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.commons.AdviceAdapter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds a call to {@link CoverageProbe#hit()} at the entry of a target method,
+ * given in the format of the method file, e.g.
+ * {@code com.mycompany.app.App.classifyTriangle(int,int,int)}. Parameter
+ * types are compared by simple name, as the method file may or may not
+ * qualify them.
+ *
+ * @author Giovani
+ */
+public class CoverageInstrumenter {
+
+    private static final String PROBE = Type.getInternalName(CoverageProbe.class);
+
+    private final String declaringClass;
+    private final String methodName;
+    private final List<String> parameterTypes;
+
+    public CoverageInstrumenter(String methodSignature) {
+        String qualifiedName = StringUtils.substringBefore(methodSignature, "(");
+        this.declaringClass = StringUtils.substringBeforeLast(qualifiedName, ".");
+        this.methodName = StringUtils.substringAfterLast(qualifiedName, ".");
+        this.parameterTypes = new ArrayList<>();
+        String parameters = StringUtils.substringBetween(methodSignature, "(", ")");
+        if (parameters != null) {
+            // Generic arguments may contain commas, so they go first
+            String erased = parameters;
+            while (erased.contains("<")) {
+                erased = erased.replaceAll("<[^<>]*>", "");
+            }
+            for (String parameter : erased.split(",")) {
+                if (!parameter.trim().isEmpty()) {
+                    this.parameterTypes.add(simpleName(parameter.trim().replace("...", "[]")));
+                }
+            }
+        }
+    }
+
+    /**
+     * @param classes bytes of the classes compiled from the target method's
+     *                source file, indexed by binary name
+     * @return a copy of the classes with the probe in place, or null if none
+     * of them declares the target method
+     */
+    public Map<String, byte[]> instrument(Map<String, byte[]> classes) {
+        Map<String, byte[]> instrumented = new LinkedHashMap<>(classes);
+        boolean found = false;
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            if (!entry.getKey().replace('$', '.').equals(this.declaringClass)) {
+                continue;
+            }
+            ClassReader reader = new ClassReader(entry.getValue());
+            ClassWriter writer = new ClassWriter(reader, ClassWriter.COMPUTE_MAXS);
+            ProbeClassVisitor visitor = new ProbeClassVisitor(writer);
+            reader.accept(visitor, 0);
+            if (visitor.instrumented) {
+                instrumented.put(entry.getKey(), writer.toByteArray());
+                found = true;
+            }
+        }
+        return found ? instrumented : null;
+    }
+
+    boolean matches(String name, String descriptor) {
+        boolean constructor = "<init>".equals(name) && simpleName(this.declaringClass).equals(this.methodName);
+        if (!constructor && !name.equals(this.methodName)) {
+            return false;
+        }
+        List<String> arguments = new ArrayList<>();
+        for (Type type : Type.getArgumentTypes(descriptor)) {
+            arguments.add(simpleName(type.getClassName()));
+        }
+        // Constructors of inner classes take the enclosing instance first
+        if (constructor && arguments.size() == this.parameterTypes.size() + 1) {
+            arguments.remove(0);
+        }
+        return arguments.equals(this.parameterTypes);
+    }
+
+    private static String simpleName(String typeName) {
+        String name = StringUtils.substringAfterLast(typeName, ".");
+        if (name.isEmpty()) {
+            name = typeName;
+        }
+        return name.contains("$") ? StringUtils.substringAfterLast(name, "$") : name;
+    }
+
+    private class ProbeClassVisitor extends ClassVisitor {
+
+        private boolean instrumented = false;
+
+        ProbeClassVisitor(ClassVisitor classVisitor) {
+            super(Opcodes.ASM9, classVisitor);
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            MethodVisitor methodVisitor = super.visitMethod(access, name, descriptor, signature, exceptions);
+            if ((access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) != 0 || !matches(name, descriptor)) {
+                return methodVisitor;
+            }
+            instrumented = true;
+            return new AdviceAdapter(Opcodes.ASM9, methodVisitor, access, name, descriptor) {
+                // Called after super() or this() in constructors
+                @Override
+                protected void onMethodEnter() {
+                    visitMethodInsn(Opcodes.INVOKESTATIC, PROBE, "hit", "()V", false);
+                }
+            };
+        }
+    }
+
+}
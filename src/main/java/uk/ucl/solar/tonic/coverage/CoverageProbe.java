@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.coverage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts entries into the methods instrumented by
+ * {@link CoverageInstrumenter}. It is always loaded by Tonic's own class
+ * loader, so the counter is shared with the instrumented classes.
+ *
+ * @author Giovani
+ */
+public final class CoverageProbe {
+
+    private static final AtomicLong HITS = new AtomicLong();
+
+    private CoverageProbe() {
+    }
+
+    public static void hit() {
+        HITS.incrementAndGet();
+    }
+
+    /**
+     * @return the number of hits since the last reset
+     */
+    public static long reset() {
+        return HITS.getAndSet(0);
+    }
+
+}
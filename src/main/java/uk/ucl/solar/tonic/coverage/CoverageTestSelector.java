@@ -0,0 +1,190 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.coverage;
+
+import com.google.common.hash.Hashing;
+import com.opencsv.CSVReaderHeaderAware;
+import com.opencsv.CSVWriter;
+import gin.test.UnitTest;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.pmw.tinylog.Logger;
+import uk.ucl.solar.tonic.base.TargetMethod;
+import uk.ucl.solar.tonic.runner.PatchCompiler;
+import uk.ucl.solar.tonic.runner.TestDescriptor;
+import uk.ucl.solar.tonic.runner.TestOutcome;
+import uk.ucl.solar.tonic.runner.TestRequest;
+import uk.ucl.solar.tonic.runner.TestResponse;
+import uk.ucl.solar.tonic.runner.WorkerProcess;
+import uk.ucl.solar.tonic.runner.WorkerTestRunner;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps only the tests of a method that execute it on the original program.
+ * Each test is run once against the original class with a
+ * {@link CoverageProbe} at the entry of the method, in a worker JVM, so that
+ * the project's tests never run in Tonic's own. The selection is stored in a
+ * CSV file, and is reused for as long as neither the source file nor the
+ * tests of the method change. Tests are always selected out of the tests the
+ * method had when it was first seen, even if they were replaced by the
+ * selection since.
+ *
+ * @author Giovani
+ */
+public class CoverageTestSelector {
+
+    private static final String TEST_SEPARATOR = ",";
+
+    private final String classPath;
+    private final File cacheFile;
+    private final Map<Integer, String[]> selections = new LinkedHashMap<>();
+    private final Map<Integer, List<UnitTest>> originalTests = new HashMap<>();
+
+    public CoverageTestSelector(String classPath, File cacheFile) {
+        this.classPath = classPath;
+        this.cacheFile = cacheFile;
+        if (cacheFile.isFile()) {
+            try (FileReader fileReader = new FileReader(cacheFile)) {
+                CSVReaderHeaderAware reader = new CSVReaderHeaderAware(fileReader);
+                Map<String, String> data = reader.readMap();
+                while (data != null) {
+                    this.selections.put(Integer.valueOf(data.get("MethodIndex")), new String[]{data.get("Fingerprint"), data.get("Tests")});
+                    data = reader.readMap();
+                }
+                reader.close();
+            } catch (IOException | RuntimeException ex) {
+                Logger.warn("Ignoring unreadable test selection file " + cacheFile + ": " + ex.getMessage());
+                this.selections.clear();
+            }
+        }
+    }
+
+    public File getCacheFile() {
+        return cacheFile;
+    }
+
+    /**
+     * @return the tests of the method that execute it, or all of its tests if
+     * that cannot be told or none does
+     */
+    public synchronized List<UnitTest> select(TargetMethod method) {
+        List<UnitTest> tests = this.originalTests.computeIfAbsent(method.getMethodID(), methodID -> new ArrayList<>(method.getGinTests()));
+        String source;
+        try {
+            source = FileUtils.readFileToString(method.getFileSource(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            Logger.warn("Could not read " + method.getFileSource() + ", running all tests: " + ex.getMessage());
+            return tests;
+        }
+        String fingerprint = Hashing.sha256()
+                .hashString(method.getMethodName() + "\n" + source + tests.toString(), StandardCharsets.UTF_8)
+                .toString();
+
+        List<Integer> selected;
+        String[] selection = this.selections.get(method.getMethodID());
+        if (selection != null && selection[0].equals(fingerprint)) {
+            selected = new ArrayList<>();
+            for (String index : StringUtils.split(selection[1], TEST_SEPARATOR)) {
+                selected.add(Integer.valueOf(index));
+            }
+        } else {
+            selected = trace(method, tests, source);
+            if (selected == null) {
+                return tests;
+            }
+            this.selections.put(method.getMethodID(), new String[]{fingerprint, StringUtils.join(selected, TEST_SEPARATOR)});
+            save();
+        }
+
+        if (selected.isEmpty()) {
+            Logger.warn("No test executes " + method + ", running all of them.");
+            return tests;
+        }
+        List<UnitTest> selectedTests = new ArrayList<>(selected.size());
+        for (Integer index : selected) {
+            selectedTests.add(tests.get(index));
+        }
+        Logger.info("Selected " + selectedTests.size() + " out of " + tests.size() + " tests for " + method + ".");
+        return selectedTests;
+    }
+
+    /**
+     * @return the positions of the tests that hit the probe, or null if the
+     * method could not be instrumented or the tests could not be run
+     */
+    private List<Integer> trace(TargetMethod method, List<UnitTest> tests, String source) {
+        Map<String, byte[]> classes = new PatchCompiler(this.classPath).compile(method.getClassName(), source);
+        if (classes != null) {
+            classes = new CoverageInstrumenter(method.getMethodName()).instrument(classes);
+        }
+        if (classes == null) {
+            Logger.warn("Could not instrument " + method + ", running all tests.");
+            return null;
+        }
+        List<TestDescriptor> descriptors = WorkerTestRunner.describe(tests);
+        List<Integer> selected = new ArrayList<>();
+        WorkerProcess worker = null;
+        try {
+            for (int index = 0; index < descriptors.size(); index++) {
+                // A test that left a thread behind could still hit the probe
+                // during the next ones, so its worker is replaced
+                if (worker == null || worker.isBroken()) {
+                    if (worker != null) {
+                        worker.close();
+                    }
+                    worker = WorkerProcess.start();
+                }
+                TestResponse response = worker.execute(new TestRequest(method.getClassName(), this.classPath, classes, Collections.singletonList(descriptors.get(index)), 1, false));
+                for (TestOutcome outcome : response.getOutcomes()) {
+                    if (outcome.getCoverageHits() > 0) {
+                        selected.add(index);
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            Logger.warn(ex, "Could not trace the tests of " + method + ", running all tests.");
+            return null;
+        } finally {
+            if (worker != null) {
+                worker.close();
+            }
+        }
+        return selected;
+    }
+
+    private void save() {
+        try (CSVWriter writer = new CSVWriter(new FileWriter(this.cacheFile))) {
+            writer.writeNext(new String[]{"MethodIndex", "Fingerprint", "Tests"});
+            for (Map.Entry<Integer, String[]> entry : this.selections.entrySet()) {
+                writer.writeNext(new String[]{entry.getKey().toString(), entry.getValue()[0], entry.getValue()[1]});
+            }
+        } catch (IOException ex) {
+            Logger.warn("Could not save the test selection to " + this.cacheFile + ": " + ex.getMessage());
+        }
+    }
+
+}
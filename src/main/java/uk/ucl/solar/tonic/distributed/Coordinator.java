@@ -0,0 +1,224 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.distributed;
+
+import org.apache.commons.lang3.Validate;
+import org.pmw.tinylog.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands {@link WorkItem}s to the {@link RemoteWorker}s connected over TCP, one
+ * item per worker at a time. An item whose worker disconnects, or does not
+ * answer within the item timeout, goes back to the front of the queue and is
+ * given to the next free worker. Workers may connect and reconnect at any
+ * time.
+ *
+ * @author Giovani
+ */
+public class Coordinator implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final long itemTimeoutMS;
+    private final String problemClass;
+    private final BlockingDeque<WorkItem> queue = new LinkedBlockingDeque<>();
+    private final Map<Long, CompletableFuture<WorkResult>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final AtomicLong requeuedItems = new AtomicLong();
+    private final ExecutorService connections;
+    private volatile boolean closed = false;
+
+    /**
+     * @param port          port to listen on, or 0 for any free port
+     * @param itemTimeoutMS time a worker has to answer an item before the
+     *                      item is given to another worker
+     */
+    public Coordinator(int port, long itemTimeoutMS) throws IOException {
+        this(port, itemTimeoutMS, null);
+    }
+
+    /**
+     * @param port          port to listen on, or 0 for any free port
+     * @param itemTimeoutMS time a worker has to answer an item before the
+     *                      item is given to another worker
+     * @param problemClass  name of the problem class the workers evaluate
+     *                      items with, or null for their default
+     */
+    public Coordinator(int port, long itemTimeoutMS, String problemClass) throws IOException {
+        Validate.isTrue(itemTimeoutMS > 0, "The item timeout must be greater than zero.");
+        this.itemTimeoutMS = itemTimeoutMS;
+        this.problemClass = problemClass;
+        this.serverSocket = new ServerSocket(port);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "tonic-coordinator-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.connections.submit(this::accept);
+        Logger.info("Waiting for remote workers on port " + getPort() + ".");
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getConnectedWorkers() {
+        return sockets.size();
+    }
+
+    public long getRequeuedItems() {
+        return requeuedItems.get();
+    }
+
+    public CompletableFuture<WorkResult> submit(int methodID, List<String> edits) {
+        WorkItem item = new WorkItem(nextId.incrementAndGet(), methodID, edits, problemClass);
+        CompletableFuture<WorkResult> future = new CompletableFuture<>();
+        pending.put(item.getId(), future);
+        if (closed) {
+            fail(item.getId());
+        } else {
+            queue.addLast(item);
+        }
+        return future;
+    }
+
+    /**
+     * Waits until some worker has evaluated the item.
+     *
+     * @throws IOException if the item could not be evaluated, including by a
+     * worker that failed for reasons unrelated to the patch
+     */
+    public WorkResult evaluate(int methodID, List<String> edits) throws IOException, InterruptedException {
+        WorkResult result;
+        try {
+            result = submit(methodID, edits).get();
+        } catch (ExecutionException ex) {
+            throw new IOException("Work item could not be evaluated.", ex.getCause());
+        }
+        if (result.isFailed()) {
+            throw new IOException("Remote worker could not evaluate the work item: " + result.getFailure());
+        }
+        return result;
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.submit(() -> serve(socket));
+            } catch (IOException ex) {
+                if (!closed) {
+                    Logger.warn("Could not accept a remote worker: " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        sockets.add(socket);
+        String worker = String.valueOf(socket.getRemoteSocketAddress());
+        Logger.info("Remote worker connected: " + worker);
+        WorkItem item = null;
+        try (Socket connection = socket) {
+            connection.setSoTimeout((int) Math.min(Integer.MAX_VALUE, itemTimeoutMS));
+            ObjectOutputStream output = new ObjectOutputStream(connection.getOutputStream());
+            output.flush();
+            ObjectInputStream input = new ObjectInputStream(connection.getInputStream());
+            while (!closed) {
+                item = queue.take();
+                output.writeObject(item);
+                output.reset();
+                output.flush();
+                WorkResult result = (WorkResult) input.readObject();
+                CompletableFuture<WorkResult> future = pending.remove(result.getId());
+                if (future != null) {
+                    future.complete(result);
+                }
+                item = null;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+            if (!closed) {
+                Logger.warn("Lost remote worker " + worker + ": " + ex.getMessage());
+            }
+        } finally {
+            sockets.remove(socket);
+            if (item != null) {
+                requeue(item);
+            }
+        }
+    }
+
+    private void requeue(WorkItem item) {
+        if (closed) {
+            fail(item.getId());
+        } else if (pending.containsKey(item.getId())) {
+            requeuedItems.incrementAndGet();
+            queue.addFirst(item);
+        }
+    }
+
+    private void fail(long id) {
+        CompletableFuture<WorkResult> future = pending.remove(id);
+        if (future != null) {
+            future.completeExceptionally(new SocketException("Coordinator closed."));
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException ex) {
+            Logger.trace(ex);
+        }
+        connections.shutdownNow();
+        for (Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (IOException ex) {
+                Logger.trace(ex);
+            }
+        }
+        for (Long id : pending.keySet()) {
+            fail(id);
+        }
+        queue.clear();
+    }
+
+}
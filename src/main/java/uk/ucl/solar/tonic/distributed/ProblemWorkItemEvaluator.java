@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.distributed;
+
+import gin.Patch;
+import gin.test.UnitTestResultSet;
+import uk.ucl.solar.tonic.base.TargetMethod;
+import uk.ucl.solar.tonic.problem.gi.GeneticImprovementProblem;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Evaluates work items with {@link GeneticImprovementProblem#runPatch(Patch)},
+ * on a copy of the problem per target method. Each copy measures the
+ * original program before its first patch, as the coordinator's
+ * measurements do not reach the worker, and racing, the runtime cutoff and
+ * dynamic timeouts are all relative to the original program.
+ *
+ * @author Giovani
+ */
+public class ProblemWorkItemEvaluator implements Function<WorkItem, WorkResult> {
+
+    private final GeneticImprovementProblem problem;
+    private final Map<Integer, GeneticImprovementProblem> methodProblems = new ConcurrentHashMap<>();
+
+    public ProblemWorkItemEvaluator(GeneticImprovementProblem problem) {
+        this.problem = problem;
+    }
+
+    @Override
+    public WorkResult apply(WorkItem item) {
+        GeneticImprovementProblem methodProblem = getMethodProblem(item.getMethodID());
+        // The empty patch sets the original program results itself
+        if (methodProblem.getOriginalProgramResults() == null && !item.getEdits().isEmpty()) {
+            methodProblem.runPatch(new Patch(methodProblem.getTargetedSourceFile()));
+        }
+        Patch patch = item.toPatch(methodProblem.getTargetedSourceFile());
+        UnitTestResultSet results = methodProblem.runPatch(patch);
+        return WorkResult.of(item.getId(), methodProblem.getTargetedMethod().getGinTests(), results);
+    }
+
+    GeneticImprovementProblem getMethodProblem(int methodID) {
+        return methodProblems.computeIfAbsent(methodID, id -> {
+            for (TargetMethod method : problem.getMethodData()) {
+                if (method.getMethodID().equals(id)) {
+                    return problem.forMethod(method);
+                }
+            }
+            throw new IllegalArgumentException("Unknown method ID: " + id);
+        });
+    }
+
+}
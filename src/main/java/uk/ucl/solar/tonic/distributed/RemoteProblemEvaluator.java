@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.distributed;
+
+import org.apache.commons.lang3.Validate;
+import uk.ucl.solar.tonic.problem.gi.GeneticImprovementProblem;
+import uk.ucl.solar.tonic.problem.gi.impl.RuntimeGeneticImprovementProblem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Evaluates work items with the problem class named by each item, so that a
+ * remote worker measures what the coordinator's problem needs, e.g. CPU time
+ * or memory with the worker JVMs those problems require. Each problem is
+ * created from the properties file shared with the coordinator the first
+ * time its class is seen. Items that name no class are evaluated with a
+ * {@link RuntimeGeneticImprovementProblem}.
+ *
+ * @author Giovani
+ */
+public class RemoteProblemEvaluator implements Function<WorkItem, WorkResult>, Closeable {
+
+    private final String propertiesPath;
+    private final Map<String, ProblemWorkItemEvaluator> evaluators = new ConcurrentHashMap<>();
+    private final Map<String, GeneticImprovementProblem> problems = new ConcurrentHashMap<>();
+
+    public RemoteProblemEvaluator(String propertiesPath) {
+        Validate.notBlank(propertiesPath, "The properties file cannot be blank.");
+        this.propertiesPath = propertiesPath;
+    }
+
+    @Override
+    public WorkResult apply(WorkItem item) {
+        String problemClass = item.getProblemClass() == null ? RuntimeGeneticImprovementProblem.class.getName() : item.getProblemClass();
+        return evaluators.computeIfAbsent(problemClass, name -> new ProblemWorkItemEvaluator(getProblem(name))).apply(item);
+    }
+
+    GeneticImprovementProblem getProblem(String problemClass) {
+        return problems.computeIfAbsent(problemClass, this::createProblem);
+    }
+
+    private GeneticImprovementProblem createProblem(String problemClass) {
+        GeneticImprovementProblem problem;
+        try {
+            problem = Class.forName(problemClass).asSubclass(GeneticImprovementProblem.class)
+                    .getConstructor(String.class).newInstance(propertiesPath);
+        } catch (InvocationTargetException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw new UncheckedIOException((IOException) ex.getCause());
+            }
+            throw new IllegalArgumentException("Cannot create problem " + problemClass, ex.getCause());
+        } catch (ReflectiveOperationException | ClassCastException ex) {
+            throw new IllegalArgumentException("Cannot create problem " + problemClass, ex);
+        }
+        // The properties are shared with the coordinator, but this worker
+        // evaluates patches itself
+        problem.setCoordinatorPort(null);
+        return problem;
+    }
+
+    @Override
+    public void close() {
+        problems.values().forEach(GeneticImprovementProblem::shutdown);
+    }
+
+}
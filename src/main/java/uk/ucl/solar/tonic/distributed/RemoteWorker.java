@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.distributed;
+
+import org.apache.commons.lang3.Validate;
+import org.pmw.tinylog.Logger;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.Socket;
+import java.util.function.Function;
+
+/**
+ * Evaluates the {@link WorkItem}s of a {@link Coordinator}, possibly on another
+ * host. The worker keeps reconnecting to the coordinator until it is stopped,
+ * so the coordinator may be restarted and workers may be started before it.
+ *
+ * @author Giovani
+ */
+public class RemoteWorker implements Runnable {
+
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    private final String host;
+    private final int port;
+    private final Function<WorkItem, WorkResult> evaluator;
+    private volatile boolean stopped = false;
+    private volatile Socket socket;
+
+    public RemoteWorker(String host, int port, Function<WorkItem, WorkResult> evaluator) {
+        Validate.notNull(evaluator, "The evaluator cannot be null.");
+        this.host = host;
+        this.port = port;
+        this.evaluator = evaluator;
+    }
+
+    @Override
+    public void run() {
+        while (!stopped) {
+            try (Socket connection = new Socket(host, port)) {
+                this.socket = connection;
+                Logger.info("Connected to coordinator " + host + ":" + port + ".");
+                ObjectOutputStream output = new ObjectOutputStream(connection.getOutputStream());
+                output.flush();
+                ObjectInputStream input = new ObjectInputStream(connection.getInputStream());
+                while (!stopped) {
+                    WorkItem item = (WorkItem) input.readObject();
+                    WorkResult result;
+                    try {
+                        result = evaluator.apply(item);
+                    } catch (RuntimeException ex) {
+                        // Sending the item back would only pass it on to
+                        // another worker that fails the same way
+                        Logger.error(ex, "Could not evaluate work item " + item);
+                        result = WorkResult.failed(item.getId(), ex.toString());
+                    }
+                    output.writeObject(result);
+                    output.reset();
+                    output.flush();
+                }
+            } catch (EOFException ex) {
+                Logger.info("Coordinator " + host + ":" + port + " closed the connection.");
+            } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+                if (!stopped) {
+                    Logger.debug("No connection to coordinator " + host + ":" + port + ": " + ex.getMessage());
+                }
+            }
+            if (!stopped) {
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    stopped = true;
+                }
+            }
+        }
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public void stop() {
+        stopped = true;
+        Socket connection = this.socket;
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (IOException ex) {
+                Logger.trace(ex);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: " + RemoteWorker.class.getName() + " <tonic properties file> <coordinator host> <coordinator port>");
+            System.exit(1);
+        }
+        RemoteProblemEvaluator evaluator = new RemoteProblemEvaluator(args[0]);
+        Runtime.getRuntime().addShutdownHook(new Thread(evaluator::close));
+        new RemoteWorker(args[1], Integer.parseInt(args[2]), evaluator).run();
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.distributed;
+
+import gin.Patch;
+import gin.SourceFile;
+import gin.edit.Edit;
+
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A patch to evaluate on a remote worker: the ID of the target method plus
+ * the textual form of each edit, from which the worker rebuilds the patch
+ * against its own copy of the source file. The item also names the problem
+ * class of the coordinator, as it decides what the worker measures.
+ *
+ * @author Giovani
+ */
+public class WorkItem implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long id;
+    private final int methodID;
+    private final List<String> edits;
+    private final String problemClass;
+
+    public WorkItem(long id, int methodID, List<String> edits) {
+        this(id, methodID, edits, null);
+    }
+
+    /**
+     * @param problemClass name of the problem class to evaluate the patch
+     *                     with, or null for the worker's default
+     */
+    public WorkItem(long id, int methodID, List<String> edits, String problemClass) {
+        this.id = id;
+        this.methodID = methodID;
+        this.edits = Collections.unmodifiableList(new ArrayList<>(edits));
+        this.problemClass = problemClass;
+    }
+
+    public static List<String> describe(Patch patch) {
+        List<String> edits = new ArrayList<>(patch.size());
+        for (Edit edit : patch.getEdits()) {
+            edits.add(edit.toString());
+        }
+        return edits;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getMethodID() {
+        return methodID;
+    }
+
+    public List<String> getEdits() {
+        return edits;
+    }
+
+    public String getProblemClass() {
+        return problemClass;
+    }
+
+    /**
+     * Rebuilds the patch with the static {@code fromString} method of each
+     * edit class, the same way Gin parses patches.
+     */
+    public Patch toPatch(SourceFile sourceFile) {
+        Patch patch = new Patch(sourceFile);
+        for (String edit : edits) {
+            String editClass = edit.trim().split("\\s+")[0];
+            try {
+                patch.add((Edit) Class.forName(editClass).getMethod("fromString", String.class).invoke(null, edit.trim()));
+            } catch (ReflectiveOperationException | ClassCastException ex) {
+                Throwable cause = ex instanceof InvocationTargetException ? ex.getCause() : ex;
+                throw new IllegalArgumentException("Cannot parse edit: " + edit, cause);
+            }
+        }
+        return patch;
+    }
+
+    @Override
+    public String toString() {
+        return id + ": " + methodID + " | " + String.join(" | ", edits);
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.distributed;
+
+import gin.Patch;
+import gin.test.UnitTest;
+import gin.test.UnitTestResult;
+import gin.test.UnitTestResultSet;
+import uk.ucl.solar.tonic.runner.MeasuredUnitTestResult;
+import uk.ucl.solar.tonic.runner.TestOutcome;
+import uk.ucl.solar.tonic.runner.TestResponse;
+import uk.ucl.solar.tonic.runner.WorkerTestRunner;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Serialisable counterpart of a {@link UnitTestResultSet}, sent back by a
+ * remote worker for a {@link WorkItem}. Tests are referred to by their
+ * position in the target method's test list.
+ *
+ * @author Giovani
+ */
+public class WorkResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long id;
+    private final boolean validPatch;
+    private final List<Boolean> editsValid;
+    private final boolean cleanCompile;
+    private final boolean noOp;
+    private final List<TestOutcome> outcomes;
+    private final String failure;
+
+    public WorkResult(long id, boolean validPatch, List<Boolean> editsValid, boolean cleanCompile, boolean noOp, List<TestOutcome> outcomes) {
+        this(id, validPatch, editsValid, cleanCompile, noOp, outcomes, null);
+    }
+
+    private WorkResult(long id, boolean validPatch, List<Boolean> editsValid, boolean cleanCompile, boolean noOp, List<TestOutcome> outcomes, String failure) {
+        this.id = id;
+        this.validPatch = validPatch;
+        this.editsValid = new ArrayList<>(editsValid);
+        this.cleanCompile = cleanCompile;
+        this.noOp = noOp;
+        this.outcomes = new ArrayList<>(outcomes);
+        this.failure = failure;
+    }
+
+    public static WorkResult of(long id, List<UnitTest> tests, UnitTestResultSet results) {
+        List<TestOutcome> outcomes = new ArrayList<>(results.getResults().size());
+        for (UnitTestResult result : results.getResults()) {
+            TestOutcome outcome = new TestOutcome(tests.indexOf(result.getTest()), result.getRepNumber());
+            outcome.setPassed(result.getPassed());
+            outcome.setTimedOut(result.getTimedOut());
+            outcome.setExecutionTime(result.getExecutionTime());
+            outcome.setExceptionType(result.getExceptionType());
+            outcome.setExceptionMessage(result.getExceptionMessage());
+            outcome.setCpuTime(MeasuredUnitTestResult.cpuTimeOf(result));
+            outcome.setUserTime(MeasuredUnitTestResult.userTimeOf(result));
+            outcome.setAllocatedBytes(MeasuredUnitTestResult.allocatedBytesOf(result));
+            outcome.setPeakHeapBytes(MeasuredUnitTestResult.peakHeapBytesOf(result));
+            outcome.setInstructionCount(MeasuredUnitTestResult.instructionCountOf(result));
+            outcomes.add(outcome);
+        }
+        return new WorkResult(id, results.getValidPatch(), results.getEditsValid(), results.getCleanCompile(), results.getNoOp(), outcomes);
+    }
+
+    /**
+     * @param failure why the worker could not evaluate the item
+     * @return the result of an item the worker could not evaluate, which
+     * says nothing about the patch
+     */
+    public static WorkResult failed(long id, String failure) {
+        return new WorkResult(id, false, Collections.emptyList(), false, false, Collections.emptyList(), String.valueOf(failure));
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public boolean isValidPatch() {
+        return validPatch;
+    }
+
+    public List<Boolean> getEditsValid() {
+        return editsValid;
+    }
+
+    public boolean isCleanCompile() {
+        return cleanCompile;
+    }
+
+    public boolean isNoOp() {
+        return noOp;
+    }
+
+    public List<TestOutcome> getOutcomes() {
+        return outcomes;
+    }
+
+    /**
+     * @return true if the worker could not evaluate the item, either at all
+     * or because its own test runner kept failing
+     */
+    public boolean isFailed() {
+        return failure != null
+                || (!outcomes.isEmpty() && TestOutcome.EVALUATION_FAILED.equals(outcomes.get(0).getExceptionType()));
+    }
+
+    /**
+     * @return why the worker could not evaluate the item
+     */
+    public String getFailure() {
+        if (failure != null) {
+            return failure;
+        }
+        return isFailed() ? outcomes.get(0).getExceptionMessage() : null;
+    }
+
+    public UnitTestResultSet toResultSet(Patch patch, List<UnitTest> tests) {
+        List<UnitTestResult> results = WorkerTestRunner.toUnitTestResults(tests, new TestResponse(outcomes, false));
+        return new UnitTestResultSet(patch, validPatch, editsValid, cleanCompile, noOp, results);
+    }
+
+}
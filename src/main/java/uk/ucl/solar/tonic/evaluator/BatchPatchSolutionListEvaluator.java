@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.evaluator;
+
+import org.apache.commons.lang3.Validate;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+import uk.ucl.solar.tonic.problem.gi.GeneticImprovementProblem;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Tests all the distinct patches of a generation in a single worker JVM, then
+ * evaluates the solutions sequentially against those results. JVM startup and
+ * classpath loading are thus paid once per generation rather than once per
+ * patch, while the tests of each patch still run with the problem's timeouts
+ * and repetitions.
+ *
+ * @author Giovani
+ */
+public class BatchPatchSolutionListEvaluator implements SolutionListEvaluator<PatchSolution> {
+
+    @Override
+    public List<PatchSolution> evaluate(List<PatchSolution> solutionList, Problem<PatchSolution> problem) {
+        Validate.notNull(solutionList);
+        Validate.isInstanceOf(GeneticImprovementProblem.class, problem, "Batch evaluation requires a GeneticImprovementProblem.");
+        GeneticImprovementProblem giProblem = (GeneticImprovementProblem) problem;
+        giProblem.testPatchesInBatch(solutionList.stream()
+                .map(PatchSolution::getPatch)
+                .collect(Collectors.toList()));
+        try {
+            solutionList.forEach(problem::evaluate);
+        } finally {
+            giProblem.clearBatchResults();
+        }
+        return solutionList;
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.evaluator;
+
+import org.apache.commons.lang3.Validate;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Evaluates solutions with another evaluator, then hands every evaluated
+ * solution to a listener, e.g. an
+ * {@link uk.ucl.solar.tonic.print.gi.EvaluationLog}.
+ *
+ * @author Giovani
+ */
+public class ListeningSolutionListEvaluator implements SolutionListEvaluator<PatchSolution> {
+
+    private final SolutionListEvaluator<PatchSolution> evaluator;
+    private final Consumer<PatchSolution> listener;
+
+    public ListeningSolutionListEvaluator(SolutionListEvaluator<PatchSolution> evaluator, Consumer<PatchSolution> listener) {
+        Validate.notNull(evaluator, "The evaluator cannot be null.");
+        Validate.notNull(listener, "The listener cannot be null.");
+        this.evaluator = evaluator;
+        this.listener = listener;
+    }
+
+    @Override
+    public List<PatchSolution> evaluate(List<PatchSolution> solutionList, Problem<PatchSolution> problem) {
+        List<PatchSolution> evaluated = evaluator.evaluate(solutionList, problem);
+        evaluated.forEach(listener);
+        return evaluated;
+    }
+
+    @Override
+    public void shutdown() {
+        evaluator.shutdown();
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.evaluator;
+
+import org.apache.commons.lang3.Validate;
+import org.uma.jmetal.problem.Problem;
+import org.uma.jmetal.util.JMetalException;
+import org.uma.jmetal.util.evaluator.SolutionListEvaluator;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluates the solutions of a generation concurrently on a fixed number of
+ * worker threads. Each evaluation builds its own test runner on the worker
+ * thread it is scheduled on, so workers never share runner state.
+ * <p>
+ * Tests of different patches run at the same time, hence wall-clock
+ * measurements are noisier than with a sequential evaluator.
+ *
+ * @author Giovani
+ */
+public class ParallelPatchSolutionListEvaluator implements SolutionListEvaluator<PatchSolution> {
+
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    public ParallelPatchSolutionListEvaluator(int parallelism) {
+        Validate.isTrue(parallelism > 0, "Parallelism must be greater than zero.");
+        this.parallelism = parallelism;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "tonic-evaluator-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public List<PatchSolution> evaluate(List<PatchSolution> solutionList, Problem<PatchSolution> problem) {
+        Validate.notNull(solutionList);
+        Validate.notNull(problem);
+        // The original program is measured first, as the fitness improvement
+        // of every other solution is computed against it
+        List<PatchSolution> remaining = new ArrayList<>(solutionList.size());
+        for (PatchSolution solution : solutionList) {
+            if (solution.getNumberOfVariables() == 0) {
+                problem.evaluate(solution);
+            } else {
+                remaining.add(solution);
+            }
+        }
+
+        List<Future<PatchSolution>> futures = new ArrayList<>(remaining.size());
+        for (PatchSolution solution : remaining) {
+            futures.add(executor.submit(() -> problem.evaluate(solution)));
+        }
+        try {
+            for (Future<PatchSolution> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new JMetalException("Interrupted while evaluating solutions.", ex);
+        } catch (ExecutionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw new JMetalException("Error evaluating solution.", ex);
+        }
+        return solutionList;
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
@@ -59,6 +59,10 @@ public class UniformPatchCrossover implements CrossoverOperator<PatchSolution> {
         return random;
     }
 
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
     @Override
     public double getCrossoverProbability() {
         return crossoverProbability;
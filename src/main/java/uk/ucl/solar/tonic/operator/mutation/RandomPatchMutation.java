@@ -61,6 +61,10 @@ public class RandomPatchMutation implements MutationOperator<PatchSolution> {
         return random;
     }
 
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
     public List<Class<? extends Edit>> getEditTypes() {
         return editTypes;
     }
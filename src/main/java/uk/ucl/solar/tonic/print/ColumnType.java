@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.print;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Encodings of the columns of a {@link ColumnarArchive}. Each type accepts a
+ * CSV value only if the value is written back as exactly the same text, so
+ * converting a CSV file to an archive and back never changes it.
+ *
+ * @author Giovani
+ */
+public enum ColumnType {
+
+    /**
+     * 64-bit integers. Empty values are stored as nulls.
+     */
+    LONG {
+        @Override
+        public boolean accepts(String value) {
+            if (value.isEmpty()) {
+                return true;
+            }
+            try {
+                return Long.toString(Long.parseLong(value)).equals(value);
+            } catch (NumberFormatException ex) {
+                return false;
+            }
+        }
+    },
+    /**
+     * 64-bit floating point numbers, as printed by {@link Double#toString()}.
+     * Empty values are stored as nulls.
+     */
+    DOUBLE {
+        @Override
+        public boolean accepts(String value) {
+            if (value.isEmpty()) {
+                return true;
+            }
+            try {
+                return Double.toString(Double.parseDouble(value)).equals(value);
+            } catch (NumberFormatException ex) {
+                return false;
+            }
+        }
+    },
+    /**
+     * Gin patches, e.g. "| edit1 | edit2 |". Each edit is dictionary encoded,
+     * so an edit shared by many patches is stored once.
+     */
+    PATCH {
+        @Override
+        public boolean accepts(String value) {
+            return splitPatch(value) != null;
+        }
+    },
+    /**
+     * Any text, dictionary encoded.
+     */
+    STRING {
+        @Override
+        public boolean accepts(String value) {
+            return true;
+        }
+    };
+
+    private static final String PATCH_DELIMITER = "|";
+    private static final String EDIT_SEPARATOR = " | ";
+
+    /**
+     * @param value a value as written in a CSV file
+     * @return true if the value can be stored in a column of this type
+     */
+    public abstract boolean accepts(String value);
+
+    /**
+     * @param patch the textual form of a Gin patch
+     * @return the edits of the patch, or null if the text cannot be rebuilt
+     * from its edits by {@link #joinPatch(List)}
+     */
+    public static List<String> splitPatch(String patch) {
+        List<String> edits;
+        if (PATCH_DELIMITER.equals(patch)) {
+            edits = new ArrayList<>();
+        } else if (patch.length() >= 4 && patch.startsWith(PATCH_DELIMITER + " ") && patch.endsWith(" " + PATCH_DELIMITER)) {
+            edits = new ArrayList<>(Arrays.asList(patch.substring(2, patch.length() - 2).split(" \\| ", -1)));
+        } else {
+            return null;
+        }
+        return joinPatch(edits).equals(patch) ? edits : null;
+    }
+
+    /**
+     * @param edits the textual form of each edit
+     * @return the textual form of the patch made of the edits, as printed by
+     * Gin
+     */
+    public static String joinPatch(List<String> edits) {
+        if (edits.isEmpty()) {
+            return PATCH_DELIMITER;
+        }
+        return PATCH_DELIMITER + " " + String.join(EDIT_SEPARATOR, edits) + " " + PATCH_DELIMITER;
+    }
+
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.print;
+
+import org.apache.commons.lang3.Validate;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only view of a binary, column-oriented archive of results, written by
+ * {@link ColumnarArchiveWriter}. Each column is memory-mapped on its own, so
+ * values are read straight from the page cache without parsing, and only
+ * the columns actually accessed are paged in.
+ * <p>
+ * Layout: a magic number and version, then each column's data, then a
+ * directory with the row count and the name, type, offset and length of
+ * each column, and finally the directory's offset and the magic number
+ * again. Numbers are big-endian. Numeric columns hold a flag, an optional
+ * null bitmap and one 8-byte value per row; string columns hold a
+ * dictionary and one code per row; patch columns hold a dictionary of edits,
+ * the offset of each row's edits and the edit codes.
+ *
+ * @author Giovani
+ */
+public class ColumnarArchive implements Closeable {
+
+    // "TNCA"
+    public static final int MAGIC = 0x544E4341;
+    public static final int VERSION = 1;
+
+    private static final int FOOTER_SIZE = Long.BYTES + Integer.BYTES;
+
+    private final File file;
+    private final FileChannel channel;
+    private final int rowCount;
+    private final List<String> columnNames;
+    private final List<ColumnType> columnTypes;
+    private final Map<String, Integer> columnIndexes = new HashMap<>();
+    private final long[] offsets;
+    private final long[] lengths;
+    private final Column[] columns;
+
+    private ColumnarArchive(File file, FileChannel channel) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        long size = channel.size();
+        if (size < 2 * Integer.BYTES + FOOTER_SIZE) {
+            throw new IOException("Not a columnar archive: " + file);
+        }
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 2 * Integer.BYTES);
+        ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, size - FOOTER_SIZE, FOOTER_SIZE);
+        if (header.getInt() != MAGIC || footer.getInt(Long.BYTES) != MAGIC) {
+            throw new IOException("Not a columnar archive, or an incomplete one: " + file);
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported columnar archive version " + version + ": " + file);
+        }
+        long directoryOffset = footer.getLong(0);
+        ByteBuffer directory = channel.map(FileChannel.MapMode.READ_ONLY, directoryOffset, size - FOOTER_SIZE - directoryOffset);
+        this.rowCount = directory.getInt();
+        int columnCount = directory.getInt();
+        List<String> names = new ArrayList<>(columnCount);
+        List<ColumnType> types = new ArrayList<>(columnCount);
+        this.offsets = new long[columnCount];
+        this.lengths = new long[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            names.add(readString(directory));
+            types.add(ColumnType.values()[directory.get()]);
+            offsets[i] = directory.getLong();
+            lengths[i] = directory.getLong();
+            columnIndexes.put(names.get(i), i);
+        }
+        this.columnNames = Collections.unmodifiableList(names);
+        this.columnTypes = Collections.unmodifiableList(types);
+        this.columns = new Column[columnCount];
+    }
+
+    public static ColumnarArchive open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            return new ColumnarArchive(file, channel);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnNames.size();
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public List<ColumnType> getColumnTypes() {
+        return columnTypes;
+    }
+
+    public ColumnType getColumnType(int column) {
+        return columnTypes.get(column);
+    }
+
+    /**
+     * @return the index of the column, or -1 if there is no such column
+     */
+    public int getColumnIndex(String columnName) {
+        return columnIndexes.getOrDefault(columnName, -1);
+    }
+
+    /**
+     * @return true if the value is missing. Only numeric columns have
+     * missing values; for other columns this is always false.
+     */
+    public boolean isNull(int column, int row) {
+        return this.getColumn(column).isNull(row);
+    }
+
+    public long getLong(int column, int row) {
+        Validate.isTrue(columnTypes.get(column) == ColumnType.LONG, "Column " + columnNames.get(column) + " is not a LONG column.");
+        return ((NumericColumn) this.getColumn(column)).getRaw(row);
+    }
+
+    /**
+     * @return the value of a LONG or DOUBLE column as a double
+     */
+    public double getDouble(int column, int row) {
+        ColumnType type = columnTypes.get(column);
+        Validate.isTrue(type == ColumnType.DOUBLE || type == ColumnType.LONG, "Column " + columnNames.get(column) + " is not numeric.");
+        long raw = ((NumericColumn) this.getColumn(column)).getRaw(row);
+        return type == ColumnType.DOUBLE ? Double.longBitsToDouble(raw) : raw;
+    }
+
+    /**
+     * @return every value of a LONG or DOUBLE column, with NaN for missing
+     * values
+     */
+    public double[] getDoubles(int column) {
+        double[] values = new double[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            values[row] = this.isNull(column, row) ? Double.NaN : this.getDouble(column, row);
+        }
+        return values;
+    }
+
+    /**
+     * @return the dictionary of a STRING column, or the dictionary of edits
+     * of a PATCH column
+     */
+    public List<String> getDictionary(int column) {
+        Column data = this.getColumn(column);
+        Validate.isTrue(data instanceof DictionaryColumn, "Column " + columnNames.get(column) + " has no dictionary.");
+        return Collections.unmodifiableList(Arrays.asList(((DictionaryColumn) data).dictionary));
+    }
+
+    /**
+     * @return the position in {@link #getDictionary(int)} of the value of a
+     * STRING column. Rows with equal codes have equal values.
+     */
+    public int getCode(int column, int row) {
+        Validate.isTrue(columnTypes.get(column) == ColumnType.STRING, "Column " + columnNames.get(column) + " is not a STRING column.");
+        return ((StringColumn) this.getColumn(column)).getCode(row);
+    }
+
+    public List<String> getEdits(int column, int row) {
+        Validate.isTrue(columnTypes.get(column) == ColumnType.PATCH, "Column " + columnNames.get(column) + " is not a PATCH column.");
+        return ((PatchColumn) this.getColumn(column)).getEdits(row);
+    }
+
+    /**
+     * @return the value as it is written in a CSV file, whatever the type
+     * of the column
+     */
+    public String getString(int column, int row) {
+        return this.getColumn(column).getString(row);
+    }
+
+    public List<String> getRow(int row) {
+        List<String> values = new ArrayList<>(columns.length);
+        for (int column = 0; column < columns.length; column++) {
+            values.add(this.getString(column, row));
+        }
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private synchronized Column getColumn(int column) {
+        Validate.validIndex(columnNames, column);
+        if (columns[column] == null) {
+            try {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offsets[column], lengths[column]);
+                switch (columnTypes.get(column)) {
+                    case LONG:
+                    case DOUBLE:
+                        columns[column] = new NumericColumn(columnTypes.get(column), buffer, rowCount);
+                        break;
+                    case PATCH:
+                        columns[column] = new PatchColumn(buffer, rowCount);
+                        break;
+                    default:
+                        columns[column] = new StringColumn(buffer);
+                }
+            } catch (IOException ex) {
+                throw new IllegalStateException("Could not map column " + columnNames.get(column) + " of " + file, ex);
+            }
+        }
+        return columns[column];
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private abstract static class Column {
+
+        final ByteBuffer buffer;
+
+        Column(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        boolean isNull(int row) {
+            return false;
+        }
+
+        abstract String getString(int row);
+
+    }
+
+    private static class NumericColumn extends Column {
+
+        private final ColumnType type;
+        private final boolean hasNulls;
+        private final int valuesPosition;
+
+        NumericColumn(ColumnType type, ByteBuffer buffer, int rowCount) {
+            super(buffer);
+            this.type = type;
+            this.hasNulls = buffer.get(0) != 0;
+            this.valuesPosition = 1 + (hasNulls ? (rowCount + 63) / 64 * Long.BYTES : 0);
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return hasNulls && (buffer.getLong(1 + (row >>> 6) * Long.BYTES) & (1L << row)) != 0;
+        }
+
+        long getRaw(int row) {
+            return buffer.getLong(valuesPosition + row * Long.BYTES);
+        }
+
+        @Override
+        String getString(int row) {
+            if (this.isNull(row)) {
+                return "";
+            }
+            long raw = this.getRaw(row);
+            return type == ColumnType.DOUBLE ? Double.toString(Double.longBitsToDouble(raw)) : Long.toString(raw);
+        }
+
+    }
+
+    private abstract static class DictionaryColumn extends Column {
+
+        final String[] dictionary;
+
+        DictionaryColumn(ByteBuffer buffer) {
+            super(buffer);
+            this.dictionary = new String[buffer.getInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = readString(buffer);
+            }
+        }
+
+    }
+
+    private static class StringColumn extends DictionaryColumn {
+
+        private final int codesPosition;
+
+        StringColumn(ByteBuffer buffer) {
+            super(buffer);
+            this.codesPosition = buffer.position();
+        }
+
+        int getCode(int row) {
+            return buffer.getInt(codesPosition + row * Integer.BYTES);
+        }
+
+        @Override
+        String getString(int row) {
+            return dictionary[this.getCode(row)];
+        }
+
+    }
+
+    private static class PatchColumn extends DictionaryColumn {
+
+        private final int offsetsPosition;
+        private final int codesPosition;
+
+        PatchColumn(ByteBuffer buffer, int rowCount) {
+            super(buffer);
+            this.offsetsPosition = buffer.position();
+            this.codesPosition = offsetsPosition + (rowCount + 1) * Integer.BYTES;
+        }
+
+        List<String> getEdits(int row) {
+            int start = buffer.getInt(offsetsPosition + row * Integer.BYTES);
+            int end = buffer.getInt(offsetsPosition + (row + 1) * Integer.BYTES);
+            List<String> edits = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                edits.add(dictionary[buffer.getInt(codesPosition + i * Integer.BYTES)]);
+            }
+            return edits;
+        }
+
+        @Override
+        String getString(int row) {
+            return ColumnType.joinPatch(this.getEdits(row));
+        }
+
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.print;
+
+import com.google.common.base.Joiner;
+import org.apache.commons.lang3.Validate;
+import uk.ucl.solar.tonic.exception.TonicException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Converts the CSV files written by {@link DefaultResultsPrinter} and its
+ * subclasses to {@link ColumnarArchive}s and back. Files whose names end with
+ * ".gz" are read and written gzip compressed.
+ *
+ * @author Giovani
+ */
+public final class ColumnarArchiveConverter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ColumnarArchiveConverter() {
+    }
+
+    /**
+     * Reads the CSV file twice: once to pick the most compact type accepting
+     * every value of each column, and once to encode the rows. Converting the
+     * archive back with {@link #toCsv(File, File, String)} gives the same
+     * text.
+     *
+     * @param csv       CSV file whose first line holds the column names
+     * @param archive   archive to write
+     * @param separator separator of the values in the CSV file, not quoted
+     *                  or escaped, as written by the results printers
+     * @throws TonicException if the file is empty or a row has the wrong
+     *                        number of values
+     */
+    public static void toArchive(File csv, File archive, String separator) throws IOException, TonicException {
+        Validate.notEmpty(separator, "The separator cannot be empty.");
+        Pattern splitter = Pattern.compile(Pattern.quote(separator));
+        List<String> columnNames;
+        List<EnumSet<ColumnType>> candidates = new ArrayList<>();
+        try (BufferedReader reader = openReader(csv)) {
+            columnNames = readHeader(reader, csv, splitter);
+            for (int i = 0; i < columnNames.size(); i++) {
+                candidates.add(EnumSet.allOf(ColumnType.class));
+            }
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                String[] values = split(line, ++lineNumber, columnNames.size(), csv, splitter);
+                for (int i = 0; i < values.length; i++) {
+                    String value = values[i];
+                    candidates.get(i).removeIf(type -> !type.accepts(value));
+                }
+            }
+        }
+
+        List<ColumnType> columnTypes = new ArrayList<>();
+        for (EnumSet<ColumnType> types : candidates) {
+            columnTypes.add(types.iterator().next());
+        }
+        ColumnarArchiveWriter writer = new ColumnarArchiveWriter(columnNames, columnTypes);
+        try (BufferedReader reader = openReader(csv)) {
+            readHeader(reader, csv, splitter);
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                writer.addRow(Arrays.asList(split(line, ++lineNumber, columnNames.size(), csv, splitter)));
+            }
+        }
+        writer.write(archive);
+    }
+
+    /**
+     * @param archive   archive to read
+     * @param csv       CSV file to write, with the column names on its first
+     *                  line
+     * @param separator separator of the values in the CSV file
+     */
+    public static void toCsv(File archive, File csv, String separator) throws IOException {
+        Joiner joiner = Joiner.on(separator);
+        try (ColumnarArchive input = ColumnarArchive.open(archive);
+             Writer writer = openWriter(csv)) {
+            joiner.appendTo(writer, input.getColumnNames());
+            writer.write(System.lineSeparator());
+            for (int row = 0; row < input.getRowCount(); row++) {
+                joiner.appendTo(writer, input.getRow(row));
+                writer.write(System.lineSeparator());
+            }
+        }
+    }
+
+    private static boolean isCompressed(File file) {
+        return file.getName().endsWith(OutputCompression.GZIP.getExtension());
+    }
+
+    private static BufferedReader openReader(File file) throws IOException {
+        InputStream input = new FileInputStream(file);
+        try {
+            if (isCompressed(file)) {
+                input = new GZIPInputStream(input, BUFFER_SIZE);
+            }
+        } catch (IOException ex) {
+            input.close();
+            throw ex;
+        }
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static Writer openWriter(File file) throws IOException {
+        OutputStream output = new FileOutputStream(file);
+        try {
+            output = (isCompressed(file) ? OutputCompression.GZIP : OutputCompression.NONE).wrap(output, BUFFER_SIZE);
+        } catch (IOException ex) {
+            output.close();
+            throw ex;
+        }
+        return new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static List<String> readHeader(BufferedReader reader, File csv, Pattern splitter) throws IOException, TonicException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new TonicException("The CSV file has no header: " + csv);
+        }
+        return Arrays.asList(splitter.split(header, -1));
+    }
+
+    private static String[] split(String line, int lineNumber, int columnCount, File csv, Pattern splitter) throws TonicException {
+        String[] values = splitter.split(line, -1);
+        if (values.length != columnCount) {
+            throw new TonicException("Line " + lineNumber + " of " + csv + " has " + values.length
+                    + " values but the header has " + columnCount + ".");
+        }
+        return values;
+    }
+
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.print;
+
+import com.google.common.io.CountingOutputStream;
+import org.apache.commons.lang3.Validate;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a {@link ColumnarArchive} row by row. Rows are encoded as they are
+ * added, so only the primitive column arrays and the dictionaries are kept in
+ * memory.
+ *
+ * @author Giovani
+ */
+public class ColumnarArchiveWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final List<String> columnNames;
+    private final List<ColumnType> columnTypes;
+    private final Column[] columns;
+    private int rowCount;
+
+    /**
+     * @param columnNames name of each column, all different
+     * @param columnTypes type of each column
+     */
+    public ColumnarArchiveWriter(List<String> columnNames, List<ColumnType> columnTypes) {
+        Validate.notNull(columnNames, "The column names cannot be null.");
+        Validate.notNull(columnTypes, "The column types cannot be null.");
+        Validate.isTrue(columnNames.size() == columnTypes.size(), "There must be one type for each column.");
+        Validate.isTrue(new HashSet<>(columnNames).size() == columnNames.size(), "Column names must be unique: " + columnNames);
+        this.columnNames = new ArrayList<>(columnNames);
+        this.columnTypes = new ArrayList<>(columnTypes);
+        this.columns = new Column[columnNames.size()];
+        for (int i = 0; i < columns.length; i++) {
+            switch (columnTypes.get(i)) {
+                case LONG:
+                case DOUBLE:
+                    columns[i] = new NumericColumn(columnTypes.get(i));
+                    break;
+                case PATCH:
+                    columns[i] = new PatchColumn();
+                    break;
+                default:
+                    columns[i] = new StringColumn();
+            }
+        }
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public List<ColumnType> getColumnTypes() {
+        return columnTypes;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @param values one value per column. Numeric columns take numbers or
+     *               their textual form, with null or "" for missing values.
+     *               Other columns take any object, stored as its
+     *               {@link Object#toString()}.
+     */
+    public void addRow(List<?> values) {
+        Validate.isTrue(values.size() == columns.length, "Expected " + columns.length + " values but got " + values.size() + ".");
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].add(values.get(i), rowCount);
+        }
+        rowCount++;
+    }
+
+    public void write(File file) throws IOException {
+        CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+        try (DataOutputStream output = new DataOutputStream(counter)) {
+            output.writeInt(ColumnarArchive.MAGIC);
+            output.writeInt(ColumnarArchive.VERSION);
+            long[] offsets = new long[columns.length];
+            long[] lengths = new long[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                offsets[i] = counter.getCount();
+                columns[i].write(output, rowCount);
+                lengths[i] = counter.getCount() - offsets[i];
+            }
+            long directoryOffset = counter.getCount();
+            output.writeInt(rowCount);
+            output.writeInt(columns.length);
+            for (int i = 0; i < columns.length; i++) {
+                writeString(output, columnNames.get(i));
+                output.writeByte(columnTypes.get(i).ordinal());
+                output.writeLong(offsets[i]);
+                output.writeLong(lengths[i]);
+            }
+            output.writeLong(directoryOffset);
+            output.writeInt(ColumnarArchive.MAGIC);
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private abstract static class Column {
+
+        abstract void add(Object value, int row);
+
+        abstract void write(DataOutputStream output, int rowCount) throws IOException;
+
+    }
+
+    private static class NumericColumn extends Column {
+
+        private final ColumnType type;
+        private final BitSet nulls = new BitSet();
+        private long[] values = new long[1024];
+
+        NumericColumn(ColumnType type) {
+            this.type = type;
+        }
+
+        @Override
+        void add(Object value, int row) {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            if (value == null || "".equals(value)) {
+                nulls.set(row);
+            } else if (type == ColumnType.LONG) {
+                values[row] = value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString());
+            } else {
+                double number = value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString());
+                values[row] = Double.doubleToRawLongBits(number);
+            }
+        }
+
+        // [hasNulls][null bitmap words, if any][one 8-byte value per row]
+        @Override
+        void write(DataOutputStream output, int rowCount) throws IOException {
+            output.writeBoolean(!nulls.isEmpty());
+            if (!nulls.isEmpty()) {
+                long[] words = Arrays.copyOf(nulls.toLongArray(), (rowCount + 63) / 64);
+                for (long word : words) {
+                    output.writeLong(word);
+                }
+            }
+            for (int i = 0; i < rowCount; i++) {
+                output.writeLong(values[i]);
+            }
+        }
+
+    }
+
+    private static class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> entries = new ArrayList<>();
+
+        int encode(String value) {
+            return codes.computeIfAbsent(value, key -> {
+                entries.add(key);
+                return entries.size() - 1;
+            });
+        }
+
+        // [size][length and UTF-8 bytes of each entry]
+        void write(DataOutputStream output) throws IOException {
+            output.writeInt(entries.size());
+            for (String entry : entries) {
+                writeString(output, entry);
+            }
+        }
+
+    }
+
+    private static class StringColumn extends Column {
+
+        private final Dictionary dictionary = new Dictionary();
+        private int[] codes = new int[1024];
+
+        @Override
+        void add(Object value, int row) {
+            if (row == codes.length) {
+                codes = Arrays.copyOf(codes, codes.length * 2);
+            }
+            codes[row] = dictionary.encode(value == null ? "" : value.toString());
+        }
+
+        // [dictionary][one code per row]
+        @Override
+        void write(DataOutputStream output, int rowCount) throws IOException {
+            dictionary.write(output);
+            for (int i = 0; i < rowCount; i++) {
+                output.writeInt(codes[i]);
+            }
+        }
+
+    }
+
+    private static class PatchColumn extends Column {
+
+        private final Dictionary dictionary = new Dictionary();
+        private int[] offsets = new int[1025];
+        private int[] codes = new int[4096];
+
+        @Override
+        void add(Object value, int row) {
+            String patch = value == null ? "" : value.toString();
+            List<String> edits = ColumnType.splitPatch(patch);
+            Validate.isTrue(edits != null, "Not a patch: " + patch);
+            if (row + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            int offset = offsets[row];
+            if (offset + edits.size() > codes.length) {
+                codes = Arrays.copyOf(codes, Math.max(codes.length * 2, offset + edits.size()));
+            }
+            for (String edit : edits) {
+                codes[offset++] = dictionary.encode(edit);
+            }
+            offsets[row + 1] = offset;
+        }
+
+        // [dictionary][rowCount + 1 offsets into the codes][edit codes]
+        @Override
+        void write(DataOutputStream output, int rowCount) throws IOException {
+            dictionary.write(output);
+            for (int i = 0; i <= rowCount; i++) {
+                output.writeInt(offsets[i]);
+            }
+            for (int i = 0; i < offsets[rowCount]; i++) {
+                output.writeInt(codes[i]);
+            }
+        }
+
+    }
+
+}
@@ -23,15 +23,34 @@ import org.pmw.tinylog.Logger;
 import org.uma.jmetal.solution.Solution;
 import uk.ucl.solar.tonic.exception.TonicException;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Writes the results of a search as CSV files. Each file is written through
+ * its own buffered file channel, optionally compressed, and the files are
+ * written concurrently unless {@link #setConcurrentWrites(boolean)} is
+ * disabled.
+ *
  * @author Giovani
  */
 public class DefaultResultsPrinter<S extends Solution> implements Serializable {
@@ -42,6 +61,9 @@ public class DefaultResultsPrinter<S extends Solution> implements Serializable {
     protected String funFileName = "FUN.csv";
     protected String timeFileName = "TIME.csv";
     protected boolean shouldPrintHeaders = true;
+    protected int bufferSize = 64 * 1024;
+    protected OutputCompression compression = OutputCompression.NONE;
+    protected boolean concurrentWrites = true;
 
     protected List<S> solutionList;
 
@@ -165,6 +187,39 @@ public class DefaultResultsPrinter<S extends Solution> implements Serializable {
         this.separator = separator;
     }
 
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @param bufferSize size in bytes of the write buffers of each file
+     */
+    public void setBufferSize(int bufferSize) {
+        Validate.isTrue(bufferSize > 0, "The buffer size must be greater than zero.");
+        this.bufferSize = bufferSize;
+    }
+
+    public OutputCompression getCompression() {
+        return compression;
+    }
+
+    /**
+     * @param compression compression of the written files. Compressed files
+     *                    get the compression's extension, e.g. FUN.csv.gz
+     */
+    public void setCompression(OutputCompression compression) {
+        Validate.notNull(compression, "The compression cannot be null.");
+        this.compression = compression;
+    }
+
+    public boolean isConcurrentWrites() {
+        return concurrentWrites;
+    }
+
+    public void setConcurrentWrites(boolean concurrentWrites) {
+        this.concurrentWrites = concurrentWrites;
+    }
+
     public List<String> getObjectiveNames() {
         return objectiveNames;
     }
@@ -183,9 +238,78 @@ public class DefaultResultsPrinter<S extends Solution> implements Serializable {
 
     public void print() throws IOException, TonicException {
         this.createOutputDir();
-        this.printObjectivesToFile();
-        this.printVariablesToFile();
-        this.printTimesTofile();
+        this.runPrintTasks(this.getPrintTasks());
+    }
+
+    /**
+     * Writes one of the output files.
+     */
+    @FunctionalInterface
+    protected interface PrintTask {
+
+        void print() throws IOException, TonicException;
+
+    }
+
+    /**
+     * @return the tasks writing each output file, in the order they are
+     * written when writes are not concurrent
+     */
+    protected List<PrintTask> getPrintTasks() {
+        return Lists.newArrayList(this::printObjectivesToFile, this::printVariablesToFile, this::printTimesTofile);
+    }
+
+    /**
+     * Runs the tasks one after another, or each on its own thread when
+     * concurrent writes are enabled. In the latter case all tasks run to
+     * completion and the failure of the first task in the list is rethrown.
+     */
+    protected void runPrintTasks(List<PrintTask> tasks) throws IOException, TonicException {
+        if (!concurrentWrites || tasks.size() < 2) {
+            for (PrintTask task : tasks) {
+                task.print();
+            }
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size(), runnable -> {
+            Thread thread = new Thread(runnable, "tonic-printer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Void>> futures = new ArrayList<>(tasks.size());
+            for (PrintTask task : tasks) {
+                futures.add(executor.submit(() -> {
+                    task.print();
+                    return null;
+                }));
+            }
+            Throwable failure = null;
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ex) {
+                    if (failure == null) {
+                        failure = ex.getCause();
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while writing the results.");
+                }
+            }
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof TonicException) {
+                throw (TonicException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     protected void createOutputDir() throws IOException {
@@ -198,13 +322,36 @@ public class DefaultResultsPrinter<S extends Solution> implements Serializable {
         }
     }
 
-    protected void printLine(List<?> elements, FileWriter writer) throws IOException {
-        StringBuilder lineBuilder = new StringBuilder();
-        Joiner.on(separator).appendTo(lineBuilder, elements);
-        this.printLine(lineBuilder.toString(), writer);
+    /**
+     * Opens a buffered writer over a file channel for the given file in the
+     * output directory, compressing its content if a compression is set.
+     *
+     * @param fileName name of the file, without the compression's extension
+     */
+    protected Writer openWriter(String fileName) throws IOException {
+        File file = FileUtils.getFile(outputDir, fileName + compression.getExtension());
+        OutputStream output = new BufferedOutputStream(Channels.newOutputStream(FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)), bufferSize);
+        try {
+            output = compression.wrap(output, bufferSize);
+        } catch (IOException ex) {
+            output.close();
+            throw ex;
+        }
+        return new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), bufferSize);
+    }
+
+    protected void printLine(List<?> elements, Writer writer) throws IOException {
+        try {
+            Joiner.on(separator).appendTo(writer, elements);
+            writer.write(System.lineSeparator());
+        } catch (IOException ex) {
+            Logger.error(ex, "Error writing data to file.");
+            throw ex;
+        }
     }
 
-    protected void printLine(String line, FileWriter writer) throws IOException {
+    protected void printLine(String line, Writer writer) throws IOException {
         try {
             writer.write(line);
             writer.write(System.lineSeparator());
@@ -214,7 +361,7 @@ public class DefaultResultsPrinter<S extends Solution> implements Serializable {
         }
     }
 
-    protected void printHeader(List<String> columns, FileWriter writer) throws IOException {
+    protected void printHeader(List<String> columns, Writer writer) throws IOException {
         if (shouldPrintHeaders) {
             this.printLine(columns, writer);
         }
@@ -222,7 +369,7 @@ public class DefaultResultsPrinter<S extends Solution> implements Serializable {
 
     protected void printVariablesToFile() throws IOException {
         if (solutionList != null && !solutionList.isEmpty()) {
-            try (FileWriter writer = new FileWriter(FileUtils.getFile(outputDir, varFileName))) {
+            try (Writer writer = this.openWriter(varFileName)) {
                 for (Solution<?> solution : solutionList) {
                     printLine(solution.getVariables(), writer);
                 }
@@ -232,7 +379,7 @@ public class DefaultResultsPrinter<S extends Solution> implements Serializable {
 
     protected void printObjectivesToFile() throws IOException, TonicException {
         if (solutionList != null && !solutionList.isEmpty()) {
-            try (FileWriter writer = new FileWriter(FileUtils.getFile(outputDir, funFileName))) {
+            try (Writer writer = this.openWriter(funFileName)) {
                 int numberOfObjectives = solutionList.get(0).getNumberOfObjectives();
                 if (isObjectiveToBeMinimized != null && isObjectiveToBeMinimized.size() != numberOfObjectives) {
                     throw new TonicException("The size of list minimizeObjective is not correct: " + isObjectiveToBeMinimized.size());
@@ -260,7 +407,7 @@ public class DefaultResultsPrinter<S extends Solution> implements Serializable {
 
     protected void printTimesTofile() throws IOException, TonicException {
         if (times != null && !times.isEmpty()) {
-            try (FileWriter writer = new FileWriter(FileUtils.getFile(outputDir, timeFileName))) {
+            try (Writer writer = this.openWriter(timeFileName)) {
                 if (timeNames != null) {
                     if (timeNames.size() != times.size()) {
                         throw new TonicException("The size of list timeNames is not correct: " + timeNames.size());
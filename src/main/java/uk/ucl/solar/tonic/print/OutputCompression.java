@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.print;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming compression applied to the files written by
+ * {@link DefaultResultsPrinter}.
+ *
+ * @author Giovani
+ */
+public enum OutputCompression {
+
+    /**
+     * Files are written as plain text.
+     */
+    NONE("") {
+        @Override
+        public OutputStream wrap(OutputStream output, int bufferSize) {
+            return output;
+        }
+    },
+    /**
+     * Files are gzip compressed and get the ".gz" extension.
+     */
+    GZIP(".gz") {
+        @Override
+        public OutputStream wrap(OutputStream output, int bufferSize) throws IOException {
+            return new GZIPOutputStream(output, bufferSize);
+        }
+    };
+
+    private final String extension;
+
+    OutputCompression(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return the suffix appended to the names of the compressed files
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @param output     stream the compressed bytes are written to
+     * @param bufferSize size of the compressor's output buffer
+     * @return a stream compressing everything written to it into output
+     */
+    public abstract OutputStream wrap(OutputStream output, int bufferSize) throws IOException;
+
+}
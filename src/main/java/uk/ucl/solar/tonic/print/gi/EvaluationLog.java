@@ -0,0 +1,237 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.print.gi;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.lang3.Validate;
+import org.pmw.tinylog.Logger;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Appends one CSV row per evaluated solution to a file while the search runs,
+ * with the given attributes as columns. Rows are queued and written by a
+ * background thread, which flushes them at least every flush interval. The
+ * queue is bounded, so evaluations wait for the writer rather than piling
+ * rows up in memory.
+ * <p>
+ * Rows are only ever written whole, and a row cut short by a crash is
+ * removed when the log is opened again, so the file always holds complete
+ * rows. An existing log is appended to.
+ *
+ * @author Giovani
+ */
+public class EvaluationLog implements Consumer<PatchSolution>, Closeable {
+
+    public static final List<String> DEFAULT_COLUMNS = ListUtils.unmodifiableList(
+            Lists.newArrayList(
+                    "MethodIndex",
+                    "MethodName",
+                    "PatchSize",
+                    "Patch",
+                    "Compiled",
+                    "AllTestsPassed",
+                    "NTests",
+                    "NPassed",
+                    "NFailed",
+                    "TotalExecutionTime(ms)",
+                    "Fitness_0",
+                    "Fitness_1",
+                    "TimeStamp"));
+
+    private static final int MAX_PENDING_CHARS = 1 << 16;
+
+    private final File file;
+    private final List<String> columns;
+    private final long flushIntervalMS;
+    private final String separator;
+    private final BlockingQueue<String> rows;
+    private final Writer writer;
+    private final Thread writerThread;
+    private volatile boolean closed = false;
+    private volatile IOException failure;
+
+    public EvaluationLog(File file, List<String> columns) throws IOException {
+        this(file, columns, 1024, 1000, ",");
+    }
+
+    /**
+     * @param capacity        maximum number of rows waiting to be written
+     * @param flushIntervalMS longest time a written row may stay unflushed
+     */
+    public EvaluationLog(File file, List<String> columns, int capacity, long flushIntervalMS, String separator) throws IOException {
+        Validate.notNull(file, "The log file cannot be null.");
+        Validate.notEmpty(columns, "The log needs at least one column.");
+        Validate.isTrue(capacity > 0, "The capacity must be greater than zero.");
+        Validate.isTrue(flushIntervalMS > 0, "The flush interval must be greater than zero.");
+        this.file = file;
+        this.columns = new ArrayList<>(columns);
+        this.flushIntervalMS = flushIntervalMS;
+        this.separator = separator;
+        this.rows = new ArrayBlockingQueue<>(capacity);
+
+        File directory = file.getAbsoluteFile().getParentFile();
+        Files.createDirectories(directory.toPath());
+        boolean empty = truncateIncompleteRow(file) == 0;
+        // Unlike channels, file streams are not closed when the writer thread
+        // is interrupted to stop it
+        this.writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8);
+        if (empty) {
+            this.writer.write(toRow(this.columns));
+            this.writer.flush();
+        }
+        this.writerThread = new Thread(this::writeRows, "tonic-evaluation-log");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Queues the row of an evaluated solution, waiting if the queue is full.
+     */
+    @Override
+    public void accept(PatchSolution solution) {
+        if (closed) {
+            Logger.warn("Evaluation log already closed, dropping the row of " + solution.getPatch());
+            return;
+        }
+        String row = toRow(this.columns.stream()
+                .map(column -> solution.getAttributes().getOrDefault(column, ""))
+                .collect(Collectors.toList()));
+        try {
+            this.rows.put(row);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the queued rows and closes the file.
+     *
+     * @throws IOException if any row could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        writerThread.interrupt();
+        try {
+            writerThread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private String toRow(List<?> elements) {
+        return Joiner.on(separator).useForNull("").join(elements) + System.lineSeparator();
+    }
+
+    private void writeRows() {
+        StringBuilder pending = new StringBuilder();
+        long lastFlush = System.currentTimeMillis();
+        List<String> drained = new ArrayList<>();
+        while (true) {
+            boolean stopping = false;
+            try {
+                String row = rows.poll(flushIntervalMS, TimeUnit.MILLISECONDS);
+                if (row != null) {
+                    pending.append(row);
+                }
+            } catch (InterruptedException ex) {
+                stopping = true;
+            }
+            rows.drainTo(drained);
+            drained.forEach(pending::append);
+            drained.clear();
+            long now = System.currentTimeMillis();
+            if (stopping || pending.length() >= MAX_PENDING_CHARS || now - lastFlush >= flushIntervalMS) {
+                try {
+                    if (pending.length() > 0) {
+                        writer.write(pending.toString());
+                        writer.flush();
+                    }
+                } catch (IOException ex) {
+                    Logger.error(ex, "Could not write to the evaluation log " + file);
+                    failure = ex;
+                }
+                pending.setLength(0);
+                lastFlush = now;
+            }
+            if (stopping || (closed && rows.isEmpty() && pending.length() == 0)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Cuts the file after its last line break, dropping a row that was only
+     * partly written.
+     *
+     * @return the length of the file afterwards
+     */
+    static long truncateIncompleteRow(File file) throws IOException {
+        if (!file.isFile()) {
+            return 0;
+        }
+        try (RandomAccessFile access = new RandomAccessFile(file, "rw")) {
+            long length = access.length();
+            while (length > 0) {
+                access.seek(length - 1);
+                if (access.read() == '\n') {
+                    break;
+                }
+                length--;
+            }
+            if (length < access.length()) {
+                Logger.warn("Removing an incomplete row at the end of " + file);
+                access.setLength(length);
+            }
+            return length;
+        }
+    }
+
+}
@@ -17,13 +17,19 @@ package uk.ucl.solar.tonic.print.gi;
 
 import org.apache.commons.io.FileUtils;
 import uk.ucl.solar.tonic.exception.TonicException;
+import uk.ucl.solar.tonic.print.ColumnType;
+import uk.ucl.solar.tonic.print.ColumnarArchiveWriter;
 import uk.ucl.solar.tonic.print.DefaultResultsPrinter;
 import uk.ucl.solar.tonic.solution.PatchSolution;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +39,10 @@ public class GIResultsPrinter extends DefaultResultsPrinter<PatchSolution> {
 
     protected List<String> patchColumnsNames;
     protected String patchFileName = "PATCH.csv";
+    protected String summaryFileName = "SUMMARY.csv";
+    protected String patchArchiveFileName;
+
+    protected Map<String, ?> summary;
 
     public GIResultsPrinter() {
     }
@@ -87,16 +97,63 @@ public class GIResultsPrinter extends DefaultResultsPrinter<PatchSolution> {
         this.patchFileName = patchFileName;
     }
 
+    public String getSummaryFileName() {
+        return summaryFileName;
+    }
+
+    public void setSummaryFileName(String summaryFileName) {
+        this.summaryFileName = summaryFileName;
+    }
+
+    public String getPatchArchiveFileName() {
+        return patchArchiveFileName;
+    }
+
+    /**
+     * @param patchArchiveFileName name of a {@link uk.ucl.solar.tonic.print.ColumnarArchive}
+     *                             holding the patch columns followed by the
+     *                             objectives, or null not to write one
+     */
+    public void setPatchArchiveFileName(String patchArchiveFileName) {
+        this.patchArchiveFileName = patchArchiveFileName;
+    }
+
+    public Map<String, ?> getSummary() {
+        return summary;
+    }
+
+    /**
+     * @param summary name/value pairs describing the whole run, such as
+     *                {@link uk.ucl.solar.tonic.problem.gi.GeneticImprovementProblem#getSummary()}
+     */
+    public void setSummary(Map<String, ?> summary) {
+        this.summary = summary;
+    }
+
     @Override
-    public void print() throws IOException, TonicException {
-        super.print();
-        this.printPatchesToFile();
+    protected List<PrintTask> getPrintTasks() {
+        List<PrintTask> tasks = super.getPrintTasks();
+        tasks.add(this::printPatchesToFile);
+        tasks.add(this::printSummaryToFile);
+        tasks.add(this::printPatchesToArchive);
+        return tasks;
+    }
+
+    private void printSummaryToFile() throws IOException {
+        if (summary != null && !summary.isEmpty()) {
+            try (Writer writer = this.openWriter(summaryFileName)) {
+                this.printHeader(Arrays.asList("Name", "Value"), writer);
+                for (Map.Entry<String, ?> entry : summary.entrySet()) {
+                    this.printLine(Arrays.asList(entry.getKey(), entry.getValue()), writer);
+                }
+            }
+        }
     }
 
     private void printPatchesToFile() throws TonicException, IOException {
         if (solutionList != null && !solutionList.isEmpty()
                 && patchColumnsNames != null && !patchColumnsNames.isEmpty()) {
-            try (FileWriter writer = new FileWriter(FileUtils.getFile(outputDir, patchFileName))) {
+            try (Writer writer = this.openWriter(patchFileName)) {
                 this.printHeader(patchColumnsNames, writer);
                 for (PatchSolution solution : solutionList) {
                     List<?> attributes = patchColumnsNames.stream()
@@ -108,4 +165,47 @@ public class GIResultsPrinter extends DefaultResultsPrinter<PatchSolution> {
         }
     }
 
+    // The patch columns hold the same text as PATCH.csv, so the archive
+    // converts back to it, while objectives are kept as doubles as in FUN.csv
+    private void printPatchesToArchive() throws TonicException, IOException {
+        if (patchArchiveFileName != null && solutionList != null && !solutionList.isEmpty()
+                && patchColumnsNames != null && !patchColumnsNames.isEmpty()) {
+            int numberOfObjectives = solutionList.get(0).getNumberOfObjectives();
+            if (isObjectiveToBeMinimized != null && isObjectiveToBeMinimized.size() != numberOfObjectives) {
+                throw new TonicException("The size of list minimizeObjective is not correct: " + isObjectiveToBeMinimized.size());
+            }
+            if (objectiveNames != null && objectiveNames.size() != numberOfObjectives) {
+                throw new TonicException("The size of list objectiveNames is not correct: " + objectiveNames.size());
+            }
+            List<String> columnNames = new ArrayList<>(patchColumnsNames);
+            List<ColumnType> columnTypes = new ArrayList<>();
+            for (String column : patchColumnsNames) {
+                EnumSet<ColumnType> candidates = EnumSet.allOf(ColumnType.class);
+                for (PatchSolution solution : solutionList) {
+                    String value = String.valueOf(solution.getAttributes().getOrDefault(column, ""));
+                    candidates.removeIf(type -> !type.accepts(value));
+                }
+                columnTypes.add(candidates.iterator().next());
+            }
+            for (int j = 0; j < numberOfObjectives; j++) {
+                columnNames.add(objectiveNames != null ? objectiveNames.get(j) : "Objective_" + j);
+                columnTypes.add(ColumnType.DOUBLE);
+            }
+
+            ColumnarArchiveWriter writer = new ColumnarArchiveWriter(columnNames, columnTypes);
+            for (PatchSolution solution : solutionList) {
+                List<Object> row = new ArrayList<>(columnNames.size());
+                for (String column : patchColumnsNames) {
+                    row.add(String.valueOf(solution.getAttributes().getOrDefault(column, "")));
+                }
+                for (int j = 0; j < numberOfObjectives; j++) {
+                    boolean minimize = isObjectiveToBeMinimized == null || isObjectiveToBeMinimized.get(j);
+                    row.add(minimize ? solution.getObjective(j) : -1.0 * solution.getObjective(j));
+                }
+                writer.addRow(row);
+            }
+            writer.write(FileUtils.getFile(outputDir, patchArchiveFileName));
+        }
+    }
+
 }
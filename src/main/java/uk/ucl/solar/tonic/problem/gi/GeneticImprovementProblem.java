@@ -15,6 +15,8 @@
  */
 package uk.ucl.solar.tonic.problem.gi;
 
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
 import com.opencsv.CSVReaderHeaderAware;
 import gin.Patch;
 import gin.SourceFile;
@@ -22,6 +24,7 @@ import gin.edit.Edit;
 import gin.test.ExternalTestRunner;
 import gin.test.InternalTestRunner;
 import gin.test.UnitTest;
+import gin.test.UnitTestResult;
 import gin.test.UnitTestResultSet;
 import gin.util.MavenUtils;
 import gin.util.Project;
@@ -30,23 +33,56 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.pmw.tinylog.Logger;
 import org.uma.jmetal.problem.AbstractGenericProblem;
+import uk.ucl.solar.tonic.base.MethodContext;
+import uk.ucl.solar.tonic.base.SourceIndex;
 import uk.ucl.solar.tonic.base.TargetMethod;
+import uk.ucl.solar.tonic.cache.ClasspathCache;
+import uk.ucl.solar.tonic.cache.EvaluationArchive;
+import uk.ucl.solar.tonic.cache.EvaluationCache;
+import uk.ucl.solar.tonic.cache.PatchFingerprint;
+import uk.ucl.solar.tonic.cache.SourceFileCache;
+import uk.ucl.solar.tonic.coverage.CoverageTestSelector;
+import uk.ucl.solar.tonic.distributed.Coordinator;
+import uk.ucl.solar.tonic.distributed.WorkItem;
+import uk.ucl.solar.tonic.distributed.WorkResult;
+import uk.ucl.solar.tonic.runner.EquivalentUnitTestResultSet;
+import uk.ucl.solar.tonic.runner.InstructionCountScope;
+import uk.ucl.solar.tonic.runner.MeasuredUnitTestResult;
+import uk.ucl.solar.tonic.runner.PatchCompiler;
+import uk.ucl.solar.tonic.runner.ProcessReaper;
+import uk.ucl.solar.tonic.runner.RestartingWorker;
+import uk.ucl.solar.tonic.runner.TestExecutor;
+import uk.ucl.solar.tonic.runner.TestOutcome;
+import uk.ucl.solar.tonic.runner.WorkerPool;
+import uk.ucl.solar.tonic.runner.WorkerProcess;
+import uk.ucl.solar.tonic.runner.WorkerTestRunner;
 import uk.ucl.solar.tonic.solution.PatchSolution;
+import uk.ucl.solar.tonic.surrogate.SurrogateModel;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author Giovani
  */
-public abstract class GeneticImprovementProblem extends AbstractGenericProblem<PatchSolution> {
+public abstract class GeneticImprovementProblem extends AbstractGenericProblem<PatchSolution> implements Cloneable {
 
     private static final String TEST_SEPARATOR = ",";
     private static final String METHOD_SEPARATOR = ".";
+    // Attributes describing the results of running the tests
+    private static final List<String> TEST_RESULT_ATTRIBUTES = Arrays.asList("Compiled", "NTests", "AllTestsPassed", "NPassed", "NFailed", "TotalExecutionTime(ms)", "BytecodeEquivalent");
+    // Mixed into the seed of the surrogate's generator, so that its stream
+    // differs from those of the search and of the per-method copies
+    private static final long SURROGATE_SEED_SALT = 0x9E3779B97F4A7C15L;
     /*============== Required  ==============*/
     protected File projectDirectory;
     protected File methodFile;
@@ -64,17 +100,73 @@ public abstract class GeneticImprovementProblem extends AbstractGenericProblem<P
     protected String editType = Edit.EditType.STATEMENT.toString();
     protected Random random = new Random();
     protected Long seed;
+    protected Boolean cacheEvaluations = false;
+    protected Integer cacheSize = 1000;
+    protected Integer sourceFileCacheSize = 16;
+    protected Integer parallelism = 1;
+    protected Boolean workerPool = false;
+    protected Integer workerPoolSize = null;
+    protected Integer workerMaxEvaluations = 100;
+    protected Boolean batchEvaluation = false;
+    protected Boolean bytecodeEquivalence = false;
+    protected Boolean adaptiveReps = false;
+    protected Integer minReps = 3;
+    protected Integer maxReps = 10;
+    protected Double racingAlpha = 0.05;
+    protected Boolean runtimeCutoff = false;
+    protected Double runtimeCutoffFactor = 3.0;
+    protected Boolean dynamicTimeouts = false;
+    protected Double timeoutMultiplier = 10.0;
+    protected Long timeoutFloorMS = 1000L;
+    protected Boolean testSelection = false;
+    protected Integer methodConcurrency = 1;
+    protected Integer coordinatorPort = null;
+    protected Long workItemTimeoutMS = 600000L;
+    protected Boolean surrogate = false;
+    protected Double surrogateExplorationRate = 0.1;
+    protected Double surrogateValidThreshold = 0.05;
+    protected Double surrogateRuntimeThreshold = 2.0;
+    protected Integer surrogateMinObservations = 50;
+    protected Boolean memoryWithRuntime = false;
+    protected InstructionCountScope instructionCountScope = InstructionCountScope.NONE;
+    protected File checkpointDirectory = null;
+    protected Integer checkpointInterval = 500;
+    protected Integer evaluationRetries = 2;
+    protected Long retryBackoffMS = 1000L;
+    protected File evaluationLog = null;
+    protected Long evaluationLogFlushMS = 1000L;
+    protected File evaluationArchiveDirectory = null;
+    protected Long evaluationArchiveSizeMB = 1024L;
+    protected File classPathCacheDirectory = null;
     /*============== Other  ==============*/
     protected Project project = null;
+    protected EvaluationCache evaluationCache = null;
+    protected SourceFileCache sourceFileCache = null;
+    protected EvaluationArchive evaluationArchive = null;
+    protected String projectHash = null;
+    protected WorkerPool testWorkerPool = null;
+    protected CoverageTestSelector testSelector = null;
+    protected Coordinator coordinator = null;
+    protected SurrogateModel surrogateModel = null;
+    protected Map<PatchFingerprint, UnitTestResultSet> batchResults = new ConcurrentHashMap<>();
+    protected Map<String, UnitTestResultSet> bytecodeResults = new ConcurrentHashMap<>();
+    protected AtomicLong bytecodeLookups = new AtomicLong();
+    protected AtomicLong bytecodeHits = new AtomicLong();
+    protected AtomicLong evaluationRetryCount = new AtomicLong();
+    protected AtomicLong failedEvaluationCount = new AtomicLong();
+    // Whether workers collect garbage before each test, for heap measurements
+    protected boolean collectGarbage = false;
+    // The worker of the batch being tested by the current thread, if any
+    protected ThreadLocal<TestExecutor> batchWorker = new ThreadLocal<>();
+    // The classes of the patch being tested by the current thread, if they
+    // were compiled for its bytecode equivalence check
+    protected ThreadLocal<Map<String, byte[]>> compiledClasses = new ThreadLocal<>();
     protected Set<UnitTest> testData = new LinkedHashSet<>();
 
     /*============== Structures holding all project data  ==============*/
     protected List<TargetMethod> methodData = new ArrayList<>();
-    protected Iterator<TargetMethod> methodIterator;
-    protected TargetMethod targetedMethod;
-    protected SourceFile targetedSourceFile;
-    protected PatchSolution originalPatchSolution;
-    protected UnitTestResultSet originalProgramResults;
+    protected PeekingIterator<TargetMethod> methodIterator;
+    protected volatile MethodContext context = MethodContext.NONE;
     /**
      * allowed edit types for sampling: parsed from editType
      */
@@ -236,12 +328,16 @@ public abstract class GeneticImprovementProblem extends AbstractGenericProblem<P
         this.testData = testData;
     }
 
+    public MethodContext getContext() {
+        return context;
+    }
+
     public UnitTestResultSet getOriginalProgramResults() {
-        return originalProgramResults;
+        return context.getOriginalProgramResults();
     }
 
-    public void setOriginalProgramResults(UnitTestResultSet originalProgramResults) {
-        this.originalProgramResults = originalProgramResults;
+    public synchronized void setOriginalProgramResults(UnitTestResultSet originalProgramResults) {
+        this.context = this.context.withOriginalProgramResults(originalProgramResults);
     }
 
     public List<TargetMethod> getMethodData() {
@@ -249,11 +345,11 @@ public abstract class GeneticImprovementProblem extends AbstractGenericProblem<P
     }
 
     public TargetMethod getTargetedMethod() {
-        return targetedMethod;
+        return context.getTargetMethod();
     }
 
     public SourceFile getTargetedSourceFile() {
-        return targetedSourceFile;
+        return context.getSourceFile();
     }
 
     public List<Class<? extends Edit>> getEditTypes() {
@@ -261,7 +357,7 @@ public abstract class GeneticImprovementProblem extends AbstractGenericProblem<P
     }
 
     public PatchSolution getOriginalPatchSolution() {
-        return originalPatchSolution;
+        return context.getOriginalPatchSolution();
     }
 
     public Long getSeed() {
@@ -281,6 +377,568 @@ public abstract class GeneticImprovementProblem extends AbstractGenericProblem<P
         return random;
     }
 
+    /**
+     * Replaces the random generator, e.g. with one restored from a
+     * checkpoint.
+     */
+    public void setRandom(Random random) {
+        Validate.notNull(random, "The random generator cannot be null.");
+        this.random = random;
+    }
+
+    public Boolean isCacheEvaluations() {
+        return cacheEvaluations;
+    }
+
+    public void setCacheEvaluations(Boolean cacheEvaluations) {
+        this.cacheEvaluations = cacheEvaluations;
+    }
+
+    public Integer getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(Integer cacheSize) {
+        Validate.inclusiveBetween(1, Integer.MAX_VALUE, cacheSize);
+        this.cacheSize = cacheSize;
+    }
+
+    public EvaluationCache getEvaluationCache() {
+        return evaluationCache;
+    }
+
+    public Integer getSourceFileCacheSize() {
+        return sourceFileCacheSize;
+    }
+
+    public void setSourceFileCacheSize(Integer sourceFileCacheSize) {
+        Validate.inclusiveBetween(1, Integer.MAX_VALUE, sourceFileCacheSize);
+        this.sourceFileCacheSize = sourceFileCacheSize;
+    }
+
+    public SourceFileCache getSourceFileCache() {
+        return sourceFileCache;
+    }
+
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(Integer parallelism) {
+        Validate.inclusiveBetween(1, Integer.MAX_VALUE, parallelism);
+        this.parallelism = parallelism;
+    }
+
+    public Boolean isWorkerPool() {
+        return workerPool;
+    }
+
+    public void setWorkerPool(Boolean workerPool) {
+        this.workerPool = workerPool;
+    }
+
+    public boolean isCollectGarbage() {
+        return collectGarbage;
+    }
+
+    /**
+     * @return the number of worker JVMs, which defaults to the parallelism
+     */
+    public Integer getWorkerPoolSize() {
+        return workerPoolSize != null ? workerPoolSize : parallelism;
+    }
+
+    public void setWorkerPoolSize(Integer workerPoolSize) {
+        Validate.inclusiveBetween(1, Integer.MAX_VALUE, workerPoolSize);
+        this.workerPoolSize = workerPoolSize;
+    }
+
+    public Integer getWorkerMaxEvaluations() {
+        return workerMaxEvaluations;
+    }
+
+    public void setWorkerMaxEvaluations(Integer workerMaxEvaluations) {
+        Validate.inclusiveBetween(1, Integer.MAX_VALUE, workerMaxEvaluations);
+        this.workerMaxEvaluations = workerMaxEvaluations;
+    }
+
+    public Boolean isBatchEvaluation() {
+        return batchEvaluation;
+    }
+
+    public void setBatchEvaluation(Boolean batchEvaluation) {
+        this.batchEvaluation = batchEvaluation;
+    }
+
+    public Boolean isBytecodeEquivalence() {
+        return bytecodeEquivalence;
+    }
+
+    public void setBytecodeEquivalence(Boolean bytecodeEquivalence) {
+        this.bytecodeEquivalence = bytecodeEquivalence;
+    }
+
+    public Boolean isAdaptiveReps() {
+        return adaptiveReps;
+    }
+
+    public void setAdaptiveReps(Boolean adaptiveReps) {
+        this.adaptiveReps = adaptiveReps;
+    }
+
+    public Integer getMinReps() {
+        return minReps;
+    }
+
+    public void setMinReps(Integer minReps) {
+        Validate.inclusiveBetween(1, Integer.MAX_VALUE, minReps);
+        this.minReps = minReps;
+    }
+
+    public Integer getMaxReps() {
+        return maxReps;
+    }
+
+    public void setMaxReps(Integer maxReps) {
+        Validate.inclusiveBetween(1, Integer.MAX_VALUE, maxReps);
+        this.maxReps = maxReps;
+    }
+
+    public Double getRacingAlpha() {
+        return racingAlpha;
+    }
+
+    public void setRacingAlpha(Double racingAlpha) {
+        Validate.exclusiveBetween(0.0, 1.0, racingAlpha);
+        this.racingAlpha = racingAlpha;
+    }
+
+    public Boolean isRuntimeCutoff() {
+        return runtimeCutoff;
+    }
+
+    public void setRuntimeCutoff(Boolean runtimeCutoff) {
+        this.runtimeCutoff = runtimeCutoff;
+    }
+
+    public Double getRuntimeCutoffFactor() {
+        return runtimeCutoffFactor;
+    }
+
+    public void setRuntimeCutoffFactor(Double runtimeCutoffFactor) {
+        Validate.isTrue(runtimeCutoffFactor >= 1.0, "The runtime cutoff factor must be at least 1.");
+        this.runtimeCutoffFactor = runtimeCutoffFactor;
+    }
+
+    public Boolean isDynamicTimeouts() {
+        return dynamicTimeouts;
+    }
+
+    public void setDynamicTimeouts(Boolean dynamicTimeouts) {
+        this.dynamicTimeouts = dynamicTimeouts;
+    }
+
+    public Double getTimeoutMultiplier() {
+        return timeoutMultiplier;
+    }
+
+    public void setTimeoutMultiplier(Double timeoutMultiplier) {
+        Validate.isTrue(timeoutMultiplier >= 1.0, "The timeout multiplier must be at least 1.");
+        this.timeoutMultiplier = timeoutMultiplier;
+    }
+
+    public Long getTimeoutFloorMS() {
+        return timeoutFloorMS;
+    }
+
+    public void setTimeoutFloorMS(Long timeoutFloorMS) {
+        Validate.inclusiveBetween(0, Long.MAX_VALUE, timeoutFloorMS);
+        this.timeoutFloorMS = timeoutFloorMS;
+    }
+
+    public Boolean isTestSelection() {
+        return testSelection;
+    }
+
+    public void setTestSelection(Boolean testSelection) {
+        this.testSelection = testSelection;
+    }
+
+    public CoverageTestSelector getTestSelector() {
+        return testSelector;
+    }
+
+    public Integer getMethodConcurrency() {
+        return methodConcurrency;
+    }
+
+    public void setMethodConcurrency(Integer methodConcurrency) {
+        Validate.inclusiveBetween(1, Integer.MAX_VALUE, methodConcurrency);
+        this.methodConcurrency = methodConcurrency;
+    }
+
+    public Integer getCoordinatorPort() {
+        return coordinatorPort;
+    }
+
+    /**
+     * @param coordinatorPort port on which remote workers are accepted, or
+     *                        null to evaluate patches on this host
+     */
+    public void setCoordinatorPort(Integer coordinatorPort) {
+        if (coordinatorPort != null) {
+            Validate.inclusiveBetween(0, 65535, coordinatorPort);
+        }
+        this.coordinatorPort = coordinatorPort;
+    }
+
+    public Long getWorkItemTimeoutMS() {
+        return workItemTimeoutMS;
+    }
+
+    public void setWorkItemTimeoutMS(Long workItemTimeoutMS) {
+        Validate.inclusiveBetween(1, Long.MAX_VALUE, workItemTimeoutMS);
+        this.workItemTimeoutMS = workItemTimeoutMS;
+    }
+
+    public Boolean isSurrogate() {
+        return surrogate;
+    }
+
+    public void setSurrogate(Boolean surrogate) {
+        this.surrogate = surrogate;
+    }
+
+    public Double getSurrogateExplorationRate() {
+        return surrogateExplorationRate;
+    }
+
+    /**
+     * @param surrogateExplorationRate probability of evaluating a patch the
+     *                                 surrogate model rejects, so that the
+     *                                 model keeps learning
+     */
+    public void setSurrogateExplorationRate(Double surrogateExplorationRate) {
+        Validate.inclusiveBetween(0.0, 1.0, surrogateExplorationRate);
+        this.surrogateExplorationRate = surrogateExplorationRate;
+    }
+
+    public Double getSurrogateValidThreshold() {
+        return surrogateValidThreshold;
+    }
+
+    /**
+     * @param surrogateValidThreshold probability of compiling and passing
+     *                                every test below which a patch is
+     *                                rejected
+     */
+    public void setSurrogateValidThreshold(Double surrogateValidThreshold) {
+        Validate.inclusiveBetween(0.0, 1.0, surrogateValidThreshold);
+        this.surrogateValidThreshold = surrogateValidThreshold;
+    }
+
+    public Double getSurrogateRuntimeThreshold() {
+        return surrogateRuntimeThreshold;
+    }
+
+    /**
+     * @param surrogateRuntimeThreshold expected runtime, relative to the
+     *                                  original program, above which a patch
+     *                                  is rejected
+     */
+    public void setSurrogateRuntimeThreshold(Double surrogateRuntimeThreshold) {
+        Validate.isTrue(surrogateRuntimeThreshold > 0, "The surrogate runtime threshold must be greater than zero.");
+        this.surrogateRuntimeThreshold = surrogateRuntimeThreshold;
+    }
+
+    public Integer getSurrogateMinObservations() {
+        return surrogateMinObservations;
+    }
+
+    public void setSurrogateMinObservations(Integer surrogateMinObservations) {
+        Validate.inclusiveBetween(0, Integer.MAX_VALUE, surrogateMinObservations);
+        this.surrogateMinObservations = surrogateMinObservations;
+    }
+
+    public Boolean isMemoryWithRuntime() {
+        return memoryWithRuntime;
+    }
+
+    /**
+     * @param memoryWithRuntime whether memory problems also minimise runtime
+     */
+    public void setMemoryWithRuntime(Boolean memoryWithRuntime) {
+        this.memoryWithRuntime = memoryWithRuntime;
+    }
+
+    public InstructionCountScope getInstructionCountScope() {
+        return instructionCountScope;
+    }
+
+    /**
+     * @param instructionCountScope classes whose executed bytecode
+     *                              instructions the test workers count
+     */
+    public void setInstructionCountScope(InstructionCountScope instructionCountScope) {
+        Validate.notNull(instructionCountScope, "The instruction count scope cannot be null.");
+        this.instructionCountScope = instructionCountScope;
+    }
+
+    public File getCheckpointDirectory() {
+        return checkpointDirectory;
+    }
+
+    /**
+     * @param checkpointDirectory where searches save their checkpoints, or
+     *                            null not to save any
+     */
+    public void setCheckpointDirectory(File checkpointDirectory) {
+        this.checkpointDirectory = checkpointDirectory;
+    }
+
+    public void setCheckpointDirectory(String checkpointDirectory) {
+        this.setCheckpointDirectory(StringUtils.isBlank(checkpointDirectory) ? null : FileUtils.getFile(checkpointDirectory));
+    }
+
+    public Integer getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * @param checkpointInterval number of evaluations between checkpoints
+     */
+    public void setCheckpointInterval(Integer checkpointInterval) {
+        Validate.isTrue(checkpointInterval > 0, "The checkpoint interval must be greater than zero.");
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * @return the checkpoint file of the targeted method, or null if
+     * checkpoints are disabled
+     */
+    public File getCheckpointFile() {
+        if (this.checkpointDirectory == null) {
+            return null;
+        }
+        return new File(this.checkpointDirectory, "checkpoint-" + this.getTargetedMethod().getMethodID() + ".ser");
+    }
+
+    public File getEvaluationLog() {
+        return evaluationLog;
+    }
+
+    /**
+     * @param evaluationLog file to which every evaluation is appended as the
+     *                      search runs, or null for none
+     */
+    public void setEvaluationLog(File evaluationLog) {
+        this.evaluationLog = evaluationLog;
+    }
+
+    public void setEvaluationLog(String evaluationLog) {
+        this.setEvaluationLog(StringUtils.isBlank(evaluationLog) ? null : FileUtils.getFile(evaluationLog));
+    }
+
+    public Long getEvaluationLogFlushMS() {
+        return evaluationLogFlushMS;
+    }
+
+    public void setEvaluationLogFlushMS(Long evaluationLogFlushMS) {
+        Validate.isTrue(evaluationLogFlushMS > 0, "The flush interval must be greater than zero.");
+        this.evaluationLogFlushMS = evaluationLogFlushMS;
+    }
+
+    public File getEvaluationArchiveDirectory() {
+        return evaluationArchiveDirectory;
+    }
+
+    /**
+     * @param evaluationArchiveDirectory directory of an
+     *                                   {@link EvaluationArchive} shared
+     *                                   between runs, or null for none
+     */
+    public void setEvaluationArchiveDirectory(File evaluationArchiveDirectory) {
+        this.evaluationArchiveDirectory = evaluationArchiveDirectory;
+    }
+
+    public void setEvaluationArchiveDirectory(String evaluationArchiveDirectory) {
+        this.setEvaluationArchiveDirectory(StringUtils.isBlank(evaluationArchiveDirectory) ? null : FileUtils.getFile(evaluationArchiveDirectory));
+    }
+
+    public Long getEvaluationArchiveSizeMB() {
+        return evaluationArchiveSizeMB;
+    }
+
+    public void setEvaluationArchiveSizeMB(Long evaluationArchiveSizeMB) {
+        Validate.isTrue(evaluationArchiveSizeMB > 0, "The archive size must be greater than zero.");
+        this.evaluationArchiveSizeMB = evaluationArchiveSizeMB;
+    }
+
+    public EvaluationArchive getEvaluationArchive() {
+        return evaluationArchive;
+    }
+
+    public File getClassPathCacheDirectory() {
+        return classPathCacheDirectory;
+    }
+
+    /**
+     * @param classPathCacheDirectory directory of a {@link ClasspathCache}
+     *                                for computed classpaths, or null for none
+     */
+    public void setClassPathCacheDirectory(File classPathCacheDirectory) {
+        this.classPathCacheDirectory = classPathCacheDirectory;
+    }
+
+    public void setClassPathCacheDirectory(String classPathCacheDirectory) {
+        this.setClassPathCacheDirectory(StringUtils.isBlank(classPathCacheDirectory) ? null : FileUtils.getFile(classPathCacheDirectory));
+    }
+
+    /**
+     * @return the fitness function and the settings its test results depend
+     * on, which are part of the key of archived evaluations. Subclasses whose
+     * results depend on further settings should add them.
+     */
+    protected String getFitnessMode() {
+        return this.getClass().getName()
+                + " reps=" + this.reps
+                + " adaptiveReps=" + this.adaptiveReps
+                + " minReps=" + this.minReps
+                + " maxReps=" + this.maxReps
+                + " racingAlpha=" + this.racingAlpha
+                + " runtimeCutoff=" + this.runtimeCutoff
+                + " runtimeCutoffFactor=" + this.runtimeCutoffFactor
+                + " timeoutMS=" + this.timeoutMS
+                + " dynamicTimeouts=" + this.dynamicTimeouts
+                + " timeoutMultiplier=" + this.timeoutMultiplier
+                + " timeoutFloorMS=" + this.timeoutFloorMS
+                + " failFast=" + this.failFast
+                + " instructionCountScope=" + this.instructionCountScope
+                + " collectGarbage=" + this.collectGarbage
+                + " backend=" + this.getTestBackend();
+    }
+
+    /**
+     * @return where the tests run, as the measurements differ between Gin's
+     * runners, each kind of subprocess and the worker JVMs
+     */
+    private String getTestBackend() {
+        if (this.coordinatorPort != null) {
+            return "remote";
+        } else if (this.workerPool || this.batchEvaluation) {
+            return "worker";
+        } else if (this.eachTestInNewSubprocess) {
+            return "subprocessPerTest";
+        } else if (this.eachRepetitionInNewSubprocess) {
+            return "subprocessPerRepetition";
+        } else if (this.inSubprocess) {
+            return "subprocess";
+        }
+        return "internal";
+    }
+
+    public Integer getEvaluationRetries() {
+        return evaluationRetries;
+    }
+
+    /**
+     * @param evaluationRetries number of times the evaluation of a patch is
+     *                          retried after the test runner itself failed
+     */
+    public void setEvaluationRetries(Integer evaluationRetries) {
+        Validate.inclusiveBetween(0, Integer.MAX_VALUE, evaluationRetries);
+        this.evaluationRetries = evaluationRetries;
+    }
+
+    public Long getRetryBackoffMS() {
+        return retryBackoffMS;
+    }
+
+    /**
+     * @param retryBackoffMS wait before the first retry, doubled for each
+     *                       retry after it
+     */
+    public void setRetryBackoffMS(Long retryBackoffMS) {
+        Validate.inclusiveBetween(0, Long.MAX_VALUE, retryBackoffMS);
+        this.retryBackoffMS = retryBackoffMS;
+    }
+
+    public long getEvaluationRetryCount() {
+        return evaluationRetryCount.get();
+    }
+
+    public long getFailedEvaluationCount() {
+        return failedEvaluationCount.get();
+    }
+
+    public SurrogateModel getSurrogateModel() {
+        return surrogateModel;
+    }
+
+    /**
+     * @return the fraction of compiled patches whose bytecode matched a variant
+     * measured before
+     */
+    public double getBytecodeEquivalenceHitRate() {
+        long lookups = this.bytecodeLookups.get();
+        return lookups == 0 ? 0.0 : (double) this.bytecodeHits.get() / lookups;
+    }
+
+    /**
+     * @return counters describing how evaluations were obtained, e.g. for
+     * {@link uk.ucl.solar.tonic.print.gi.GIResultsPrinter#setSummary(Map)}
+     */
+    public Map<String, Object> getSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        if (this.evaluationCache != null) {
+            summary.put("CacheHits", this.evaluationCache.getHits());
+            summary.put("CacheMisses", this.evaluationCache.getMisses());
+            summary.put("CacheHitRate", this.evaluationCache.getHitRate());
+        }
+        if (this.sourceFileCache != null) {
+            summary.put("SourceFileCacheHits", this.sourceFileCache.getHits());
+            summary.put("SourceFileCacheMisses", this.sourceFileCache.getMisses());
+        }
+        if (this.evaluationArchive != null) {
+            summary.put("ArchiveHits", this.evaluationArchive.getHits());
+            summary.put("ArchiveMisses", this.evaluationArchive.getMisses());
+            summary.put("ArchiveHitRate", this.evaluationArchive.getHitRate());
+            summary.put("ArchiveEvictions", this.evaluationArchive.getEvictions());
+        }
+        summary.put("EvaluationRetries", this.evaluationRetryCount.get());
+        summary.put("FailedEvaluations", this.failedEvaluationCount.get());
+        if (this.surrogateModel != null) {
+            summary.put("SurrogateObservations", this.surrogateModel.getObservations());
+            summary.put("SurrogatePredictions", this.surrogateModel.getPredictions());
+            summary.put("SurrogateAccuracy", this.surrogateModel.getAccuracy());
+            summary.put("SurrogateSkippedEvaluations", this.surrogateModel.getSkipped());
+        }
+        if (this.coordinator != null) {
+            summary.put("RemoteWorkers", this.coordinator.getConnectedWorkers());
+            summary.put("RequeuedWorkItems", this.coordinator.getRequeuedItems());
+        }
+        if (this.bytecodeEquivalence) {
+            summary.put("BytecodeEquivalenceLookups", this.bytecodeLookups.get());
+            summary.put("BytecodeEquivalenceHits", this.bytecodeHits.get());
+            summary.put("BytecodeEquivalenceHitRate", this.getBytecodeEquivalenceHitRate());
+        }
+        return summary;
+    }
+
+    public synchronized Coordinator getCoordinator() throws IOException {
+        if (this.coordinator == null) {
+            this.coordinator = new Coordinator(this.coordinatorPort, this.workItemTimeoutMS, this.getClass().getName());
+        }
+        return this.coordinator;
+    }
+
+    public synchronized WorkerPool getTestWorkerPool() {
+        if (this.testWorkerPool == null) {
+            this.testWorkerPool = new WorkerPool(this.getWorkerPoolSize(), this.workerMaxEvaluations);
+        }
+        return this.testWorkerPool;
+    }
+
     // Coupled by Time.. is there a way of dettaching load and validate?
     protected final void loadProperties(File propertiesFile) throws IOException {
         Validate.notNull(propertiesFile, "Properties file cannot be null.");
@@ -357,9 +1015,207 @@ public abstract class GeneticImprovementProblem extends AbstractGenericProblem<P
             long seed = Long.parseLong(property);
             this.setSeed(seed);
         }
+
+        if (properties.containsKey("cacheEvaluations")) {
+            property = properties.getProperty("cacheEvaluations");
+            this.setCacheEvaluations(Boolean.valueOf(property));
+        }
+
+        if (properties.containsKey("cacheSize")) {
+            property = properties.getProperty("cacheSize");
+            this.setCacheSize(Integer.valueOf(property));
+        }
+
+        if (properties.containsKey("sourceFileCacheSize")) {
+            property = properties.getProperty("sourceFileCacheSize");
+            this.setSourceFileCacheSize(Integer.valueOf(property));
+        }
+
+        if (properties.containsKey("parallelism")) {
+            property = properties.getProperty("parallelism");
+            this.setParallelism(Integer.valueOf(property));
+        }
+
+        if (properties.containsKey("workerPool")) {
+            property = properties.getProperty("workerPool");
+            this.setWorkerPool(Boolean.valueOf(property));
+        }
+
+        if (properties.containsKey("workerPoolSize")) {
+            property = properties.getProperty("workerPoolSize");
+            this.setWorkerPoolSize(Integer.valueOf(property));
+        }
+
+        if (properties.containsKey("workerMaxEvaluations")) {
+            property = properties.getProperty("workerMaxEvaluations");
+            this.setWorkerMaxEvaluations(Integer.valueOf(property));
+        }
+
+        if (properties.containsKey("batchEvaluation")) {
+            property = properties.getProperty("batchEvaluation");
+            this.setBatchEvaluation(Boolean.valueOf(property));
+        }
+
+        if (properties.containsKey("bytecodeEquivalence")) {
+            property = properties.getProperty("bytecodeEquivalence");
+            this.setBytecodeEquivalence(Boolean.valueOf(property));
+        }
+
+        if (properties.containsKey("adaptiveReps")) {
+            property = properties.getProperty("adaptiveReps");
+            this.setAdaptiveReps(Boolean.valueOf(property));
+        }
+
+        if (properties.containsKey("minReps")) {
+            property = properties.getProperty("minReps");
+            this.setMinReps(Integer.valueOf(property));
+        }
+
+        if (properties.containsKey("maxReps")) {
+            property = properties.getProperty("maxReps");
+            this.setMaxReps(Integer.valueOf(property));
+        }
+
+        if (properties.containsKey("racingAlpha")) {
+            property = properties.getProperty("racingAlpha");
+            this.setRacingAlpha(Double.valueOf(property));
+        }
+
+        if (properties.containsKey("runtimeCutoff")) {
+            property = properties.getProperty("runtimeCutoff");
+            this.setRuntimeCutoff(Boolean.valueOf(property));
+        }
+
+        if (properties.containsKey("runtimeCutoffFactor")) {
+            property = properties.getProperty("runtimeCutoffFactor");
+            this.setRuntimeCutoffFactor(Double.valueOf(property));
+        }
+
+        if (properties.containsKey("dynamicTimeouts")) {
+            property = properties.getProperty("dynamicTimeouts");
+            this.setDynamicTimeouts(Boolean.valueOf(property));
+        }
+
+        if (properties.containsKey("timeoutMultiplier")) {
+            property = properties.getProperty("timeoutMultiplier");
+            this.setTimeoutMultiplier(Double.valueOf(property));
+        }
+
+        if (properties.containsKey("timeoutFloorMS")) {
+            property = properties.getProperty("timeoutFloorMS");
+            this.setTimeoutFloorMS(Long.valueOf(property));
+        }
+
+        if (properties.containsKey("testSelection")) {
+            property = properties.getProperty("testSelection");
+            this.setTestSelection(Boolean.valueOf(property));
+        }
+
+        if (properties.containsKey("methodConcurrency")) {
+            property = properties.getProperty("methodConcurrency");
+            this.setMethodConcurrency(Integer.valueOf(property));
+        }
+
+        if (properties.containsKey("coordinatorPort")) {
+            property = properties.getProperty("coordinatorPort");
+            this.setCoordinatorPort(Integer.valueOf(property));
+        }
+
+        if (properties.containsKey("workItemTimeoutMS")) {
+            property = properties.getProperty("workItemTimeoutMS");
+            this.setWorkItemTimeoutMS(Long.valueOf(property));
+        }
+
+        if (properties.containsKey("surrogate")) {
+            property = properties.getProperty("surrogate");
+            this.setSurrogate(Boolean.valueOf(property));
+        }
+
+        if (properties.containsKey("surrogateExplorationRate")) {
+            property = properties.getProperty("surrogateExplorationRate");
+            this.setSurrogateExplorationRate(Double.valueOf(property));
+        }
+
+        if (properties.containsKey("surrogateValidThreshold")) {
+            property = properties.getProperty("surrogateValidThreshold");
+            this.setSurrogateValidThreshold(Double.valueOf(property));
+        }
+
+        if (properties.containsKey("surrogateRuntimeThreshold")) {
+            property = properties.getProperty("surrogateRuntimeThreshold");
+            this.setSurrogateRuntimeThreshold(Double.valueOf(property));
+        }
+
+        if (properties.containsKey("surrogateMinObservations")) {
+            property = properties.getProperty("surrogateMinObservations");
+            this.setSurrogateMinObservations(Integer.valueOf(property));
+        }
+
+        if (properties.containsKey("memoryWithRuntime")) {
+            property = properties.getProperty("memoryWithRuntime");
+            this.setMemoryWithRuntime(Boolean.valueOf(property));
+        }
+
+        if (properties.containsKey("checkpointDirectory")) {
+            property = properties.getProperty("checkpointDirectory");
+            this.setCheckpointDirectory(property);
+        }
+
+        if (properties.containsKey("checkpointInterval")) {
+            property = properties.getProperty("checkpointInterval");
+            this.setCheckpointInterval(Integer.valueOf(property));
+        }
+
+        if (properties.containsKey("evaluationLog")) {
+            property = properties.getProperty("evaluationLog");
+            this.setEvaluationLog(property);
+        }
+
+        if (properties.containsKey("evaluationLogFlushMS")) {
+            property = properties.getProperty("evaluationLogFlushMS");
+            this.setEvaluationLogFlushMS(Long.valueOf(property));
+        }
+
+        if (properties.containsKey("evaluationArchive")) {
+            property = properties.getProperty("evaluationArchive");
+            this.setEvaluationArchiveDirectory(property);
+        }
+
+        if (properties.containsKey("evaluationArchiveSizeMB")) {
+            property = properties.getProperty("evaluationArchiveSizeMB");
+            this.setEvaluationArchiveSizeMB(Long.valueOf(property));
+        }
+
+        if (properties.containsKey("classPathCache")) {
+            property = properties.getProperty("classPathCache");
+            this.setClassPathCacheDirectory(property);
+        }
+
+        if (properties.containsKey("evaluationRetries")) {
+            property = properties.getProperty("evaluationRetries");
+            this.setEvaluationRetries(Integer.valueOf(property));
+        }
+
+        if (properties.containsKey("retryBackoffMS")) {
+            property = properties.getProperty("retryBackoffMS");
+            this.setRetryBackoffMS(Long.valueOf(property));
+        }
+
+        if (properties.containsKey("instructionCountScope")) {
+            property = properties.getProperty("instructionCountScope");
+            this.setInstructionCountScope(InstructionCountScope.valueOf(property.trim().toUpperCase()));
+        }
+
+        // Gin's runners share a single output directory, so concurrent
+        // evaluations could overwrite each other's classes
+        if (this.parallelism > 1 && !this.workerPool) {
+            Logger.warn("Parallel evaluation needs isolated test JVMs, enabling workerPool.");
+            this.setWorkerPool(true);
+        }
     }
 
     protected final void setUp() {
+        CompletableFuture<String> pendingClassPath = null;
         if (this.classPath == null) {
             this.setProject(new Project(this.projectDirectory, this.projectName));
             if (this.mavenHome != null) {
@@ -372,57 +1228,350 @@ public abstract class GeneticImprovementProblem extends AbstractGenericProblem<P
                 this.setMavenHome(mavenHome);
                 this.project.setMavenHome(mavenHome);
             }
-            Logger.info("Calculating classpath..");
-            this.setClassPath(this.project.classpath());
-            Logger.info("Classpath: " + this.classPath);
+            pendingClassPath = this.resolveClassPath();
         }
+        // The method file does not depend on the classpath, so it is
+        // processed while the classpath is computed
         this.methodData = processMethodFile();
-        this.methodIterator = this.methodData.iterator();
+        if (pendingClassPath != null) {
+            this.setClassPath(awaitClassPath(pendingClassPath));
+            Logger.info("Classpath: " + this.classPath);
+        }
+        if (this.cacheEvaluations) {
+            this.evaluationCache = new EvaluationCache(this.cacheSize);
+        }
+        if (this.evaluationArchiveDirectory != null) {
+            try {
+                this.evaluationArchive = new EvaluationArchive(this.evaluationArchiveDirectory, this.evaluationArchiveSizeMB * 1024 * 1024);
+                Logger.info("Hashing the project's sources for the evaluation archive..");
+                this.projectHash = EvaluationArchive.hashProject(this.projectDirectory, this.classPath);
+            } catch (IOException ex) {
+                Logger.error(ex, "Could not open the evaluation archive in " + this.evaluationArchiveDirectory + ", carrying on without it.");
+                this.evaluationArchive = null;
+            }
+        }
+        if (this.surrogate) {
+            // The surrogate draws from its own generator, so that the
+            // search makes the same choices with and without it
+            Random surrogateRandom = this.seed == null ? new Random() : new Random(this.seed ^ SURROGATE_SEED_SALT);
+            this.surrogateModel = new SurrogateModel(this.surrogateMinObservations, surrogateRandom);
+        }
+        if (this.workerPool || this.batchEvaluation) {
+            ProcessReaper.sweepStaleDirectories(WorkerProcess.SCRATCH_DIRECTORY_PREFIX);
+        }
+        if (this.testSelection) {
+            this.testSelector = new CoverageTestSelector(this.classPath, new File(this.methodFile.getPath() + ".coverage"));
+        }
+        this.sourceFileCache = new SourceFileCache(this.sourceFileCacheSize);
+        this.methodIterator = Iterators.peekingIterator(this.methodData.iterator());
         Validate.isTrue(this.methodIterator.hasNext(), "No method to improve.");
     }
 
+    /**
+     * Looks the project's classpath up in the classpath cache, if any, or
+     * starts computing it on a background thread. Computing it shells out to
+     * the build tool, which is by far the slowest part of the start up.
+     */
+    private CompletableFuture<String> resolveClassPath() {
+        ClasspathCache cache = null;
+        String fingerprint = null;
+        if (this.classPathCacheDirectory != null) {
+            try {
+                cache = new ClasspathCache(this.classPathCacheDirectory);
+                fingerprint = ClasspathCache.fingerprint(this.projectDirectory, this.mavenHome);
+                String cached = cache.get(this.projectDirectory, fingerprint);
+                if (cached != null) {
+                    Logger.info("Reusing the cached classpath.");
+                    return CompletableFuture.completedFuture(cached);
+                }
+            } catch (IOException ex) {
+                Logger.warn(ex, "Could not read the classpath cache in " + this.classPathCacheDirectory + ".");
+                cache = null;
+            }
+        }
+        Logger.info("Calculating classpath..");
+        ClasspathCache classPathCache = cache;
+        String buildFingerprint = fingerprint;
+        Project project = this.project;
+        return CompletableFuture.supplyAsync(() -> {
+            String classPath = project.classpath();
+            if (classPathCache != null) {
+                try {
+                    classPathCache.put(this.projectDirectory, buildFingerprint, classPath);
+                } catch (IOException ex) {
+                    Logger.warn(ex, "Could not cache the classpath in " + classPathCache.getDirectory() + ".");
+                }
+            }
+            return classPath;
+        }, runnable -> {
+            Thread thread = new Thread(runnable, "tonic-classpath");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    private static String awaitClassPath(CompletableFuture<String> pendingClassPath) {
+        try {
+            return pendingClassPath.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calculating the classpath.", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            } else if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw new IllegalStateException("Could not calculate the classpath.", ex.getCause());
+        }
+    }
+
+    // May be called from several evaluator threads at once: it works on a
+    // snapshot of the method context
     public UnitTestResultSet runPatch(Patch patch) {
+        MethodContext context = this.context;
+        TargetMethod method = context.getTargetMethod();
         // If there is a method to improve
-        if (this.targetedMethod != null && this.targetedSourceFile != null) {
-            String className = this.targetedMethod.getClassName();
-            List<UnitTest> tests = this.targetedMethod.getGinTests();
-            // Test the patch
-            UnitTestResultSet results = testPatch(className, tests, patch);
-            // If the patch is empty (i.e. the original program) and it is the
-            // first time it is being executed
-            if (patch.size() == 0 && this.originalProgramResults == null) {
-                // Save the original program execution's information
-                this.setOriginalProgramResults(results);
+        if (method != null && context.getSourceFile() != null) {
+            String className = method.getClassName();
+            List<UnitTest> tests = method.getGinTests();
+            // Reuse the results of an identical patch evaluated before, if any
+            PatchFingerprint fingerprint = null;
+            String archiveKey = null;
+            UnitTestResultSet results = null;
+            if (this.evaluationCache != null || !this.batchResults.isEmpty() || this.evaluationArchive != null) {
+                fingerprint = PatchFingerprint.of(method, patch);
+            }
+            if (this.evaluationCache != null) {
+                results = this.evaluationCache.get(fingerprint);
+            }
+            if (results == null && !this.batchResults.isEmpty()) {
+                results = this.batchResults.get(fingerprint);
             }
+            // Or of an identical patch measured by an earlier run
+            if (results == null && this.evaluationArchive != null) {
+                archiveKey = this.getArchiveKey(method, fingerprint);
+                WorkResult archived = this.evaluationArchive.get(archiveKey);
+                if (archived != null) {
+                    results = archived.toResultSet(patch, tests);
+                    if (this.evaluationCache != null) {
+                        this.evaluationCache.put(fingerprint, results);
+                    }
+                }
+            }
+            // Otherwise, test the patch
+            if (results == null) {
+                results = (this.coordinatorPort != null) ? testPatchRemotely(method, patch) : testPatch(className, tests, patch);
+                if (this.evaluationCache != null && !isFailedEvaluation(results)) {
+                    this.evaluationCache.put(fingerprint, results);
+                }
+                this.archiveResults(archiveKey, tests, results);
+            } else {
+                Logger.debug("Reusing cached results for patch: " + patch);
+            }
+            this.recordOriginalProgramResults(method, patch, results);
             return results;
         } else {
             return null;
         }
     }
 
-    public TargetMethod nextMethod() {
+    private void recordOriginalProgramResults(TargetMethod method, Patch patch, UnitTestResultSet results) {
+        // If the patch is empty (i.e. the original program) and it is the
+        // first time it is being executed
+        if (patch.size() == 0 && this.context.getOriginalProgramResults() == null && !isFailedEvaluation(results)) {
+            synchronized (this) {
+                if (this.context.getOriginalProgramResults() == null && method.equals(this.context.getTargetMethod())) {
+                    // Save the original program execution's information
+                    this.setOriginalProgramResults(results);
+                    if (this.dynamicTimeouts) {
+                        this.context = this.context.withTestTimeouts(this.computeDynamicTimeouts(method, results));
+                    }
+                }
+            }
+        }
+    }
+
+    protected String getArchiveKey(TargetMethod method, PatchFingerprint fingerprint) {
+        return EvaluationArchive.key(this.projectHash, this.getFitnessMode(), fingerprint, method.getGinTests());
+    }
+
+    // Results cut short by the runtime budget depend on the original
+    // program's runtime in this run, so only complete results are archived
+    private void archiveResults(String archiveKey, List<UnitTest> tests, UnitTestResultSet results) {
+        if (this.evaluationArchive == null || archiveKey == null || isFailedEvaluation(results)) {
+            return;
+        }
+        for (UnitTestResult result : results.getResults()) {
+            if (TestOutcome.BUDGET_EXCEEDED.equals(result.getExceptionType())) {
+                return;
+            }
+        }
+        try {
+            this.evaluationArchive.put(archiveKey, WorkResult.of(0, tests, results));
+        } catch (IOException ex) {
+            Logger.warn(ex, "Could not archive the results of patch " + results.getPatch() + ".");
+        }
+    }
+
+    /**
+     * Computes the timeout of each test of the method as its slowest run on
+     * the original program times {@link #getTimeoutMultiplier()}, plus
+     * {@link #getTimeoutFloorMS()}, but never above {@link #getTimeoutMS()}.
+     * Tests that failed on the original program keep their timeout. The tests
+     * themselves are left untouched: the timeouts are kept in the method's
+     * {@link MethodContext} and given to copies of the tests by
+     * {@link #runTests(String, List, Patch, int, long)}.
+     */
+    protected Map<UnitTest, Long> computeDynamicTimeouts(TargetMethod method, UnitTestResultSet results) {
+        Map<UnitTest, Long> slowestRuns = new HashMap<>();
+        Set<UnitTest> failedTests = new HashSet<>();
+        for (UnitTestResult result : results.getResults()) {
+            if (result.getPassed()) {
+                slowestRuns.merge(result.getTest(), result.getExecutionTime(), Math::max);
+            } else {
+                failedTests.add(result.getTest());
+            }
+        }
+        Map<UnitTest, Long> timeouts = new HashMap<>();
+        for (UnitTest test : method.getGinTests()) {
+            Long slowestRun = slowestRuns.get(test);
+            if (slowestRun != null && !failedTests.contains(test)) {
+                long timeoutMS = (long) Math.ceil(slowestRun / 1000000D * this.timeoutMultiplier) + this.timeoutFloorMS;
+                timeouts.put(test, Math.min(timeoutMS, this.timeoutMS));
+                Logger.debug("Timeout of " + test + " set to " + timeouts.get(test) + "ms.");
+            }
+        }
+        return timeouts;
+    }
+
+    /**
+     * Tests every distinct patch of the list, one after the other, in a single
+     * worker JVM started for this batch only. Each patch is measured as
+     * {@link #runPatch(Patch)} would, and the original program, if in the
+     * list, is measured first, as the other patches are measured against it.
+     * The results are kept until {@link #clearBatchResults()} and are picked
+     * up by {@link #runPatch(Patch)}.
+     */
+    public void testPatchesInBatch(List<Patch> patches) {
+        MethodContext context = this.context;
+        TargetMethod method = context.getTargetMethod();
+        if (method == null || context.getSourceFile() == null) {
+            return;
+        }
+        Map<PatchFingerprint, Patch> distinctPatches = new LinkedHashMap<>();
+        for (Patch patch : patches) {
+            PatchFingerprint fingerprint = PatchFingerprint.of(method, patch);
+            if ((this.evaluationCache == null || !this.evaluationCache.contains(fingerprint))
+                    && (this.evaluationArchive == null || !this.evaluationArchive.contains(this.getArchiveKey(method, fingerprint)))) {
+                distinctPatches.putIfAbsent(fingerprint, patch);
+            }
+        }
+        if (distinctPatches.isEmpty()) {
+            return;
+        }
+        Logger.debug("Testing a batch of " + distinctPatches.size() + " distinct patches.");
+        List<Map.Entry<PatchFingerprint, Patch>> entries = new ArrayList<>(distinctPatches.entrySet());
+        entries.sort(Comparator.comparing(entry -> entry.getValue().size() > 0));
+
+        RestartingWorker worker = new RestartingWorker();
+        this.batchWorker.set(worker);
+        try {
+            for (Map.Entry<PatchFingerprint, Patch> entry : entries) {
+                UnitTestResultSet results = this.testPatch(method.getClassName(), method.getGinTests(), entry.getValue());
+                this.recordOriginalProgramResults(method, entry.getValue(), results);
+                // Failed evaluations are tried again by runPatch
+                if (!isFailedEvaluation(results)) {
+                    this.batchResults.put(entry.getKey(), results);
+                    if (this.evaluationCache != null) {
+                        this.evaluationCache.put(entry.getKey(), results);
+                    }
+                    if (this.evaluationArchive != null) {
+                        this.archiveResults(this.getArchiveKey(method, entry.getKey()), method.getGinTests(), results);
+                    }
+                }
+            }
+        } finally {
+            this.batchWorker.remove();
+            worker.close();
+        }
+    }
+
+    public void clearBatchResults() {
+        this.batchResults.clear();
+    }
+
+    public synchronized TargetMethod nextMethod() {
         if (this.methodIterator.hasNext()) {
-            this.targetedMethod = this.methodIterator.next();
-            this.targetedSourceFile = SourceFile.makeSourceFileForEditTypes(
-                    this.editTypes,
-                    this.targetedMethod.getFileSource().getPath(),
-                    Collections.singletonList(this.targetedMethod.getMethodName()));
+            this.context = createContext(this.methodIterator.next());
+            // The next method is parsed while this one is improved
+            if (this.methodIterator.hasNext()) {
+                TargetMethod next = this.methodIterator.peek();
+                this.sourceFileCache.prefetch(this.editTypes, next.getFileSource(), Collections.singletonList(next.getMethodName()));
+            }
         } else {
-            this.targetedMethod = null;
-            this.targetedSourceFile = null;
+            this.context = MethodContext.NONE;
+        }
+        this.bytecodeResults.clear();
+        return this.context.getTargetMethod();
+    }
+
+    /**
+     * Creates a copy of this problem that improves the given method, so that
+     * several methods can be searched at the same time, e.g. by a
+     * {@link uk.ucl.solar.tonic.problem.gi.MethodSearchScheduler}. The copy
+     * shares the configuration, caches and worker JVMs of this problem, so
+     * only this problem must be shut down.
+     */
+    public GeneticImprovementProblem forMethod(TargetMethod method) {
+        Validate.notNull(method, "The method cannot be null.");
+        if (this.workerPool) {
+            // Created here so that all copies share the same pool
+            this.getTestWorkerPool();
+        }
+        if (this.coordinatorPort != null) {
+            try {
+                this.getCoordinator();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        GeneticImprovementProblem copy;
+        try {
+            copy = (GeneticImprovementProblem) super.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException(ex);
+        }
+        copy.methodIterator = Iterators.peekingIterator(Collections.emptyIterator());
+        copy.batchResults = new ConcurrentHashMap<>();
+        copy.bytecodeResults = new ConcurrentHashMap<>();
+        if (this.seed != null) {
+            copy.random = new Random(this.seed + method.getMethodID());
+        }
+        copy.context = copy.createContext(method);
+        return copy;
+    }
+
+    private MethodContext createContext(TargetMethod method) {
+        if (this.testSelector != null) {
+            method.setGinTests(this.testSelector.select(method));
         }
-        this.originalPatchSolution = null;
-        this.originalProgramResults = null;
-        return this.targetedMethod;
+        SourceFile sourceFile = this.sourceFileCache.get(
+                this.editTypes,
+                method.getFileSource(),
+                Collections.singletonList(method.getMethodName()));
+        return new MethodContext(method, sourceFile);
     }
 
     @Override
     public PatchSolution createSolution() {
-        Validate.notNull(this.targetedMethod, "There is no target method. Either the method file is empty, or you forgot to call \"problem.nextMethod()\".");
+        Validate.notNull(this.getTargetedMethod(), "There is no target method. Either the method file is empty, or you forgot to call \"problem.nextMethod()\".");
         PatchSolution patchSolution = new PatchSolution(this.getNumberOfObjectives(), this.getNumberOfConstraints(), this.getTargetedSourceFile());
         // Always creates an empty patch first
-        if (this.originalPatchSolution == null) {
-            this.originalPatchSolution = patchSolution;
+        if (this.getOriginalPatchSolution() == null) {
+            synchronized (this) {
+                this.context = this.context.withOriginalPatchSolution(patchSolution);
+            }
             // Otherwise, creates a solution with a random edit
         } else {
             patchSolution.addRandomEditOfClasses(this.random, this.editTypes);
@@ -430,33 +1579,275 @@ public abstract class GeneticImprovementProblem extends AbstractGenericProblem<P
         return patchSolution;
     }
 
-    protected UnitTestResultSet testPatch(String targetClass, List<UnitTest> tests, Patch patch) {
+    /**
+     * @param edits the textual form of the edits, as {@link Edit#toString()}
+     *              gives them
+     * @return an unevaluated solution with the given edits
+     */
+    public PatchSolution createSolution(List<String> edits) {
+        Validate.notNull(this.getTargetedMethod(), "There is no target method.");
+        PatchSolution patchSolution = new PatchSolution(this.getNumberOfObjectives(), this.getNumberOfConstraints(), this.getTargetedSourceFile());
+        Patch patch = new WorkItem(0, this.getTargetedMethod().getMethodID(), edits).toPatch(this.getTargetedSourceFile());
+        for (Edit edit : patch.getEdits()) {
+            patchSolution.add(edit);
+        }
+        return patchSolution;
+    }
+
+    /**
+     * Tests a private copy of the patch: copied solutions share their patch
+     * until one of them changes it, and applying a patch records its validity
+     * on the instance, so concurrent evaluations must not apply the same one.
+     */
+    protected UnitTestResultSet testPatch(String targetClass, List<UnitTest> tests, Patch sharedPatch) {
+        Patch patch = sharedPatch.clone();
+        if (!this.bytecodeEquivalence) {
+            return measurePatch(targetClass, tests, patch);
+        }
+        // Variants that compile to the same bytes behave the same, so the
+        // results of the first one measured are reused for the others. The
+        // patch is compiled once, without debug information so that moved
+        // lines do not matter, and workers run these same classes; Gin's
+        // runners compile the patch on their own
+        String patchedSource = patch.apply();
+        boolean validPatch = patch.lastApplyWasValid();
+        List<Boolean> editsValid = patch.getEditsInvalidOnLastApply();
+        boolean noOp = patch.getSourceFile().toString().equals(patchedSource);
+        Map<String, byte[]> classes = validPatch ? new PatchCompiler(this.classPath, false).compile(targetClass, patchedSource) : null;
+        if (classes == null) {
+            return new UnitTestResultSet(patch, validPatch, editsValid, false, noOp, WorkerTestRunner.emptyResults(tests, this.reps));
+        }
+        String bytecodeKey = this.getTargetedMethod().getMethodID() + ":" + PatchCompiler.digest(classes);
+        this.bytecodeLookups.incrementAndGet();
+        UnitTestResultSet resultSet = this.bytecodeResults.get(bytecodeKey);
+        if (resultSet != null) {
+            this.bytecodeHits.incrementAndGet();
+            Logger.debug("Patch compiles to a variant measured before: " + patch);
+            return new EquivalentUnitTestResultSet(patch, validPatch, editsValid, noOp, resultSet);
+        }
+        this.compiledClasses.set(classes);
+        try {
+            resultSet = measurePatch(targetClass, tests, patch);
+        } finally {
+            this.compiledClasses.remove();
+        }
+        if (!isFailedEvaluation(resultSet)) {
+            this.bytecodeResults.putIfAbsent(bytecodeKey, resultSet);
+        }
+        return resultSet;
+    }
+
+    /**
+     * Measures a patch that has not been measured before. Subclasses may
+     * override it to decide how many repetitions each patch deserves.
+     */
+    protected UnitTestResultSet measurePatch(String targetClass, List<UnitTest> tests, Patch patch) {
         Logger.debug("Testing patch: " + patch);
+        return runTests(targetClass, tests, patch, this.reps);
+    }
+
+    protected UnitTestResultSet runTests(String targetClass, List<UnitTest> tests, Patch patch, int reps) {
+        return runTests(targetClass, tests, patch, reps, 0);
+    }
+
+    /**
+     * Runs the tests, giving up once their accumulated execution time exceeds
+     * the budget. The test during which the budget ran out is reported as
+     * failed with {@link TestOutcome#BUDGET_EXCEEDED}. Worker JVMs check the
+     * budget after every test; Gin's runners cannot be stopped midway, so no
+     * test they run may take longer than the budget instead. Tests with a
+     * timeout in the method's {@link MethodContext} are run with that timeout.
+     *
+     * @param budgetNS budget in nanoseconds, or 0 for no limit
+     */
+    protected UnitTestResultSet runTests(String targetClass, List<UnitTest> tests, Patch patch, int reps, long budgetNS) {
+        boolean inWorker = this.workerPool || this.batchWorker.get() != null;
+        Map<UnitTest, Long> testTimeouts = this.context.getTestTimeouts();
+        if ((budgetNS > 0 && !inWorker) || !testTimeouts.isEmpty()) {
+            return runTestsWithTimeouts(targetClass, tests, patch, reps, budgetNS, inWorker, testTimeouts);
+        }
+        return dispatchTests(targetClass, tests, patch, reps, budgetNS, inWorker);
+    }
+
+    private UnitTestResultSet dispatchTests(String targetClass, List<UnitTest> tests, Patch patch, int reps, long budgetNS, boolean inWorker) {
         UnitTestResultSet resultSet = null;
-        if (!this.inSubprocess && !this.eachRepetitionInNewSubprocess && !this.eachTestInNewSubprocess) {
-            resultSet = testPatchInternally(targetClass, tests, patch);
+        if (inWorker) {
+            resultSet = testPatchInWorker(targetClass, tests, patch, reps, budgetNS);
+        } else if (!this.inSubprocess && !this.eachRepetitionInNewSubprocess && !this.eachTestInNewSubprocess) {
+            resultSet = testPatchInternally(targetClass, tests, patch, reps);
         } else {
-            resultSet = testPatchInSubprocess(targetClass, tests, patch);
+            resultSet = testPatchInSubprocess(targetClass, tests, patch, reps);
         }
         return resultSet;
     }
 
-    private UnitTestResultSet testPatchInternally(String targetClass, List<UnitTest> tests, Patch patch) {
+    private UnitTestResultSet runTestsWithTimeouts(String targetClass, List<UnitTest> tests, Patch patch, int reps, long budgetNS, boolean inWorker, Map<UnitTest, Long> testTimeouts) {
+        // The tests are shared with concurrent evaluations, so the timeouts
+        // go to copies. Worker JVMs check the budget themselves
+        boolean capped = budgetNS > 0 && !inWorker;
+        long budgetMS = budgetNS / 1000000 + 1;
+        Map<UnitTest, UnitTest> originalTests = new IdentityHashMap<>();
+        List<UnitTest> cappedTests = new ArrayList<>(tests.size());
+        for (UnitTest test : tests) {
+            UnitTest cappedTest = UnitTest.fromString(test.toString());
+            long timeoutMS = testTimeouts.getOrDefault(test, test.getTimeoutMS());
+            cappedTest.setTimeoutMS(capped ? Math.min(timeoutMS, budgetMS) : timeoutMS);
+            cappedTests.add(cappedTest);
+            originalTests.put(cappedTest, test);
+        }
+        UnitTestResultSet resultSet = dispatchTests(targetClass, cappedTests, patch, reps, inWorker ? budgetNS : 0, inWorker);
+        List<UnitTestResult> results = new ArrayList<>();
+        long spent = 0;
+        for (UnitTestResult result : resultSet.getResults()) {
+            UnitTest cappedTest = result.getTest();
+            UnitTestResult restored = renumber(result, originalTests.getOrDefault(cappedTest, cappedTest), result.getRepNumber());
+            results.add(restored);
+            if (!capped) {
+                continue;
+            }
+            // A test that timed out ran for at least its timeout
+            spent += result.getTimedOut() ? Math.max(result.getExecutionTime(), cappedTest.getTimeoutMS() * 1000000) : result.getExecutionTime();
+            if (spent > budgetNS) {
+                restored.setPassed(false);
+                restored.setExceptionType(TestOutcome.BUDGET_EXCEEDED);
+                restored.setExceptionMessage("Runtime budget of " + budgetNS / 1000000 + "ms exceeded.");
+                break;
+            }
+        }
+        return new UnitTestResultSet(resultSet.getPatch(), resultSet.getValidPatch(), resultSet.getEditsValid(), resultSet.getCleanCompile(), resultSet.getNoOp(), results);
+    }
+
+    /**
+     * @return a copy of the result attributed to another repetition, for
+     * merging the results of separate runs
+     */
+    protected static UnitTestResult renumber(UnitTestResult result, int rep) {
+        return renumber(result, result.getTest(), rep);
+    }
+
+    /**
+     * @return a copy of the result attributed to another test and repetition
+     */
+    protected static UnitTestResult renumber(UnitTestResult result, UnitTest test, int rep) {
+        UnitTestResult renumbered = new UnitTestResult(test, rep);
+        if (result instanceof MeasuredUnitTestResult) {
+            MeasuredUnitTestResult measured = new MeasuredUnitTestResult(test, rep);
+            measured.setCpuTime(MeasuredUnitTestResult.cpuTimeOf(result));
+            measured.setUserTime(MeasuredUnitTestResult.userTimeOf(result));
+            measured.setAllocatedBytes(MeasuredUnitTestResult.allocatedBytesOf(result));
+            measured.setPeakHeapBytes(MeasuredUnitTestResult.peakHeapBytesOf(result));
+            measured.setInstructionCount(MeasuredUnitTestResult.instructionCountOf(result));
+            renumbered = measured;
+        }
+        renumbered.setPassed(result.getPassed());
+        renumbered.setTimedOut(result.getTimedOut());
+        renumbered.setExecutionTime(result.getExecutionTime());
+        renumbered.setExceptionType(result.getExceptionType());
+        renumbered.setExceptionMessage(result.getExceptionMessage());
+        return renumbered;
+    }
+
+    private UnitTestResultSet testPatchInternally(String targetClass, List<UnitTest> tests, Patch patch, int reps) {
         InternalTestRunner testRunner = new InternalTestRunner(targetClass, this.classPath, tests, this.failFast);
-        return testRunner.runTests(patch, this.reps);
+        return testRunner.runTests(patch, reps);
     }
 
-    private UnitTestResultSet testPatchInSubprocess(String targetClass, List<UnitTest> tests, Patch patch) {
+    private UnitTestResultSet testPatchInSubprocess(String targetClass, List<UnitTest> tests, Patch patch, int reps) {
         ExternalTestRunner testRunner = new ExternalTestRunner(targetClass, this.classPath, tests, this.eachRepetitionInNewSubprocess, this.eachTestInNewSubprocess, this.failFast);
+        return evaluateWithRetries(patch, tests, reps, () -> testRunner.runTests(patch, reps));
+    }
 
-        UnitTestResultSet results = null;
-        try {
-            results = testRunner.runTests(patch, this.reps);
-        } catch (IOException | InterruptedException e) {
-            Logger.error(e);
-            System.exit(-1);
+    private UnitTestResultSet testPatchInWorker(String targetClass, List<UnitTest> tests, Patch patch, int reps, long budgetNS) {
+        TestExecutor executor = this.batchWorker.get() != null ? this.batchWorker.get() : this.getTestWorkerPool();
+        WorkerTestRunner testRunner = new WorkerTestRunner(targetClass, this.classPath, tests, this.failFast, executor, this.instructionCountScope, this.collectGarbage);
+        Map<String, byte[]> classes = this.compiledClasses.get();
+        return evaluateWithRetries(patch, tests, reps, () -> testRunner.runTests(patch, classes, reps, budgetNS));
+    }
+
+    private UnitTestResultSet testPatchRemotely(TargetMethod method, Patch patch) {
+        return evaluateWithRetries(patch, method.getGinTests(), this.reps, () -> {
+            WorkResult result = this.getCoordinator().evaluate(method.getMethodID(), WorkItem.describe(patch));
+            return result.toResultSet(patch, method.getGinTests());
+        });
+    }
+
+    /**
+     * An evaluation that may fail for reasons that have nothing to do with
+     * the patch, such as a test JVM that could not be started.
+     */
+    @FunctionalInterface
+    protected interface Evaluation {
+
+        UnitTestResultSet run() throws IOException, InterruptedException;
+    }
+
+    /**
+     * Runs the evaluation, retrying it up to {@link #getEvaluationRetries()}
+     * times with exponential backoff if it fails. A patch whose evaluation
+     * never succeeds is reported as not compiling, so it gets the worst
+     * fitness, with {@link TestOutcome#EVALUATION_FAILED} as the exception of
+     * each test. Such results are never cached.
+     */
+    protected UnitTestResultSet evaluateWithRetries(Patch patch, List<UnitTest> tests, int reps, Evaluation evaluation) {
+        Exception failure = null;
+        long backoffMS = this.retryBackoffMS;
+        for (int attempt = 0; attempt <= this.evaluationRetries; attempt++) {
+            if (attempt > 0) {
+                this.evaluationRetryCount.incrementAndGet();
+                Logger.warn("Retrying the evaluation of patch " + patch + " in " + backoffMS + "ms (" + attempt + "/" + this.evaluationRetries + ").");
+                try {
+                    Thread.sleep(backoffMS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoffMS *= 2;
+            }
+            try {
+                return evaluation.run();
+            } catch (IOException ex) {
+                failure = ex;
+                Logger.warn(ex, "Evaluation of patch " + patch + " failed.");
+            } catch (InterruptedException ex) {
+                failure = ex;
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        this.failedEvaluationCount.incrementAndGet();
+        Logger.error(failure, "Giving up on the evaluation of patch " + patch + ".");
+        List<UnitTestResult> results = WorkerTestRunner.emptyResults(tests, reps);
+        for (UnitTestResult result : results) {
+            result.setExceptionType(TestOutcome.EVALUATION_FAILED);
+            result.setExceptionMessage(failure == null ? "Interrupted." : String.valueOf(failure.getMessage()));
+        }
+        return new UnitTestResultSet(patch, true, Collections.emptyList(), false, false, results);
+    }
+
+    /**
+     * @return true if the results are a placeholder for an evaluation that
+     * kept failing
+     */
+    protected static boolean isFailedEvaluation(UnitTestResultSet results) {
+        return !results.getResults().isEmpty()
+                && TestOutcome.EVALUATION_FAILED.equals(results.getResults().get(0).getExceptionType());
+    }
+
+    /**
+     * Releases the resources held by the problem, such as worker JVMs.
+     */
+    public synchronized void shutdown() {
+        if (this.coordinator != null) {
+            this.coordinator.close();
+            this.coordinator = null;
+        }
+        if (this.testWorkerPool != null) {
+            this.testWorkerPool.close();
+            this.testWorkerPool = null;
+        }
+        if (this.sourceFileCache != null) {
+            this.sourceFileCache.shutdown();
         }
-        return results;
     }
 
     // only Tests and Method fields are required, be careful thus if supplying files with multiple projects, this is not yet handled
@@ -469,6 +1860,10 @@ public abstract class GeneticImprovementProblem extends AbstractGenericProblem<P
             }
 
             List<TargetMethod> methods = new ArrayList<>();
+            Set<Integer> methodIDs = new HashSet<>();
+            // Hot methods tend to share classes, so each class is resolved once
+            Map<String, File> sources = new HashMap<>();
+            SourceIndex sourceIndex = null;
 
             Integer idx = 0;
 
@@ -489,9 +1884,22 @@ public abstract class GeneticImprovementProblem extends AbstractGenericProblem<P
                 String className = StringUtils.substringBefore(method, "("); // method arguments can have dots, so need to get data without arguments first
                 className = StringUtils.substringBeforeLast(className, METHOD_SEPARATOR);
 
-                File source = (this.project != null) ? this.project.findSourceFile(className) : findSourceFile(className);
-                if ((source == null) || (!source.isFile())) {
-                    throw new FileNotFoundException("Cannot find source for class: " + className);
+                File source = sources.get(className);
+                if (source == null) {
+                    if (this.project != null) {
+                        source = this.project.findSourceFile(className);
+                    } else {
+                        // used for non-maven and non-gradle projects only
+                        if (sourceIndex == null) {
+                            Logger.info("Indexing the project's sources..");
+                            sourceIndex = SourceIndex.build(this.projectDirectory);
+                        }
+                        source = sourceIndex.find(className);
+                    }
+                    if ((source == null) || (!source.isFile())) {
+                        throw new FileNotFoundException("Cannot find source for class: " + className);
+                    }
+                    sources.put(className, source);
                 }
 
                 // now using fully qualified names...
@@ -501,7 +1909,7 @@ public abstract class GeneticImprovementProblem extends AbstractGenericProblem<P
 
                 TargetMethod targetMethod = new TargetMethod(source, className, method, ginTests, methodID);
 
-                if (methods.contains(targetMethod)) {
+                if (!methodIDs.add(methodID)) {
                     throw new ParseException("Duplicate method IDs in the input file.", 0);
                 }
                 methods.add(targetMethod);
@@ -519,31 +1927,6 @@ public abstract class GeneticImprovementProblem extends AbstractGenericProblem<P
         return new ArrayList<>();
     }
 
-    // used for non-maven and non-gradle projects only
-    private File findSourceFile(String className) {
-        String pathToSource = className.replace(".", File.separator) + ".java";
-        String filename;
-        File moduleDir;
-        if (className.contains(".")) {
-            filename = StringUtils.substringAfterLast(pathToSource, File.separator);
-            moduleDir = new File(this.projectDirectory, StringUtils.substringBeforeLast(pathToSource, File.separator));
-        } else {
-            filename = pathToSource;
-            moduleDir = this.projectDirectory;
-        }
-        if (!moduleDir.isDirectory()) {
-            return null;
-        }
-        File[] files = moduleDir.listFiles((dir, name) -> name.equals(filename));
-        if (files != null && files.length == 0) {
-            return null;
-        } else if (files.length > 1) {
-            Logger.error("Two files found with the same name in: " + this.projectDirectory);
-            return null;
-        }
-        return files[0];
-    }
-
     protected void fillSolutionAttributes(PatchSolution solution, UnitTestResultSet results) {
         int nTests = results.getResults().size();
         int nPassed = (int) results.getResults().stream()
@@ -551,21 +1934,46 @@ public abstract class GeneticImprovementProblem extends AbstractGenericProblem<P
                 .count();
         int nFailed = nTests - nPassed;
 
-        solution.setAttribute("MethodIndex", this.getTargetedMethod().getMethodID());
-        solution.setAttribute("MethodName", this.getTargetedMethod().getMethodName());
-        solution.setAttribute("PatchSize", solution.getNumberOfVariables());
-        solution.setAttribute("Patch", solution.getPatch().toString());
+        this.fillPatchAttributes(solution);
         solution.setAttribute("Compiled", results.getCleanCompile());
         solution.setAttribute("NTests", nTests);
         solution.setAttribute("AllTestsPassed", results.allTestsSuccessful());
         solution.setAttribute("NPassed", nPassed);
         solution.setAttribute("NFailed", nFailed);
         solution.setAttribute("TotalExecutionTime(ms)", (double) results.totalExecutionTime() / 1000000);
-        solution.setAttribute("TimeStamp", System.currentTimeMillis());
+        if (this.bytecodeEquivalence) {
+            solution.setAttribute("BytecodeEquivalent", results instanceof EquivalentUnitTestResultSet);
+        }
+        this.fillFitnessAttributes(solution);
+    }
+
+    /**
+     * Fills the attributes of a patch whose tests were not run, e.g. as the
+     * surrogate model skipped it. The attributes describing test results,
+     * such as Compiled or NTests, are set empty, including those a copied
+     * solution inherited, so that logs and printers leave them blank rather
+     * than report a compilation that never happened.
+     */
+    protected void fillUntestedSolutionAttributes(PatchSolution solution) {
+        this.fillPatchAttributes(solution);
+        for (String attribute : TEST_RESULT_ATTRIBUTES) {
+            solution.setAttribute(attribute, "");
+        }
+        this.fillFitnessAttributes(solution);
+    }
 
+    private void fillPatchAttributes(PatchSolution solution) {
+        solution.setAttribute("MethodIndex", this.getTargetedMethod().getMethodID());
+        solution.setAttribute("MethodName", this.getTargetedMethod().getMethodName());
+        solution.setAttribute("PatchSize", solution.getNumberOfVariables());
+        solution.setAttribute("Patch", solution.getPatch().toString());
+    }
+
+    private void fillFitnessAttributes(PatchSolution solution) {
+        solution.setAttribute("TimeStamp", System.currentTimeMillis());
         for (int i = 0; i < this.getNumberOfObjectives(); i++) {
             solution.setAttribute("Fitness_" + i, solution.getObjective(i));
-            solution.setAttribute("FitnessImprovement_" + i, this.originalPatchSolution.getObjective(i) - solution.getObjective(i));
+            solution.setAttribute("FitnessImprovement_" + i, this.getOriginalPatchSolution().getObjective(i) - solution.getObjective(i));
         }
     }
 
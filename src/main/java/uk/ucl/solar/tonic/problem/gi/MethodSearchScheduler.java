@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.problem.gi;
+
+import org.apache.commons.lang3.Validate;
+import org.pmw.tinylog.Logger;
+import uk.ucl.solar.tonic.base.TargetMethod;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs independent searches for the methods of a problem's method file, a
+ * fixed number at a time. Each search gets its own copy of the problem from
+ * {@link GeneticImprovementProblem#forMethod(TargetMethod)}.
+ *
+ * @author Giovani
+ */
+public class MethodSearchScheduler {
+
+    private final GeneticImprovementProblem problem;
+    private final int concurrency;
+
+    public MethodSearchScheduler(GeneticImprovementProblem problem, int concurrency) {
+        Validate.notNull(problem, "The problem cannot be null.");
+        Validate.isTrue(concurrency > 0, "Concurrency must be greater than zero.");
+        this.problem = problem;
+        this.concurrency = concurrency;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * @param search runs the search for the method the given problem is set
+     *               to, e.g. by building and running an algorithm
+     * @return the result of each search, in the order of the method file.
+     * Methods whose search failed are logged and left out.
+     */
+    public <R> Map<TargetMethod, R> run(Function<GeneticImprovementProblem, R> search) throws InterruptedException {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "tonic-search-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<TargetMethod> methods = new ArrayList<>(problem.getMethodData());
+            List<Future<R>> futures = new ArrayList<>(methods.size());
+            for (TargetMethod method : methods) {
+                futures.add(executor.submit(() -> {
+                    Logger.info("Improving " + method + "..");
+                    return search.apply(problem.forMethod(method));
+                }));
+            }
+            Map<TargetMethod, R> results = new LinkedHashMap<>();
+            for (int i = 0; i < methods.size(); i++) {
+                try {
+                    results.put(methods.get(i), futures.get(i).get());
+                } catch (ExecutionException ex) {
+                    Logger.error(ex.getCause(), "Search for " + methods.get(i) + " failed.");
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
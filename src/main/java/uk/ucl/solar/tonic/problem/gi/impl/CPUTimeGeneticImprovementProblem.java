@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.problem.gi.impl;
+
+import gin.test.UnitTestResultSet;
+import org.pmw.tinylog.Logger;
+import uk.ucl.solar.tonic.problem.gi.GeneticImprovementProblem;
+import uk.ucl.solar.tonic.runner.MeasuredUnitTestResult;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Minimises the CPU time of the test threads instead of their wall-clock
+ * time, which is far less sensitive to other load on the host. CPU time is
+ * measured with {@link java.lang.management.ThreadMXBean} by Tonic's test
+ * workers, so they are always used.
+ *
+ * @author Giovani
+ */
+public class CPUTimeGeneticImprovementProblem extends GeneticImprovementProblem {
+
+    public CPUTimeGeneticImprovementProblem(String ginPropertiesPath) throws IOException {
+        super(ginPropertiesPath);
+        this.setUpCPUTime();
+    }
+
+    public CPUTimeGeneticImprovementProblem(Properties ginProperties) throws IOException {
+        super(ginProperties);
+        this.setUpCPUTime();
+    }
+
+    private void setUpCPUTime() {
+        this.setNumberOfObjectives(2);
+        this.setNumberOfVariables(-1);
+        this.setName("CPU Time Genetic Improvement Problem");
+        if (!this.workerPool) {
+            Logger.warn("CPU time is only measured by test workers, enabling workerPool.");
+            this.setWorkerPool(true);
+        }
+    }
+
+    @Override
+    public PatchSolution evaluate(PatchSolution solution) {
+        solution.setObjective(0, solution.getNumberOfVariables());
+
+        UnitTestResultSet results = runPatch(solution.getPatch());
+        double fitness = Double.MAX_VALUE;
+        if (results.getCleanCompile() && results.allTestsSuccessful()) {
+            fitness = MeasuredUnitTestResult.totalCpuTime(results) / 1000000D;
+        }
+        solution.setObjective(1, fitness);
+
+        this.fillSolutionAttributes(solution, results);
+        long cpuTime = MeasuredUnitTestResult.totalCpuTime(results);
+        long userTime = MeasuredUnitTestResult.totalUserTime(results);
+        solution.setAttribute("TotalCPUTime(ms)", cpuTime / 1000000D);
+        solution.setAttribute("UserCPUTime(ms)", userTime / 1000000D);
+        solution.setAttribute("SystemCPUTime(ms)", Math.max(0, cpuTime - userTime) / 1000000D);
+        return solution;
+    }
+
+}
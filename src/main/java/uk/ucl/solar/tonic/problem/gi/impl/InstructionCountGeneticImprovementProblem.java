@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.problem.gi.impl;
+
+import gin.test.UnitTestResultSet;
+import org.pmw.tinylog.Logger;
+import uk.ucl.solar.tonic.problem.gi.GeneticImprovementProblem;
+import uk.ucl.solar.tonic.runner.InstructionCountScope;
+import uk.ucl.solar.tonic.runner.MeasuredUnitTestResult;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Minimises the number of bytecode instructions executed by the tests, as a
+ * deterministic proxy of runtime. The test workers instrument the classes of
+ * {@link #getInstructionCountScope()}, by default only the patched ones, so
+ * they are always used. The count does not vary between runs, so every patch
+ * is tested only once.
+ *
+ * @author Giovani
+ */
+public class InstructionCountGeneticImprovementProblem extends GeneticImprovementProblem {
+
+    public InstructionCountGeneticImprovementProblem(String ginPropertiesPath) throws IOException {
+        super(ginPropertiesPath);
+        this.setUpInstructionCount();
+    }
+
+    public InstructionCountGeneticImprovementProblem(Properties ginProperties) throws IOException {
+        super(ginProperties);
+        this.setUpInstructionCount();
+    }
+
+    private void setUpInstructionCount() {
+        this.setNumberOfObjectives(2);
+        this.setNumberOfVariables(-1);
+        this.setName("Instruction Count Genetic Improvement Problem");
+        if (!this.workerPool) {
+            Logger.warn("Instructions are only counted by test workers, enabling workerPool.");
+            this.setWorkerPool(true);
+        }
+        if (this.instructionCountScope == InstructionCountScope.NONE) {
+            this.setInstructionCountScope(InstructionCountScope.PATCHED);
+        }
+        if (this.reps > 1) {
+            Logger.info("Instruction counts are deterministic, testing each patch only once instead of " + this.reps + " times.");
+            this.setReps(1);
+        }
+    }
+
+    @Override
+    public PatchSolution evaluate(PatchSolution solution) {
+        solution.setObjective(0, solution.getNumberOfVariables());
+
+        UnitTestResultSet results = runPatch(solution.getPatch());
+        long instructionCount = MeasuredUnitTestResult.totalInstructionCount(results);
+        double fitness = Double.MAX_VALUE;
+        if (results.getCleanCompile() && results.allTestsSuccessful()) {
+            fitness = instructionCount;
+        }
+        solution.setObjective(1, fitness);
+
+        this.fillSolutionAttributes(solution, results);
+        solution.setAttribute("InstructionCount", instructionCount);
+        return solution;
+    }
+
+}
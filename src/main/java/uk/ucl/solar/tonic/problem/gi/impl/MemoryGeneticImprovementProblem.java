@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.problem.gi.impl;
+
+import gin.test.UnitTestResultSet;
+import org.pmw.tinylog.Logger;
+import uk.ucl.solar.tonic.problem.gi.GeneticImprovementProblem;
+import uk.ucl.solar.tonic.runner.MeasuredUnitTestResult;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Minimises the memory used by the tests: the bytes allocated by the test
+ * threads and the peak heap occupancy while they run, both measured by
+ * Tonic's test workers, which are therefore always used. Workers collect
+ * garbage before each test, outside of its measurements, so that the peak
+ * does not include what earlier tests left behind. With memoryWithRuntime,
+ * runtime is minimised as a fourth objective.
+ *
+ * @author Giovani
+ */
+public class MemoryGeneticImprovementProblem extends GeneticImprovementProblem {
+
+    public MemoryGeneticImprovementProblem(String ginPropertiesPath) throws IOException {
+        super(ginPropertiesPath);
+        this.setUpMemory();
+    }
+
+    public MemoryGeneticImprovementProblem(Properties ginProperties) throws IOException {
+        super(ginProperties);
+        this.setUpMemory();
+    }
+
+    private void setUpMemory() {
+        this.setNumberOfObjectives(this.memoryWithRuntime ? 4 : 3);
+        this.setNumberOfVariables(-1);
+        this.setName("Memory Genetic Improvement Problem");
+        if (!this.workerPool) {
+            Logger.warn("Memory usage is only measured by test workers, enabling workerPool.");
+            this.setWorkerPool(true);
+        }
+        this.collectGarbage = true;
+    }
+
+    @Override
+    public PatchSolution evaluate(PatchSolution solution) {
+        solution.setObjective(0, solution.getNumberOfVariables());
+
+        UnitTestResultSet results = runPatch(solution.getPatch());
+        double allocatedMemory = MeasuredUnitTestResult.totalAllocatedBytes(results) / 1048576D;
+        double peakHeap = MeasuredUnitTestResult.maxPeakHeapBytes(results) / 1048576D;
+        double runtime = results.totalExecutionTime() / 1000000D;
+        boolean valid = results.getCleanCompile() && results.allTestsSuccessful();
+        solution.setObjective(1, valid ? allocatedMemory : Double.MAX_VALUE);
+        solution.setObjective(2, valid ? peakHeap : Double.MAX_VALUE);
+        if (this.memoryWithRuntime) {
+            solution.setObjective(3, valid ? runtime : Double.MAX_VALUE);
+        }
+
+        this.fillSolutionAttributes(solution, results);
+        solution.setAttribute("AllocatedMemory(MB)", allocatedMemory);
+        solution.setAttribute("PeakHeap(MB)", peakHeap);
+        return solution;
+    }
+
+}
@@ -15,12 +15,23 @@
  */
 package uk.ucl.solar.tonic.problem.gi.impl;
 
+import gin.Patch;
+import gin.test.UnitTest;
+import gin.test.UnitTestResult;
 import gin.test.UnitTestResultSet;
+import org.apache.commons.lang3.Validate;
+import org.pmw.tinylog.Logger;
 import uk.ucl.solar.tonic.problem.gi.GeneticImprovementProblem;
+import uk.ucl.solar.tonic.runner.TestOutcome;
 import uk.ucl.solar.tonic.solution.PatchSolution;
+import uk.ucl.solar.tonic.statistics.MannWhitneyUTest;
+import uk.ucl.solar.tonic.surrogate.Prediction;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.TreeMap;
 
 /**
  * @author Giovani
@@ -45,15 +56,141 @@ public class RuntimeGeneticImprovementProblem extends GeneticImprovementProblem
     public PatchSolution evaluate(PatchSolution solution) {
         solution.setObjective(0, solution.getNumberOfVariables());
 
-        UnitTestResultSet results = runPatch(solution.getPatch());
+        Patch patch = solution.getPatch();
+        UnitTestResultSet originalResults = this.getOriginalProgramResults();
+        boolean screened = this.surrogateModel != null && patch.size() > 0 && originalResults != null;
+        Prediction prediction = null;
+        if (screened) {
+            prediction = this.surrogateModel.predict(patch);
+            boolean rejected = prediction.isRejected(this.surrogateValidThreshold, this.surrogateRuntimeThreshold);
+            if (rejected && !this.surrogateModel.explore(this.surrogateExplorationRate)) {
+                Logger.debug("Surrogate rejected patch (" + prediction + "): " + patch);
+                this.surrogateModel.recordSkipped();
+                solution.setObjective(1, Double.MAX_VALUE);
+                this.fillUntestedSolutionAttributes(solution);
+                solution.setAttribute("Reps", "");
+                solution.setAttribute("RuntimeCutoff", "");
+                solution.setAttribute("SurrogateSkipped", true);
+                return solution;
+            }
+        }
+
+        UnitTestResultSet results = runPatch(patch);
         double fitness = Double.MAX_VALUE;
         if (results.getCleanCompile() && results.allTestsSuccessful()) {
             fitness = (results.totalExecutionTime() / 1000000D);
+            // Patches are measured a varying number of times, so their
+            // fitness is the runtime of a single repetition
+            if (this.adaptiveReps) {
+                fitness /= repetitionTimes(results).length;
+            }
         }
         solution.setObjective(1, fitness);
 
         this.fillSolutionAttributes(solution, results);
+        if (this.adaptiveReps) {
+            solution.setAttribute("Reps", repetitionTimes(results).length);
+        }
+        if (this.runtimeCutoff) {
+            solution.setAttribute("RuntimeCutoff", results.getResults().stream()
+                    .anyMatch(result -> TestOutcome.BUDGET_EXCEEDED.equals(result.getExceptionType())));
+        }
+        if (screened) {
+            // Failures of the test runner say nothing about the patch
+            if (!isFailedEvaluation(results)) {
+                boolean compiled = results.getCleanCompile();
+                boolean passed = compiled && results.allTestsSuccessful();
+                double runtimeRatio = passed ? meanRepetitionTime(results) / meanRepetitionTime(originalResults) : Double.NaN;
+                boolean rejected = !passed || runtimeRatio > this.surrogateRuntimeThreshold;
+                // Only predictions that could have skipped a patch count
+                if (prediction.isInformed()) {
+                    this.surrogateModel.recordOutcome(prediction.isRejected(this.surrogateValidThreshold, this.surrogateRuntimeThreshold), rejected);
+                }
+                this.surrogateModel.update(patch, compiled, passed, runtimeRatio);
+            }
+            solution.setAttribute("SurrogateSkipped", false);
+        }
         return solution;
     }
 
+    /**
+     * In adaptive mode, races the patch against the original program: it is
+     * run {@link #getMinReps()} times and then once more at a time, until the
+     * Mann-Whitney U test tells both runtime distributions apart at
+     * {@link #getRacingAlpha()}, or until {@link #getMaxReps()} is reached.
+     * The original program itself is always run {@link #getMaxReps()} times.
+     * <p>
+     * With runtime cutoff, a patch stops being tested once it has taken
+     * {@link #getRuntimeCutoffFactor()} times as long as the original program
+     * would for the same repetitions, and is then treated as failed.
+     */
+    @Override
+    protected UnitTestResultSet measurePatch(String targetClass, List<UnitTest> tests, Patch patch) {
+        UnitTestResultSet originalResults = this.getOriginalProgramResults();
+        // The original program is the reference of races and cutoffs, so it
+        // is always measured in full
+        if (originalResults == null) {
+            return this.adaptiveReps ? runTests(targetClass, tests, patch, this.maxReps) : super.measurePatch(targetClass, tests, patch);
+        }
+        long repetitionBudget = repetitionBudget(originalResults);
+        if (!this.adaptiveReps) {
+            Logger.debug("Testing patch: " + patch);
+            return runTests(targetClass, tests, patch, this.reps, repetitionBudget * this.reps);
+        }
+        Validate.isTrue(this.minReps <= this.maxReps, "minReps cannot be greater than maxReps.");
+        double[] originalTimes = repetitionTimes(originalResults);
+
+        List<UnitTestResult> results = new ArrayList<>();
+        UnitTestResultSet resultSet = runTests(targetClass, tests, patch, this.minReps, repetitionBudget * this.minReps);
+        int reps = 0;
+        while (true) {
+            for (UnitTestResult result : resultSet.getResults()) {
+                results.add(renumber(result, reps + result.getRepNumber()));
+            }
+            reps += repetitionTimes(resultSet).length;
+            // Broken patches are discarded whatever their runtime
+            if (!resultSet.getCleanCompile() || !resultSet.allTestsSuccessful() || reps >= this.maxReps) {
+                break;
+            }
+            double[] patchTimes = repetitionTimes(results);
+            if (MannWhitneyUTest.pValue(patchTimes, originalTimes) < this.racingAlpha) {
+                Logger.debug("Patch " + (MannWhitneyUTest.isSmaller(patchTimes, originalTimes) ? "faster" : "slower") + " than the original after " + reps + " reps: " + patch);
+                break;
+            }
+            resultSet = runTests(targetClass, tests, patch, 1, repetitionBudget);
+        }
+        return new UnitTestResultSet(resultSet.getPatch(), resultSet.getValidPatch(), resultSet.getEditsValid(), resultSet.getCleanCompile(), resultSet.getNoOp(), results);
+    }
+
+    /**
+     * @return the budget of one repetition in nanoseconds, or 0 if patches
+     * are not cut off
+     */
+    private long repetitionBudget(UnitTestResultSet originalResults) {
+        if (!this.runtimeCutoff || !originalResults.getCleanCompile() || !originalResults.allTestsSuccessful()) {
+            return 0;
+        }
+        int reps = repetitionTimes(originalResults).length;
+        return (long) (originalResults.totalExecutionTime() / (double) reps * this.runtimeCutoffFactor);
+    }
+
+    /**
+     * @return the total runtime of each repetition, in milliseconds
+     */
+    public static double[] repetitionTimes(UnitTestResultSet results) {
+        return repetitionTimes(results.getResults());
+    }
+
+    private static double meanRepetitionTime(UnitTestResultSet results) {
+        return results.totalExecutionTime() / (double) repetitionTimes(results).length;
+    }
+
+    private static double[] repetitionTimes(List<UnitTestResult> results) {
+        TreeMap<Integer, Double> times = new TreeMap<>();
+        for (UnitTestResult result : results) {
+            times.merge(result.getRepNumber(), result.getExecutionTime() / 1000000D, Double::sum);
+        }
+        return times.values().stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
 }
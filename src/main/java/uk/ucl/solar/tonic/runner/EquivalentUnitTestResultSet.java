@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import gin.Patch;
+import gin.test.UnitTestResultSet;
+
+import java.util.List;
+
+/**
+ * Results of a patch whose bytecode matched a variant measured before, and
+ * which were therefore taken from that variant instead of running the tests.
+ *
+ * @author Giovani
+ */
+public class EquivalentUnitTestResultSet extends UnitTestResultSet {
+
+    public EquivalentUnitTestResultSet(Patch patch, boolean validPatch, List<Boolean> editsValid, boolean noOp, UnitTestResultSet measured) {
+        super(patch, validPatch, editsValid, true, noOp, measured.getResults());
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
+import org.pmw.tinylog.Logger;
+import uk.ucl.solar.tonic.coverage.CoverageProbe;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the tests of a {@link TestRequest} with JUnit, in this JVM. Each request
+ * gets a fresh {@link PatchClassLoader}, and each test runs on its own thread
+ * so that it can be abandoned when it exceeds its timeout. If the request has a
+ * runtime budget, tests stop as soon as their accumulated time exceeds it.
+ * Besides wall-clock time, the CPU time of the test thread is measured when
+ * the JVM supports it, and so are the bytes it allocates and the peak heap
+ * occupancy while it runs. Threads the test starts itself are not accounted
+ * for. The peak heap occupancy includes whatever garbage earlier tests left,
+ * unless the request asks for garbage to be collected before each test,
+ * which is done before the test's measurements start.
+ *
+ * @author Giovani
+ */
+public class InProcessTestExecutor implements TestExecutor {
+
+    private static final long STOP_GRACE_PERIOD_MS = 100;
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS;
+
+    private static final List<MemoryPoolMXBean> HEAP_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .collect(Collectors.toList());
+
+    static {
+        if (THREADS.isCurrentThreadCpuTimeSupported() && !THREADS.isThreadCpuTimeEnabled()) {
+            THREADS.setThreadCpuTimeEnabled(true);
+        }
+        com.sun.management.ThreadMXBean allocations = null;
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            allocations = (com.sun.management.ThreadMXBean) THREADS;
+            if (!allocations.isThreadAllocatedMemorySupported()) {
+                allocations = null;
+            } else if (!allocations.isThreadAllocatedMemoryEnabled()) {
+                allocations.setThreadAllocatedMemoryEnabled(true);
+            }
+        }
+        ALLOCATIONS = allocations;
+    }
+
+    @Override
+    public TestResponse execute(TestRequest request) {
+        List<TestOutcome> outcomes = new ArrayList<>();
+        boolean tainted = false;
+        long budget = request.getBudgetNS();
+        long spent = 0;
+        try (PatchClassLoader classLoader = new PatchClassLoader(request.getClassPath(), request.getClasses(), getClass().getClassLoader(), request.getInstructionCountScope())) {
+            repetitions:
+            for (int rep = 0; rep < request.getReps(); rep++) {
+                for (int index = 0; index < request.getTests().size(); index++) {
+                    TestDescriptor test = request.getTests().get(index);
+                    long timeoutMS = test.getTimeoutMS();
+                    if (budget > 0) {
+                        // No test may run longer than what is left of the budget
+                        timeoutMS = Math.min(timeoutMS, TimeUnit.NANOSECONDS.toMillis(budget - spent) + 1);
+                    }
+                    TestOutcome outcome = new TestOutcome(index, rep);
+                    tainted |= !runTest(classLoader, test, timeoutMS, request.isCollectGarbage(), outcome);
+                    outcomes.add(outcome);
+                    spent += outcome.getExecutionTime();
+                    if (budget > 0 && spent > budget) {
+                        outcome.setPassed(false);
+                        outcome.setExceptionType(TestOutcome.BUDGET_EXCEEDED);
+                        outcome.setExceptionMessage("Runtime budget of " + TimeUnit.NANOSECONDS.toMillis(budget) + "ms exceeded.");
+                        break repetitions;
+                    }
+                    if (tainted || (request.isFailFast() && !outcome.isPassed())) {
+                        break repetitions;
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            Logger.warn(ex, "Could not close the class loader of the patched classes.");
+        }
+        return new TestResponse(outcomes, tainted);
+    }
+
+    /**
+     * @return false if the test timed out and its thread could not be stopped
+     */
+    private boolean runTest(ClassLoader classLoader, TestDescriptor test, long timeoutMS, boolean collectGarbage, TestOutcome outcome) {
+        TestThread testThread = new TestThread(classLoader, test, collectGarbage);
+        boolean timedOut = true;
+        testThread.start();
+        try {
+            testThread.join(timeoutMS);
+            timedOut = testThread.isAlive();
+            if (timedOut) {
+                testThread.interrupt();
+                testThread.join(STOP_GRACE_PERIOD_MS);
+            }
+        } catch (InterruptedException ex) {
+            testThread.interrupt();
+            Thread.currentThread().interrupt();
+        }
+
+        if (timedOut || !testThread.finished) {
+            outcome.setTimedOut(true);
+            outcome.setExecutionTime(timeoutMS * 1000000);
+            outcome.setExceptionType(TimeoutException.class.getName());
+            outcome.setExceptionMessage("Test timed out after " + timeoutMS + "ms.");
+        } else if (testThread.error != null) {
+            outcome.setExceptionType(testThread.error.getClass().getName());
+            outcome.setExceptionMessage(String.valueOf(testThread.error.getMessage()));
+        } else {
+            Result result = testThread.result;
+            outcome.setExecutionTime(testThread.executionTime);
+            outcome.setCpuTime(testThread.cpuTime);
+            outcome.setUserTime(testThread.userTime);
+            outcome.setAllocatedBytes(testThread.allocatedBytes);
+            outcome.setPeakHeapBytes(testThread.peakHeapBytes);
+            outcome.setInstructionCount(testThread.instructionCount);
+            outcome.setCoverageHits(testThread.coverageHits);
+            outcome.setPassed(result.wasSuccessful() && result.getRunCount() > 0);
+            if (!result.getFailures().isEmpty()) {
+                Failure failure = result.getFailures().get(0);
+                outcome.setExceptionType(failure.getException().getClass().getName());
+                outcome.setExceptionMessage(String.valueOf(failure.getMessage()));
+            }
+        }
+        return !testThread.isAlive();
+    }
+
+    private static class TestThread extends Thread {
+
+        private final ClassLoader classLoader;
+        private final TestDescriptor test;
+        private final boolean collectGarbage;
+        private volatile boolean finished = false;
+        private volatile Result result;
+        private volatile Throwable error;
+        private volatile long executionTime;
+        private volatile long cpuTime;
+        private volatile long userTime;
+        private volatile long allocatedBytes;
+        private volatile long peakHeapBytes;
+        private volatile long instructionCount;
+        private volatile long coverageHits;
+
+        TestThread(ClassLoader classLoader, TestDescriptor test, boolean collectGarbage) {
+            super("tonic-test-" + test);
+            this.classLoader = classLoader;
+            this.test = test;
+            this.collectGarbage = collectGarbage;
+            this.setDaemon(true);
+            this.setContextClassLoader(classLoader);
+        }
+
+        @Override
+        public void run() {
+            try {
+                Class<?> testClass = Class.forName(test.getClassName(), true, classLoader);
+                Request request = Request.method(testClass, test.getMethodName());
+                if (collectGarbage) {
+                    System.gc();
+                }
+                HEAP_POOLS.forEach(MemoryPoolMXBean::resetPeakUsage);
+                long allocatedStart = allocatedBytes();
+                InstructionCounter.reset();
+                CoverageProbe.reset();
+                long cpuStart = THREADS.getCurrentThreadCpuTime();
+                long userStart = THREADS.getCurrentThreadUserTime();
+                long start = System.nanoTime();
+                result = new JUnitCore().run(request);
+                executionTime = System.nanoTime() - start;
+                instructionCount = InstructionCounter.reset();
+                coverageHits = CoverageProbe.reset();
+                // Both are -1 if CPU time measurement is unsupported
+                if (cpuStart >= 0) {
+                    cpuTime = THREADS.getCurrentThreadCpuTime() - cpuStart;
+                    userTime = THREADS.getCurrentThreadUserTime() - userStart;
+                }
+                if (allocatedStart >= 0) {
+                    allocatedBytes = allocatedBytes() - allocatedStart;
+                }
+                // The sum of the pools' peaks bounds the peak of the whole heap
+                peakHeapBytes = HEAP_POOLS.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            } catch (ClassNotFoundException | LinkageError ex) {
+                error = ex;
+            }
+            finished = true;
+        }
+
+        /**
+         * @return bytes allocated by this thread so far, or -1 if unsupported
+         */
+        private long allocatedBytes() {
+            return ALLOCATIONS == null ? -1 : ALLOCATIONS.getThreadAllocatedBytes(getId());
+        }
+    }
+
+}
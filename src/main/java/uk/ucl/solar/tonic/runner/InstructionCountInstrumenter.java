@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.pmw.tinylog.Logger;
+
+/**
+ * Makes every basic block of a class report its number of instructions to
+ * {@link InstructionCounter} when it completes. Blocks end at labels, jumps,
+ * switches, returns and throws, so the count of a block is added right
+ * before control leaves it. Instructions of a block that is left by an
+ * exception are not counted, which keeps the count deterministic all the
+ * same.
+ *
+ * @author Giovani
+ */
+public class InstructionCountInstrumenter {
+
+    private static final String COUNTER = Type.getInternalName(InstructionCounter.class);
+
+    private InstructionCountInstrumenter() {
+    }
+
+    /**
+     * @return the instrumented class, or the class as is if it cannot be
+     * instrumented, e.g. because a method would grow beyond the JVM's limit
+     */
+    public static byte[] instrument(String className, byte[] bytes) {
+        try {
+            ClassReader reader = new ClassReader(bytes);
+            ClassWriter writer = new ClassWriter(reader, ClassWriter.COMPUTE_MAXS);
+            reader.accept(new CountingClassVisitor(writer), 0);
+            return writer.toByteArray();
+        } catch (RuntimeException ex) {
+            Logger.warn("Could not count the instructions of " + className + ": " + ex.getMessage());
+            return bytes;
+        }
+    }
+
+    private static class CountingClassVisitor extends ClassVisitor {
+
+        CountingClassVisitor(ClassVisitor classVisitor) {
+            super(Opcodes.ASM9, classVisitor);
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            return new CountingMethodVisitor(super.visitMethod(access, name, descriptor, signature, exceptions));
+        }
+    }
+
+    private static class CountingMethodVisitor extends MethodVisitor {
+
+        private int pending = 0;
+
+        CountingMethodVisitor(MethodVisitor methodVisitor) {
+            super(Opcodes.ASM9, methodVisitor);
+        }
+
+        private void flush() {
+            if (pending > 0) {
+                super.visitLdcInsn(pending);
+                super.visitMethodInsn(Opcodes.INVOKESTATIC, COUNTER, "add", "(I)V", false);
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void visitLabel(Label label) {
+            flush();
+            super.visitLabel(label);
+        }
+
+        @Override
+        public void visitInsn(int opcode) {
+            pending++;
+            if ((opcode >= Opcodes.IRETURN && opcode <= Opcodes.RETURN) || opcode == Opcodes.ATHROW) {
+                flush();
+            }
+            super.visitInsn(opcode);
+        }
+
+        @Override
+        public void visitIntInsn(int opcode, int operand) {
+            pending++;
+            super.visitIntInsn(opcode, operand);
+        }
+
+        @Override
+        public void visitVarInsn(int opcode, int var) {
+            pending++;
+            super.visitVarInsn(opcode, var);
+        }
+
+        @Override
+        public void visitTypeInsn(int opcode, String type) {
+            pending++;
+            super.visitTypeInsn(opcode, type);
+        }
+
+        @Override
+        public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+            pending++;
+            super.visitFieldInsn(opcode, owner, name, descriptor);
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+            pending++;
+            super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle, Object... bootstrapMethodArguments) {
+            pending++;
+            super.visitInvokeDynamicInsn(name, descriptor, bootstrapMethodHandle, bootstrapMethodArguments);
+        }
+
+        @Override
+        public void visitJumpInsn(int opcode, Label label) {
+            pending++;
+            flush();
+            super.visitJumpInsn(opcode, label);
+        }
+
+        @Override
+        public void visitLdcInsn(Object value) {
+            pending++;
+            super.visitLdcInsn(value);
+        }
+
+        @Override
+        public void visitIincInsn(int var, int increment) {
+            pending++;
+            super.visitIincInsn(var, increment);
+        }
+
+        @Override
+        public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+            pending++;
+            flush();
+            super.visitTableSwitchInsn(min, max, dflt, labels);
+        }
+
+        @Override
+        public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+            pending++;
+            flush();
+            super.visitLookupSwitchInsn(dflt, keys, labels);
+        }
+
+        @Override
+        public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+            pending++;
+            super.visitMultiANewArrayInsn(descriptor, numDimensions);
+        }
+    }
+
+}
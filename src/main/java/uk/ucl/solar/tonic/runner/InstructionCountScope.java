@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+/**
+ * Classes whose executed instructions are counted by the test workers.
+ *
+ * @author Giovani
+ */
+public enum InstructionCountScope {
+
+    /**
+     * Nothing is instrumented.
+     */
+    NONE,
+    /**
+     * Only the patched classes, i.e. the target method's source file.
+     */
+    PATCHED,
+    /**
+     * Every class loaded from the project's classpath, including the callees
+     * of the target method and the tests themselves.
+     */
+    PROJECT
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the bytecode instructions executed by the classes instrumented by
+ * {@link InstructionCountInstrumenter}. It is always loaded by Tonic's own
+ * class loader, so the counter is shared with the instrumented classes.
+ *
+ * @author Giovani
+ */
+public final class InstructionCounter {
+
+    private static final LongAdder INSTRUCTIONS = new LongAdder();
+
+    private InstructionCounter() {
+    }
+
+    public static void add(int instructions) {
+        INSTRUCTIONS.add(instructions);
+    }
+
+    /**
+     * @return the number of instructions executed since the last reset
+     */
+    public static long reset() {
+        return INSTRUCTIONS.sumThenReset();
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import gin.test.UnitTest;
+import gin.test.UnitTestResult;
+import gin.test.UnitTestResultSet;
+
+/**
+ * {@link UnitTestResult} that also carries the CPU time and memory usage of
+ * the test thread, as measured by Tonic's test workers. Gin's own runners do
+ * not measure them, so their results count as zero.
+ *
+ * @author Giovani
+ */
+public class MeasuredUnitTestResult extends UnitTestResult {
+
+    private long cpuTime = 0;
+    private long userTime = 0;
+    private long allocatedBytes = 0;
+    private long peakHeapBytes = 0;
+    private long instructionCount = 0;
+
+    public MeasuredUnitTestResult(UnitTest test, int rep) {
+        super(test, rep);
+    }
+
+    /**
+     * @return CPU time in nanoseconds, user and system
+     */
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    public void setCpuTime(long cpuTime) {
+        this.cpuTime = cpuTime;
+    }
+
+    /**
+     * @return CPU time in user mode, in nanoseconds
+     */
+    public long getUserTime() {
+        return userTime;
+    }
+
+    public void setUserTime(long userTime) {
+        this.userTime = userTime;
+    }
+
+    /**
+     * @return CPU time in system mode, in nanoseconds
+     */
+    public long getSystemTime() {
+        return Math.max(0, cpuTime - userTime);
+    }
+
+    /**
+     * @return bytes allocated by the test thread
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public void setAllocatedBytes(long allocatedBytes) {
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * @return peak heap occupancy while the test ran, in bytes
+     */
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    public void setPeakHeapBytes(long peakHeapBytes) {
+        this.peakHeapBytes = peakHeapBytes;
+    }
+
+    /**
+     * @return bytecode instructions executed by the instrumented classes
+     */
+    public long getInstructionCount() {
+        return instructionCount;
+    }
+
+    public void setInstructionCount(long instructionCount) {
+        this.instructionCount = instructionCount;
+    }
+
+    public static long cpuTimeOf(UnitTestResult result) {
+        return result instanceof MeasuredUnitTestResult ? ((MeasuredUnitTestResult) result).getCpuTime() : 0;
+    }
+
+    public static long userTimeOf(UnitTestResult result) {
+        return result instanceof MeasuredUnitTestResult ? ((MeasuredUnitTestResult) result).getUserTime() : 0;
+    }
+
+    public static long allocatedBytesOf(UnitTestResult result) {
+        return result instanceof MeasuredUnitTestResult ? ((MeasuredUnitTestResult) result).getAllocatedBytes() : 0;
+    }
+
+    public static long peakHeapBytesOf(UnitTestResult result) {
+        return result instanceof MeasuredUnitTestResult ? ((MeasuredUnitTestResult) result).getPeakHeapBytes() : 0;
+    }
+
+    public static long instructionCountOf(UnitTestResult result) {
+        return result instanceof MeasuredUnitTestResult ? ((MeasuredUnitTestResult) result).getInstructionCount() : 0;
+    }
+
+    public static long totalCpuTime(UnitTestResultSet results) {
+        return results.getResults().stream().mapToLong(MeasuredUnitTestResult::cpuTimeOf).sum();
+    }
+
+    public static long totalUserTime(UnitTestResultSet results) {
+        return results.getResults().stream().mapToLong(MeasuredUnitTestResult::userTimeOf).sum();
+    }
+
+    public static long totalAllocatedBytes(UnitTestResultSet results) {
+        return results.getResults().stream().mapToLong(MeasuredUnitTestResult::allocatedBytesOf).sum();
+    }
+
+    public static long totalInstructionCount(UnitTestResultSet results) {
+        return results.getResults().stream().mapToLong(MeasuredUnitTestResult::instructionCountOf).sum();
+    }
+
+    public static long maxPeakHeapBytes(UnitTestResultSet results) {
+        return results.getResults().stream().mapToLong(MeasuredUnitTestResult::peakHeapBytesOf).max().orElse(0);
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Child-first class loader over the project's classpath, which defines the
+ * patched classes from memory instead of loading them from the classpath.
+ * JUnit, the JDK and Tonic itself are always loaded by the parent, so tests
+ * loaded here can be run by the parent's JUnit. Depending on its
+ * {@link InstructionCountScope}, the classes it defines count their executed
+ * instructions.
+ *
+ * @author Giovani
+ */
+public class PatchClassLoader extends URLClassLoader {
+
+    private static final String[] PARENT_FIRST_PREFIXES = {
+            "java.", "javax.", "sun.", "com.sun.", "jdk.",
+            "org.junit.", "junit.", "org.hamcrest.",
+            "uk.ucl.solar.tonic."};
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private final Map<String, byte[]> patchedClasses;
+    private final InstructionCountScope instructionCountScope;
+
+    public PatchClassLoader(String classPath, Map<String, byte[]> patchedClasses, ClassLoader parent) {
+        this(classPath, patchedClasses, parent, InstructionCountScope.NONE);
+    }
+
+    public PatchClassLoader(String classPath, Map<String, byte[]> patchedClasses, ClassLoader parent, InstructionCountScope instructionCountScope) {
+        super(toURLs(classPath), parent);
+        this.patchedClasses = patchedClasses;
+        this.instructionCountScope = instructionCountScope;
+    }
+
+    public static URL[] toURLs(String classPath) {
+        List<URL> urls = new ArrayList<>();
+        if (classPath != null) {
+            for (String entry : classPath.split(File.pathSeparator)) {
+                if (!entry.isEmpty()) {
+                    try {
+                        urls.add(new File(entry).toURI().toURL());
+                    } catch (MalformedURLException ex) {
+                        throw new IllegalArgumentException("Invalid classpath entry: " + entry, ex);
+                    }
+                }
+            }
+        }
+        return urls.toArray(new URL[0]);
+    }
+
+    private static boolean isParentFirst(String name) {
+        for (String prefix : PARENT_FIRST_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (isParentFirst(name)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loadedClass = findLoadedClass(name);
+            if (loadedClass == null) {
+                try {
+                    loadedClass = findClass(name);
+                } catch (ClassNotFoundException ex) {
+                    loadedClass = super.loadClass(name, false);
+                }
+            }
+            if (resolve) {
+                resolveClass(loadedClass);
+            }
+            return loadedClass;
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] bytes = patchedClasses.get(name);
+        if (bytes != null) {
+            if (instructionCountScope != InstructionCountScope.NONE) {
+                bytes = InstructionCountInstrumenter.instrument(name, bytes);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+        if (instructionCountScope == InstructionCountScope.PROJECT) {
+            return findInstrumentedClass(name);
+        }
+        return super.findClass(name);
+    }
+
+    private Class<?> findInstrumentedClass(String name) throws ClassNotFoundException {
+        URL resource = findResource(name.replace('.', '/') + ".class");
+        if (resource == null) {
+            throw new ClassNotFoundException(name);
+        }
+        try (InputStream input = resource.openStream()) {
+            byte[] bytes = InstructionCountInstrumenter.instrument(name, IOUtils.toByteArray(input));
+            return defineClass(name, bytes, 0, bytes.length);
+        } catch (IOException ex) {
+            throw new ClassNotFoundException(name, ex);
+        }
+    }
+
+}
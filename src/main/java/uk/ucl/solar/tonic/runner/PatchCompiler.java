@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import org.pmw.tinylog.Logger;
+
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Compiles a (patched) source file in memory against the project's classpath.
+ *
+ * @author Giovani
+ */
+public class PatchCompiler {
+
+    private final String classPath;
+    private final boolean debugInfo;
+
+    public PatchCompiler(String classPath) {
+        this(classPath, true);
+    }
+
+    /**
+     * @param debugInfo whether to emit line numbers and source file names;
+     *                  without them, sources that differ only in layout
+     *                  compile to the same bytes
+     */
+    public PatchCompiler(String classPath, boolean debugInfo) {
+        this.classPath = classPath;
+        this.debugInfo = debugInfo;
+    }
+
+    public String getClassPath() {
+        return classPath;
+    }
+
+    public boolean isDebugInfo() {
+        return debugInfo;
+    }
+
+    /**
+     * @return a SHA-256 digest of the classes, independent of map ordering
+     */
+    public static String digest(Map<String, byte[]> classes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String className : new TreeSet<>(classes.keySet())) {
+                digest.update(className.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(classes.get(className));
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available.", ex);
+        }
+    }
+
+    /**
+     * @param className fully qualified name of the top level class in the
+     *                  source
+     * @param source    the source code
+     * @return the bytes of every class produced, indexed by binary name, or
+     * null if the source does not compile
+     */
+    public Map<String, byte[]> compile(String className, String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No system Java compiler found. Make sure Tonic runs on a JDK.");
+        }
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> options = new ArrayList<>(Arrays.asList("-proc:none", "-nowarn"));
+        if (!debugInfo) {
+            options.add("-g:none");
+        }
+        if (classPath != null) {
+            options.add("-classpath");
+            options.add(classPath);
+        }
+        JavaFileObject sourceObject = new SourceObject(className, source);
+        try (InMemoryFileManager fileManager = new InMemoryFileManager(compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8))) {
+            Boolean compiled = compiler.getTask(null, fileManager, diagnostics, options, null, Collections.singletonList(sourceObject)).call();
+            if (!Boolean.TRUE.equals(compiled)) {
+                Logger.debug("Compilation of " + className + " failed: " + diagnostics.getDiagnostics());
+                return null;
+            }
+            return fileManager.getClasses();
+        } catch (IOException ex) {
+            Logger.error(ex, "Could not release the compiler's file manager.");
+            return null;
+        }
+    }
+
+    private static class SourceObject extends SimpleJavaFileObject {
+
+        private final String source;
+
+        SourceObject(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+
+    private static class ClassObject extends SimpleJavaFileObject {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        ClassObject(String className) {
+            super(URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return bytes;
+        }
+
+        byte[] getBytes() {
+            return bytes.toByteArray();
+        }
+    }
+
+    private static class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private final Map<String, ClassObject> classes = new LinkedHashMap<>();
+
+        InMemoryFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+            ClassObject classObject = new ClassObject(className);
+            classes.put(className, classObject);
+            return classObject;
+        }
+
+        Map<String, byte[]> getClasses() {
+            Map<String, byte[]> compiled = new LinkedHashMap<>();
+            classes.forEach((name, classObject) -> compiled.put(name, classObject.getBytes()));
+            return compiled;
+        }
+    }
+
+}
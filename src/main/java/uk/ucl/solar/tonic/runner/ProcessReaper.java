@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import org.apache.commons.io.FileUtils;
+import org.pmw.tinylog.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the child JVMs Tonic starts and of their scratch
+ * directories, so that none of them outlives the search. Live children are
+ * destroyed by a shutdown hook. Scratch directories are locked by the JVM
+ * that created them, so the directories of a JVM that crashed, and could not
+ * run its hook, can be told apart and deleted by the next run.
+ *
+ * @author Giovani
+ */
+public final class ProcessReaper {
+
+    private static final String LOCK_FILE_NAME = ".lock";
+
+    private static final Map<Process, File> CHILDREN = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ProcessReaper::reapAll, "tonic-process-reaper"));
+    }
+
+    private ProcessReaper() {
+    }
+
+    /**
+     * Locks the directory for as long as this JVM lives or until the lock is
+     * released.
+     */
+    public static FileLock lock(File directory) throws IOException {
+        FileChannel channel = FileChannel.open(new File(directory, LOCK_FILE_NAME).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock = null;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            // Already locked by this JVM
+        } finally {
+            if (lock == null) {
+                channel.close();
+            }
+        }
+        if (lock == null) {
+            throw new IOException("Directory already locked: " + directory);
+        }
+        return lock;
+    }
+
+    public static void register(Process process, File scratchDirectory) {
+        CHILDREN.put(process, scratchDirectory);
+    }
+
+    public static void unregister(Process process) {
+        CHILDREN.remove(process);
+    }
+
+    /**
+     * @return the number of child JVMs still registered
+     */
+    public static int getLiveChildren() {
+        return CHILDREN.size();
+    }
+
+    /**
+     * Deletes the directories with the given prefix in the temporary directory
+     * that have a lock file nobody holds, i.e. whose JVM is gone.
+     *
+     * @return the number of directories deleted
+     */
+    public static int sweepStaleDirectories(String prefix) {
+        File[] directories = new File(System.getProperty("java.io.tmpdir")).listFiles(file -> file.isDirectory() && file.getName().startsWith(prefix));
+        int deleted = 0;
+        if (directories == null) {
+            return deleted;
+        }
+        for (File directory : directories) {
+            File lockFile = new File(directory, LOCK_FILE_NAME);
+            if (!lockFile.isFile()) {
+                continue;
+            }
+            boolean stale = false;
+            try (FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.WRITE)) {
+                FileLock lock = channel.tryLock();
+                if (lock != null) {
+                    lock.release();
+                    stale = true;
+                }
+            } catch (IOException | OverlappingFileLockException ex) {
+                // Locked by this JVM or unreadable, either way not stale
+                Logger.trace(ex);
+            }
+            if (stale && FileUtils.deleteQuietly(directory)) {
+                Logger.info("Deleted the scratch directory of a previous run: " + directory);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private static void reapAll() {
+        for (Map.Entry<Process, File> child : CHILDREN.entrySet()) {
+            child.getKey().destroyForcibly();
+            FileUtils.deleteQuietly(child.getValue());
+        }
+        CHILDREN.clear();
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * A single {@link WorkerProcess}, started on first use and replaced whenever a
+ * test leaves it unusable, e.g. for the patches of one batch.
+ *
+ * @author Giovani
+ */
+public class RestartingWorker implements TestExecutor, Closeable {
+
+    private WorkerProcess worker = null;
+
+    @Override
+    public synchronized TestResponse execute(TestRequest request) throws IOException {
+        if (worker == null || worker.isBroken()) {
+            if (worker != null) {
+                worker.close();
+            }
+            worker = WorkerProcess.start();
+        }
+        return worker.execute(request);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (worker != null) {
+            worker.close();
+            worker = null;
+        }
+    }
+
+}
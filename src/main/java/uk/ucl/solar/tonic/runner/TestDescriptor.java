@@ -0,0 +1,56 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import java.io.Serializable;
+
+/**
+ * A single unit test, as sent to a test worker.
+ *
+ * @author Giovani
+ */
+public class TestDescriptor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String className;
+    private final String methodName;
+    private final long timeoutMS;
+
+    public TestDescriptor(String className, String methodName, long timeoutMS) {
+        this.className = className;
+        this.methodName = methodName;
+        this.timeoutMS = timeoutMS;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public long getTimeoutMS() {
+        return timeoutMS;
+    }
+
+    @Override
+    public String toString() {
+        return className + "." + methodName;
+    }
+
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import java.io.IOException;
+
+/**
+ * Runs the tests described by a {@link TestRequest}, in this JVM or elsewhere.
+ *
+ * @author Giovani
+ */
+public interface TestExecutor {
+
+    TestResponse execute(TestRequest request) throws IOException, InterruptedException;
+
+}
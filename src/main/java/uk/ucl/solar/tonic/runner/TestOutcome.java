@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import java.io.Serializable;
+
+/**
+ * Result of one repetition of one test, as measured by a test worker.
+ *
+ * @author Giovani
+ */
+public class TestOutcome implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Exception type reported for the test during which the runtime budget of
+     * the request ran out.
+     */
+    public static final String BUDGET_EXCEEDED = "RuntimeBudgetExceeded";
+
+    /**
+     * Exception type reported for every test of a patch whose evaluation kept
+     * failing, e.g. because no test JVM could be started.
+     */
+    public static final String EVALUATION_FAILED = "EvaluationFailed";
+
+    private final int testIndex;
+    private final int rep;
+    private boolean passed = false;
+    private boolean timedOut = false;
+    private long executionTime = 0;
+    private long cpuTime = 0;
+    private long userTime = 0;
+    private long allocatedBytes = 0;
+    private long peakHeapBytes = 0;
+    private long instructionCount = 0;
+    private long coverageHits = 0;
+    private String exceptionType = "N/A";
+    private String exceptionMessage = "N/A";
+
+    public TestOutcome(int testIndex, int rep) {
+        this.testIndex = testIndex;
+        this.rep = rep;
+    }
+
+    /**
+     * @return the position of the test in {@link TestRequest#getTests()}
+     */
+    public int getTestIndex() {
+        return testIndex;
+    }
+
+    public int getRep() {
+        return rep;
+    }
+
+    public boolean isPassed() {
+        return passed;
+    }
+
+    public void setPassed(boolean passed) {
+        this.passed = passed;
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public void setTimedOut(boolean timedOut) {
+        this.timedOut = timedOut;
+    }
+
+    /**
+     * @return wall-clock time in nanoseconds
+     */
+    public long getExecutionTime() {
+        return executionTime;
+    }
+
+    public void setExecutionTime(long executionTime) {
+        this.executionTime = executionTime;
+    }
+
+    /**
+     * @return CPU time of the test thread in nanoseconds, user and system
+     */
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    public void setCpuTime(long cpuTime) {
+        this.cpuTime = cpuTime;
+    }
+
+    /**
+     * @return CPU time of the test thread in user mode, in nanoseconds
+     */
+    public long getUserTime() {
+        return userTime;
+    }
+
+    public void setUserTime(long userTime) {
+        this.userTime = userTime;
+    }
+
+    /**
+     * @return bytes allocated by the test thread
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public void setAllocatedBytes(long allocatedBytes) {
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * @return peak heap occupancy of the worker while the test ran, in bytes
+     */
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    public void setPeakHeapBytes(long peakHeapBytes) {
+        this.peakHeapBytes = peakHeapBytes;
+    }
+
+    /**
+     * @return bytecode instructions executed by the instrumented classes, see
+     * {@link TestRequest#getInstructionCountScope()}
+     */
+    public long getInstructionCount() {
+        return instructionCount;
+    }
+
+    public void setInstructionCount(long instructionCount) {
+        this.instructionCount = instructionCount;
+    }
+
+    /**
+     * @return entries into the methods instrumented with
+     * {@link uk.ucl.solar.tonic.coverage.CoverageProbe}s
+     */
+    public long getCoverageHits() {
+        return coverageHits;
+    }
+
+    public void setCoverageHits(long coverageHits) {
+        this.coverageHits = coverageHits;
+    }
+
+    public String getExceptionType() {
+        return exceptionType;
+    }
+
+    public void setExceptionType(String exceptionType) {
+        this.exceptionType = exceptionType;
+    }
+
+    public String getExceptionMessage() {
+        return exceptionMessage;
+    }
+
+    public void setExceptionMessage(String exceptionMessage) {
+        this.exceptionMessage = exceptionMessage;
+    }
+
+}
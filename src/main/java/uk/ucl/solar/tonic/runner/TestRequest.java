@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything a test worker needs to run the tests of a patched class: the
+ * compiled bytes of the patched class (and its nested classes), the project's
+ * classpath and the tests to run.
+ *
+ * @author Giovani
+ */
+public class TestRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String targetClass;
+    private final String classPath;
+    private final Map<String, byte[]> classes;
+    private final List<TestDescriptor> tests;
+    private final int reps;
+    private final boolean failFast;
+    private final long budgetNS;
+    private final InstructionCountScope instructionCountScope;
+    private final boolean collectGarbage;
+
+    public TestRequest(String targetClass, String classPath, Map<String, byte[]> classes, List<TestDescriptor> tests, int reps, boolean failFast) {
+        this(targetClass, classPath, classes, tests, reps, failFast, 0);
+    }
+
+    /**
+     * @param budgetNS total test execution time after which the remaining
+     * tests are not run, or 0 for no limit
+     */
+    public TestRequest(String targetClass, String classPath, Map<String, byte[]> classes, List<TestDescriptor> tests, int reps, boolean failFast, long budgetNS) {
+        this(targetClass, classPath, classes, tests, reps, failFast, budgetNS, InstructionCountScope.NONE);
+    }
+
+    /**
+     * @param instructionCountScope classes whose executed instructions are
+     * counted
+     */
+    public TestRequest(String targetClass, String classPath, Map<String, byte[]> classes, List<TestDescriptor> tests, int reps, boolean failFast, long budgetNS, InstructionCountScope instructionCountScope) {
+        this(targetClass, classPath, classes, tests, reps, failFast, budgetNS, instructionCountScope, false);
+    }
+
+    /**
+     * @param collectGarbage whether to collect garbage before each test, so
+     * that its peak heap occupancy does not depend on what ran before it
+     */
+    public TestRequest(String targetClass, String classPath, Map<String, byte[]> classes, List<TestDescriptor> tests, int reps, boolean failFast, long budgetNS, InstructionCountScope instructionCountScope, boolean collectGarbage) {
+        this.targetClass = targetClass;
+        this.classPath = classPath;
+        this.classes = classes;
+        this.tests = tests;
+        this.reps = reps;
+        this.failFast = failFast;
+        this.budgetNS = budgetNS;
+        this.instructionCountScope = instructionCountScope;
+        this.collectGarbage = collectGarbage;
+    }
+
+    public String getTargetClass() {
+        return targetClass;
+    }
+
+    public String getClassPath() {
+        return classPath;
+    }
+
+    public Map<String, byte[]> getClasses() {
+        return classes;
+    }
+
+    public List<TestDescriptor> getTests() {
+        return tests;
+    }
+
+    public int getReps() {
+        return reps;
+    }
+
+    public boolean isFailFast() {
+        return failFast;
+    }
+
+    public long getBudgetNS() {
+        return budgetNS;
+    }
+
+    public InstructionCountScope getInstructionCountScope() {
+        return instructionCountScope;
+    }
+
+    public boolean isCollectGarbage() {
+        return collectGarbage;
+    }
+
+    /**
+     * @return the longest this request may take, assuming every test hits its
+     * timeout
+     */
+    public long getMaximumDurationMS() {
+        long total = 0;
+        for (TestDescriptor test : tests) {
+            total += test.getTimeoutMS();
+        }
+        return total * reps;
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Outcomes of a {@link TestRequest}.
+ *
+ * @author Giovani
+ */
+public class TestResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<TestOutcome> outcomes;
+    private final boolean tainted;
+
+    public TestResponse(List<TestOutcome> outcomes, boolean tainted) {
+        this.outcomes = outcomes;
+        this.tainted = tainted;
+    }
+
+    public List<TestOutcome> getOutcomes() {
+        return outcomes;
+    }
+
+    /**
+     * @return true if a timed out test could not be stopped, in which case the
+     * JVM that ran it must not be reused
+     */
+    public boolean isTainted() {
+        return tainted;
+    }
+
+}
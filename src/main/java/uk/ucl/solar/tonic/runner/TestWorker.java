@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * Entry point of a test worker JVM. The worker connects back to the port given
+ * as its single argument, then answers {@link TestRequest}s with
+ * {@link TestResponse}s until the connection is closed.
+ *
+ * @author Giovani
+ */
+public class TestWorker {
+
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        if (args.length != 1) {
+            System.err.println("Usage: " + TestWorker.class.getName() + " <port>");
+            System.exit(1);
+        }
+        int port = Integer.parseInt(args[0]);
+        InProcessTestExecutor executor = new InProcessTestExecutor();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            ObjectOutputStream output = new ObjectOutputStream(socket.getOutputStream());
+            output.flush();
+            ObjectInputStream input = new ObjectInputStream(socket.getInputStream());
+            while (true) {
+                TestRequest request;
+                try {
+                    request = (TestRequest) input.readObject();
+                } catch (EOFException ex) {
+                    break;
+                }
+                TestResponse response = executor.execute(request);
+                output.writeObject(response);
+                // Forgets the objects already written, otherwise the stream
+                // keeps every response alive for the lifetime of the worker
+                output.reset();
+                output.flush();
+                if (response.isTainted()) {
+                    break;
+                }
+            }
+        } catch (IOException ex) {
+            // The coordinator is gone, so there is no one left to answer
+            System.err.println("Lost the connection to the coordinator: " + ex.getMessage());
+        }
+        // Tests may leave non-daemon threads behind
+        System.exit(0);
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import org.apache.commons.lang3.Validate;
+import org.pmw.tinylog.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of long-lived {@link WorkerProcess}es. Workers are started on demand,
+ * and are replaced after a given number of evaluations or as soon as they
+ * break, so that state leaking between evaluations stays bounded.
+ *
+ * @author Giovani
+ */
+public class WorkerPool implements TestExecutor, Closeable {
+
+    private final int size;
+    private final int maxEvaluations;
+    private final Semaphore permits;
+    private final BlockingQueue<WorkerProcess> idleWorkers = new LinkedBlockingQueue<>();
+    private final Set<WorkerProcess> workers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong startedWorkers = new AtomicLong();
+    private volatile boolean closed = false;
+
+    public WorkerPool(int size, int maxEvaluations) {
+        Validate.isTrue(size > 0, "The pool size must be greater than zero.");
+        Validate.isTrue(maxEvaluations > 0, "The maximum number of evaluations per worker must be greater than zero.");
+        this.size = size;
+        this.maxEvaluations = maxEvaluations;
+        this.permits = new Semaphore(size, true);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxEvaluations() {
+        return maxEvaluations;
+    }
+
+    /**
+     * @return how many worker JVMs were started so far
+     */
+    public long getStartedWorkers() {
+        return startedWorkers.get();
+    }
+
+    @Override
+    public TestResponse execute(TestRequest request) throws IOException, InterruptedException {
+        Validate.validState(!closed, "The worker pool is closed.");
+        permits.acquire();
+        WorkerProcess worker = null;
+        try {
+            worker = idleWorkers.poll();
+            if (worker != null && worker.isBroken()) {
+                retire(worker);
+                worker = null;
+            }
+            if (worker == null) {
+                worker = WorkerProcess.start();
+                workers.add(worker);
+                startedWorkers.incrementAndGet();
+            }
+            return worker.execute(request);
+        } finally {
+            if (worker != null) {
+                if (closed || worker.isBroken() || worker.getEvaluations() >= maxEvaluations) {
+                    retire(worker);
+                } else {
+                    idleWorkers.offer(worker);
+                }
+            }
+            permits.release();
+        }
+    }
+
+    private void retire(WorkerProcess worker) {
+        Logger.debug("Recycling test worker after " + worker.getEvaluations() + " evaluations.");
+        workers.remove(worker);
+        worker.close();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (WorkerProcess worker : workers) {
+            retire(worker);
+        }
+        idleWorkers.clear();
+    }
+
+}
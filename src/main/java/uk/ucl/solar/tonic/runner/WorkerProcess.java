@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import org.apache.commons.io.FileUtils;
+import org.pmw.tinylog.Logger;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinator-side handle of a {@link TestWorker} JVM. The worker runs in its
+ * own scratch directory, where its standard output and error are logged.
+ *
+ * @author Giovani
+ */
+public class WorkerProcess implements TestExecutor, Closeable {
+
+    private static final int CONNECT_TIMEOUT_MS = 60000;
+    private static final long RESPONSE_SLACK_MS = 60000;
+    private static final String LOG_FILE_NAME = "worker.log";
+    public static final String SCRATCH_DIRECTORY_PREFIX = "tonic-worker";
+
+    private final Process process;
+    private final Socket socket;
+    private final ObjectOutputStream output;
+    private final ObjectInputStream input;
+    private final File scratchDirectory;
+    private final FileLock scratchLock;
+    private int evaluations = 0;
+    private boolean broken = false;
+
+    private WorkerProcess(Process process, Socket socket, File scratchDirectory, FileLock scratchLock) throws IOException {
+        this.process = process;
+        this.socket = socket;
+        this.scratchDirectory = scratchDirectory;
+        this.scratchLock = scratchLock;
+        this.output = new ObjectOutputStream(socket.getOutputStream());
+        this.output.flush();
+        this.input = new ObjectInputStream(socket.getInputStream());
+    }
+
+    /**
+     * Forks a new worker JVM with the same classpath as this one and waits for
+     * it to connect. The worker is killed if this JVM exits first.
+     */
+    public static WorkerProcess start() throws IOException {
+        File scratchDirectory = Files.createTempDirectory(SCRATCH_DIRECTORY_PREFIX).toFile();
+        Process process = null;
+        FileLock scratchLock = null;
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(CONNECT_TIMEOUT_MS);
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            ProcessBuilder builder = new ProcessBuilder(java,
+                    "-cp", System.getProperty("java.class.path"),
+                    TestWorker.class.getName(),
+                    String.valueOf(server.getLocalPort()));
+            builder.directory(scratchDirectory);
+            builder.redirectErrorStream(true);
+            builder.redirectOutput(ProcessBuilder.Redirect.appendTo(new File(scratchDirectory, LOG_FILE_NAME)));
+            scratchLock = ProcessReaper.lock(scratchDirectory);
+            process = builder.start();
+            ProcessReaper.register(process, scratchDirectory);
+            Socket socket = server.accept();
+            return new WorkerProcess(process, socket, scratchDirectory, scratchLock);
+        } catch (IOException ex) {
+            if (process != null) {
+                process.destroyForcibly();
+                ProcessReaper.unregister(process);
+            }
+            release(scratchLock);
+            FileUtils.deleteQuietly(scratchDirectory);
+            throw ex;
+        }
+    }
+
+    @Override
+    public synchronized TestResponse execute(TestRequest request) throws IOException {
+        if (broken) {
+            throw new IOException("Worker is no longer usable.");
+        }
+        try {
+            // A worker that outlives every test timeout is considered hung
+            socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, request.getMaximumDurationMS() + RESPONSE_SLACK_MS));
+            output.writeObject(request);
+            output.reset();
+            output.flush();
+            TestResponse response = (TestResponse) input.readObject();
+            evaluations++;
+            broken = response.isTainted();
+            return response;
+        } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+            broken = true;
+            throw new IOException("Worker failed while running tests. See " + getLogFile() + " for details.", ex);
+        }
+    }
+
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * @return true if the worker crashed, hung, or left a test thread running
+     */
+    public boolean isBroken() {
+        return broken || !process.isAlive();
+    }
+
+    public File getScratchDirectory() {
+        return scratchDirectory;
+    }
+
+    public File getLogFile() {
+        return new File(scratchDirectory, LOG_FILE_NAME);
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            socket.close();
+        } catch (IOException ex) {
+            Logger.trace(ex);
+        }
+        try {
+            if (!process.waitFor(1, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException ex) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+        ProcessReaper.unregister(process);
+        release(scratchLock);
+        FileUtils.deleteQuietly(scratchDirectory);
+    }
+
+    private static void release(FileLock lock) {
+        if (lock != null) {
+            try {
+                lock.channel().close();
+            } catch (IOException ex) {
+                Logger.trace(ex);
+            }
+        }
+    }
+
+}
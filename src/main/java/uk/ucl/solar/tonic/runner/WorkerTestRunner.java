@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import gin.Patch;
+import gin.test.UnitTest;
+import gin.test.UnitTestResult;
+import gin.test.UnitTestResultSet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counterpart of Gin's test runners that compiles the patched class here and
+ * hands the bytes to a {@link TestExecutor}, typically a pool of warm worker
+ * JVMs.
+ *
+ * @author Giovani
+ */
+public class WorkerTestRunner {
+
+    private final String className;
+    private final String classPath;
+    private final List<UnitTest> tests;
+    private final boolean failFast;
+    private final TestExecutor executor;
+    private final InstructionCountScope instructionCountScope;
+    private final boolean collectGarbage;
+
+    public WorkerTestRunner(String className, String classPath, List<UnitTest> tests, boolean failFast, TestExecutor executor) {
+        this(className, classPath, tests, failFast, executor, InstructionCountScope.NONE);
+    }
+
+    public WorkerTestRunner(String className, String classPath, List<UnitTest> tests, boolean failFast, TestExecutor executor, InstructionCountScope instructionCountScope) {
+        this(className, classPath, tests, failFast, executor, instructionCountScope, false);
+    }
+
+    /**
+     * @param collectGarbage see {@link TestRequest#isCollectGarbage()}
+     */
+    public WorkerTestRunner(String className, String classPath, List<UnitTest> tests, boolean failFast, TestExecutor executor, InstructionCountScope instructionCountScope, boolean collectGarbage) {
+        this.className = className;
+        this.classPath = classPath;
+        this.tests = tests;
+        this.failFast = failFast;
+        this.executor = executor;
+        this.instructionCountScope = instructionCountScope;
+        this.collectGarbage = collectGarbage;
+    }
+
+    public UnitTestResultSet runTests(Patch patch, int reps) throws IOException, InterruptedException {
+        return runTests(patch, reps, 0);
+    }
+
+    /**
+     * @param budgetNS total test execution time after which the remaining
+     * tests are not run, or 0 for no limit
+     */
+    public UnitTestResultSet runTests(Patch patch, int reps, long budgetNS) throws IOException, InterruptedException {
+        return runTests(patch, null, reps, budgetNS);
+    }
+
+    /**
+     * @param classes the patched classes if they were compiled beforehand, or
+     * null to compile them here
+     */
+    public UnitTestResultSet runTests(Patch patch, Map<String, byte[]> classes, int reps, long budgetNS) throws IOException, InterruptedException {
+        String patchedSource = patch.apply();
+        boolean validPatch = patch.lastApplyWasValid();
+        List<Boolean> editsValid = patch.getEditsInvalidOnLastApply();
+        boolean noOp = patch.getSourceFile().toString().equals(patchedSource);
+
+        if (!validPatch) {
+            classes = null;
+        } else if (classes == null) {
+            classes = new PatchCompiler(classPath).compile(className, patchedSource);
+        }
+        if (classes == null) {
+            return new UnitTestResultSet(patch, validPatch, editsValid, false, noOp, emptyResults(tests, reps));
+        }
+
+        TestResponse response = executor.execute(createRequest(classes, reps, budgetNS));
+        return new UnitTestResultSet(patch, validPatch, editsValid, true, noOp, toUnitTestResults(tests, response));
+    }
+
+    public TestRequest createRequest(Map<String, byte[]> classes, int reps, long budgetNS) {
+        return new TestRequest(className, classPath, classes, describe(tests), reps, failFast, budgetNS, instructionCountScope, collectGarbage);
+    }
+
+    public static List<TestDescriptor> describe(List<UnitTest> tests) {
+        List<TestDescriptor> descriptors = new ArrayList<>(tests.size());
+        for (UnitTest test : tests) {
+            descriptors.add(new TestDescriptor(test.getFullClassName(), test.getMethodName(), test.getTimeoutMS()));
+        }
+        return descriptors;
+    }
+
+    public static List<UnitTestResult> toUnitTestResults(List<UnitTest> tests, TestResponse response) {
+        List<UnitTestResult> results = new ArrayList<>(response.getOutcomes().size());
+        for (TestOutcome outcome : response.getOutcomes()) {
+            MeasuredUnitTestResult result = new MeasuredUnitTestResult(tests.get(outcome.getTestIndex()), outcome.getRep());
+            result.setPassed(outcome.isPassed());
+            result.setTimedOut(outcome.isTimedOut());
+            result.setExecutionTime(outcome.getExecutionTime());
+            result.setExceptionType(outcome.getExceptionType());
+            result.setExceptionMessage(outcome.getExceptionMessage());
+            result.setCpuTime(outcome.getCpuTime());
+            result.setUserTime(outcome.getUserTime());
+            result.setAllocatedBytes(outcome.getAllocatedBytes());
+            result.setPeakHeapBytes(outcome.getPeakHeapBytes());
+            result.setInstructionCount(outcome.getInstructionCount());
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * @return one failed result per test and repetition, as Gin reports for
+     * patches that do not compile
+     */
+    public static List<UnitTestResult> emptyResults(List<UnitTest> tests, int reps) {
+        List<UnitTestResult> results = new ArrayList<>(tests.size() * reps);
+        for (int rep = 0; rep < reps; rep++) {
+            for (UnitTest test : tests) {
+                results.add(new UnitTestResult(test, rep));
+            }
+        }
+        return results;
+    }
+
+}
@@ -20,30 +20,56 @@ import gin.SourceFile;
 import gin.edit.Edit;
 import org.uma.jmetal.solution.AbstractSolution;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 /**
+ * A solution holding a Gin {@link Patch}.
+ * <p>
+ * Copies are copy-on-write: a copy shares the patch and the attributes of
+ * its original until either of them changes them, so copying for crossover
+ * only allocates for the solutions that are actually modified. Only the
+ * methods that change the edits, and {@link #getVariables()}, which hands
+ * out the mutable edit list, give the solution its own copy first, and so
+ * do {@link #apply()} and {@link #writePatchedSourceToFile(String)}, as
+ * applying a patch records its validity on the instance. Evaluations apply
+ * a private copy of the patch for the same reason. Attributes are copied
+ * only when they are set; while they are shared, {@link #getAttributes()}
+ * returns a read-only view of them.
+ * <p>
+ * As the patch returned by {@link #getPatch()} may be shared, it is to be
+ * changed through this solution's methods only.
+ *
  * @author Giovani
  */
 public class PatchSolution extends AbstractSolution<Edit> {
 
     protected Patch patch;
+    private boolean patchShared = false;
+    private boolean attributesShared = false;
 
     /**
      * Constructor
      */
     protected PatchSolution(PatchSolution solution) {
         super(0, solution.getNumberOfObjectives(), solution.getNumberOfConstraints());
-        patch = solution.getPatch().clone();
+        synchronized (solution) {
+            patch = solution.patch;
+            this.attributes = solution.attributes;
+            solution.patchShared = true;
+            solution.attributesShared = true;
+        }
+        patchShared = true;
+        attributesShared = true;
         for (int i = 0; i < solution.getNumberOfObjectives(); i++) {
             this.setObjective(i, solution.getObjective(i));
         }
         for (int i = 0; i < solution.getNumberOfConstraints(); i++) {
             this.setConstraint(i, solution.getConstraint(i));
         }
-        this.attributes = new HashMap<>(solution.attributes);
     }
 
     /**
@@ -67,6 +93,29 @@ public class PatchSolution extends AbstractSolution<Edit> {
         return new PatchSolution(this);
     }
 
+    /**
+     * @return the patch, copied first if it is shared with another solution
+     */
+    protected synchronized Patch ownPatch() {
+        if (patchShared) {
+            patch = patch.clone();
+            patchShared = false;
+        }
+        return patch;
+    }
+
+    /**
+     * @return the attributes, copied first if they are shared with another
+     * solution
+     */
+    protected synchronized Map<Object, Object> ownAttributes() {
+        if (attributesShared) {
+            attributes = new HashMap<>(attributes);
+            attributesShared = false;
+        }
+        return attributes;
+    }
+
     @Override
     public int getNumberOfVariables() {
         return patch.getEdits().size();
@@ -74,7 +123,7 @@ public class PatchSolution extends AbstractSolution<Edit> {
 
     @Override
     public List<Edit> getVariables() {
-        return patch.getEdits();
+        return ownPatch().getEdits();
     }
 
     @Override
@@ -84,7 +133,21 @@ public class PatchSolution extends AbstractSolution<Edit> {
 
     @Override
     public void setVariable(int index, Edit value) {
-        patch.getEdits().set(index, value);
+        ownPatch().getEdits().set(index, value);
+    }
+
+    @Override
+    public void setAttribute(Object id, Object value) {
+        ownAttributes().put(id, value);
+    }
+
+    /**
+     * @return the attributes, read-only while they are shared with another
+     * solution, as they are then only copied once one is set
+     */
+    @Override
+    public synchronized Map<Object, Object> getAttributes() {
+        return attributesShared ? Collections.unmodifiableMap(attributes) : attributes;
     }
 
     public Patch getPatch() {
@@ -96,31 +159,31 @@ public class PatchSolution extends AbstractSolution<Edit> {
     }
 
     public void add(Edit edit) {
-        patch.add(edit);
+        ownPatch().add(edit);
     }
 
     public String apply() {
-        return patch.apply();
+        return ownPatch().apply();
     }
 
     public void addRandomEditOfClass(Random rng, Class<? extends Edit> allowableEditType) {
-        patch.addRandomEditOfClass(rng, allowableEditType);
+        ownPatch().addRandomEditOfClass(rng, allowableEditType);
     }
 
     public void addRandomEditOfClasses(Random rng, List<Class<? extends Edit>> allowableEditTypes) {
-        patch.addRandomEditOfClasses(rng, allowableEditTypes);
+        ownPatch().addRandomEditOfClasses(rng, allowableEditTypes);
     }
 
     public void addRandomEdit(Random rng, Edit.EditType allowableEditType) {
-        patch.addRandomEdit(rng, allowableEditType);
+        ownPatch().addRandomEdit(rng, allowableEditType);
     }
 
     public void addRandomEdit(Random rng, List<Edit.EditType> allowableEditTypes) {
-        patch.addRandomEdit(rng, allowableEditTypes);
+        ownPatch().addRandomEdit(rng, allowableEditTypes);
     }
 
     public void writePatchedSourceToFile(String filename) {
-        patch.writePatchedSourceToFile(filename);
+        ownPatch().writePatchedSourceToFile(filename);
     }
 
     public boolean isOnlyLineEdits() {
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.statistics;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.Arrays;
+
+/**
+ * Two-sided Mann-Whitney U test (Wilcoxon rank-sum) using the normal
+ * approximation with tie and continuity corrections.
+ *
+ * @author Giovani
+ */
+public final class MannWhitneyUTest {
+
+    private MannWhitneyUTest() {
+    }
+
+    /**
+     * @return the U statistic of the first sample, i.e. the number of pairs
+     * in which its value is the greater one, ties counting as one half
+     */
+    public static double u(double[] x, double[] y) {
+        Validate.isTrue(x.length > 0 && y.length > 0, "Both samples must have at least one value.");
+        double[] values = new double[x.length + y.length];
+        System.arraycopy(x, 0, values, 0, x.length);
+        System.arraycopy(y, 0, values, x.length, y.length);
+        double[] ranks = ranks(values);
+        double rankSum = 0;
+        for (int i = 0; i < x.length; i++) {
+            rankSum += ranks[i];
+        }
+        return rankSum - x.length * (x.length + 1) / 2.0;
+    }
+
+    /**
+     * @return the probability of observing samples at least this different if
+     * both came from the same distribution
+     */
+    public static double pValue(double[] x, double[] y) {
+        double n1 = x.length;
+        double n2 = y.length;
+        double n = n1 + n2;
+        double[] values = new double[x.length + y.length];
+        System.arraycopy(x, 0, values, 0, x.length);
+        System.arraycopy(y, 0, values, x.length, y.length);
+
+        double mean = n1 * n2 / 2.0;
+        double variance = n1 * n2 / 12.0 * ((n + 1) - tieCorrection(values) / (n * (n - 1)));
+        if (variance <= 0) {
+            // Every value is the same
+            return 1.0;
+        }
+        double z = Math.max(0, Math.abs(u(x, y) - mean) - 0.5) / Math.sqrt(variance);
+        return Math.min(1.0, erfc(z / Math.sqrt(2)));
+    }
+
+    /**
+     * @return true if the first sample tends to hold smaller values than the
+     * second one
+     */
+    public static boolean isSmaller(double[] x, double[] y) {
+        return u(x, y) < x.length * y.length / 2.0;
+    }
+
+    private static double[] ranks(double[] values) {
+        Integer[] order = new Integer[values.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        double[] ranks = new double[values.length];
+        int i = 0;
+        while (i < order.length) {
+            int j = i;
+            while (j + 1 < order.length && values[order[j + 1]] == values[order[i]]) {
+                j++;
+            }
+            // Tied values share the average of their ranks
+            double rank = (i + j) / 2.0 + 1;
+            for (int k = i; k <= j; k++) {
+                ranks[order[k]] = rank;
+            }
+            i = j + 1;
+        }
+        return ranks;
+    }
+
+    private static double tieCorrection(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double correction = 0;
+        int i = 0;
+        while (i < sorted.length) {
+            int j = i;
+            while (j + 1 < sorted.length && sorted[j + 1] == sorted[i]) {
+                j++;
+            }
+            double ties = j - i + 1;
+            correction += ties * ties * ties - ties;
+            i = j + 1;
+        }
+        return correction;
+    }
+
+    // Complementary error function, fractional error below 1.2e-7
+    private static double erfc(double z) {
+        double t = 1.0 / (1.0 + 0.5 * z);
+        return t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+    }
+
+}
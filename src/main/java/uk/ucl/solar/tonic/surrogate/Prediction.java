@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.surrogate;
+
+/**
+ * What a {@link SurrogateModel} expects of a patch before it is evaluated.
+ *
+ * @author Giovani
+ */
+public class Prediction {
+
+    private final double compileProbability;
+    private final double passProbability;
+    private final double runtimeRatio;
+    private final boolean informed;
+
+    public Prediction(double compileProbability, double passProbability, double runtimeRatio, boolean informed) {
+        this.compileProbability = compileProbability;
+        this.passProbability = passProbability;
+        this.runtimeRatio = runtimeRatio;
+        this.informed = informed;
+    }
+
+    public double getCompileProbability() {
+        return compileProbability;
+    }
+
+    /**
+     * @return probability of passing every test, given that the patch compiles
+     */
+    public double getPassProbability() {
+        return passProbability;
+    }
+
+    /**
+     * @return probability of compiling and passing every test
+     */
+    public double getValidProbability() {
+        return compileProbability * passProbability;
+    }
+
+    /**
+     * @return expected runtime relative to the original program, or NaN if
+     * no edit of the patch has been seen in a valid patch yet
+     */
+    public double getRuntimeRatio() {
+        return runtimeRatio;
+    }
+
+    /**
+     * @return false while the model has seen too few patches to be trusted
+     */
+    public boolean isInformed() {
+        return informed;
+    }
+
+    /**
+     * @return true if the model is informed and the patch is likely invalid,
+     * or likely slower than the original program by more than the given
+     * ratio; an uninformed model never rejects a patch, as its predictions
+     * rest on priors alone
+     */
+    public boolean isRejected(double validThreshold, double runtimeThreshold) {
+        return informed
+                && (getValidProbability() < validThreshold
+                || (!Double.isNaN(runtimeRatio) && runtimeRatio > runtimeThreshold));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("compile=%.3f pass=%.3f runtime=%.3f", compileProbability, passProbability, runtimeRatio);
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.surrogate;
+
+import gin.Patch;
+import gin.edit.Edit;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Online estimate of how a patch will fare, learnt from the patches evaluated
+ * so far. Each edit is described by its type and by its type at the location
+ * it changes; the location is preferred once it has been seen a few times.
+ * Edits are assumed to fail independently, so the probability of a patch
+ * compiling (and passing) is the product over its edits, which also accounts
+ * for patch size. The expected runtime is the mean of the runtimes observed
+ * for valid patches sharing its edits.
+ *
+ * @author Giovani
+ */
+public class SurrogateModel {
+
+    private static final int LOCATION_MIN_OBSERVATIONS = 3;
+    private static final Pattern LOCATION = Pattern.compile("\"?([^\"\\s]+)\"?:(\\d+)");
+
+    private final int minObservations;
+    private final Random random;
+    private final Map<String, Statistics> statistics = new HashMap<>();
+    private long observations = 0;
+    private long predictions = 0;
+    private long correctPredictions = 0;
+    private long skipped = 0;
+
+    /**
+     * @param minObservations number of evaluated patches below which
+     *                        predictions are not trusted
+     */
+    public SurrogateModel(int minObservations) {
+        this(minObservations, new Random());
+    }
+
+    /**
+     * @param minObservations number of evaluated patches below which
+     *                        predictions are not trusted
+     * @param random          generator for the exploration draws, kept apart
+     *                        from the search's so that screening does not
+     *                        change the patches the search creates
+     */
+    public SurrogateModel(int minObservations, Random random) {
+        Validate.isTrue(minObservations >= 0, "The minimum number of observations cannot be negative.");
+        Validate.notNull(random, "The random generator cannot be null.");
+        this.minObservations = minObservations;
+        this.random = random;
+    }
+
+    public static List<String> describe(Patch patch) {
+        List<String> edits = new ArrayList<>(patch.size());
+        for (Edit edit : patch.getEdits()) {
+            edits.add(edit.toString());
+        }
+        return edits;
+    }
+
+    /**
+     * @return the simple name of the edit class, e.g. {@code DeleteStatement}
+     */
+    static String typeOf(String edit) {
+        String type = edit.trim().split("\\s+")[0];
+        return type.contains(".") ? StringUtils.substringAfterLast(type, ".") : type;
+    }
+
+    /**
+     * @return the edit type plus the last location in the edit's description,
+     * which is where Gin's edits apply, or null if there is none
+     */
+    static String locationOf(String edit) {
+        Matcher matcher = LOCATION.matcher(edit);
+        String location = null;
+        while (matcher.find()) {
+            location = matcher.group(1) + ":" + matcher.group(2);
+        }
+        return location == null ? null : typeOf(edit) + "@" + location;
+    }
+
+    public synchronized Prediction predict(List<String> edits) {
+        double compileProbability = 1.0;
+        double passProbability = 1.0;
+        double runtimeRatioSum = 0;
+        int runtimeEdits = 0;
+        for (String edit : edits) {
+            Statistics editStatistics = statisticsOf(edit);
+            // Laplace smoothing: unseen edits are as likely to fail as not
+            compileProbability *= (editStatistics.compiled + 1.0) / (editStatistics.observations + 2.0);
+            passProbability *= (editStatistics.passed + 1.0) / (editStatistics.compiled + 2.0);
+            if (editStatistics.runtimeObservations > 0) {
+                runtimeRatioSum += editStatistics.runtimeRatioSum / editStatistics.runtimeObservations;
+                runtimeEdits++;
+            }
+        }
+        double runtimeRatio = runtimeEdits == 0 ? Double.NaN : runtimeRatioSum / runtimeEdits;
+        return new Prediction(compileProbability, passProbability, runtimeRatio, observations >= minObservations);
+    }
+
+    public Prediction predict(Patch patch) {
+        return predict(describe(patch));
+    }
+
+    /**
+     * @param explorationRate probability of evaluating a rejected patch anyway
+     * @return true if a rejected patch should be evaluated anyway
+     */
+    public synchronized boolean explore(double explorationRate) {
+        return random.nextDouble() < explorationRate;
+    }
+
+    /**
+     * Learns from an evaluated patch.
+     *
+     * @param runtimeRatio runtime relative to the original program, or NaN if
+     *                     the patch is invalid or the original is unknown
+     */
+    public synchronized void update(List<String> edits, boolean compiled, boolean passed, double runtimeRatio) {
+        observations++;
+        for (String edit : edits) {
+            List<String> keys = new ArrayList<>(2);
+            keys.add(typeOf(edit));
+            String location = locationOf(edit);
+            if (location != null) {
+                keys.add(location);
+            }
+            for (String key : keys) {
+                Statistics keyStatistics = statistics.computeIfAbsent(key, k -> new Statistics());
+                keyStatistics.observations++;
+                if (compiled) {
+                    keyStatistics.compiled++;
+                    if (passed) {
+                        keyStatistics.passed++;
+                        if (!Double.isNaN(runtimeRatio)) {
+                            keyStatistics.runtimeObservations++;
+                            keyStatistics.runtimeRatioSum += runtimeRatio;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public void update(Patch patch, boolean compiled, boolean passed, double runtimeRatio) {
+        update(describe(patch), compiled, passed, runtimeRatio);
+    }
+
+    /**
+     * Scores a prediction made for a patch that was evaluated anyway.
+     */
+    public synchronized void recordOutcome(boolean predictedRejected, boolean actuallyRejected) {
+        predictions++;
+        if (predictedRejected == actuallyRejected) {
+            correctPredictions++;
+        }
+    }
+
+    /**
+     * Counts a patch that was not evaluated because of a prediction.
+     */
+    public synchronized void recordSkipped() {
+        skipped++;
+    }
+
+    public synchronized long getObservations() {
+        return observations;
+    }
+
+    public synchronized long getPredictions() {
+        return predictions;
+    }
+
+    /**
+     * @return the fraction of predictions that matched the real evaluation
+     */
+    public synchronized double getAccuracy() {
+        return predictions == 0 ? 0.0 : (double) correctPredictions / predictions;
+    }
+
+    /**
+     * @return the number of evaluations saved
+     */
+    public synchronized long getSkipped() {
+        return skipped;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SurrogateModel{observations=" + observations + ", predictions=" + predictions
+                + ", accuracy=" + getAccuracy() + ", skipped=" + skipped + "}";
+    }
+
+    private Statistics statisticsOf(String edit) {
+        String location = locationOf(edit);
+        if (location != null) {
+            Statistics locationStatistics = statistics.get(location);
+            if (locationStatistics != null && locationStatistics.observations >= LOCATION_MIN_OBSERVATIONS) {
+                return locationStatistics;
+            }
+        }
+        return statistics.getOrDefault(typeOf(edit), Statistics.NONE);
+    }
+
+    private static class Statistics {
+
+        private static final Statistics NONE = new Statistics();
+
+        private long observations = 0;
+        private long compiled = 0;
+        private long passed = 0;
+        private long runtimeObservations = 0;
+        private double runtimeRatioSum = 0;
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.algorithm;
+
+import gin.SourceFileTree;
+import gin.edit.Edit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.uma.jmetal.util.pseudorandom.impl.JavaRandomGenerator;
+import uk.ucl.solar.tonic.distributed.WorkItem;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class SearchCheckpointTest {
+
+    private final static String verySmallExampleSourceFilename = "./unittests/Small.java";
+    private final static List<Edit.EditType> allowableEditTypesTree = Arrays.asList(Edit.EditType.STATEMENT, Edit.EditType.MODIFY_STATEMENT);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PatchSolution solution;
+
+    public SearchCheckpointTest() {
+    }
+
+    @Before
+    public void setUp() {
+        SourceFileTree sourceFileTree = new SourceFileTree(verySmallExampleSourceFilename, Collections.emptyList());
+        solution = new PatchSolution(2, sourceFileTree);
+        solution.getPatch().addRandomEdit(new Random(1234), allowableEditTypesTree);
+        solution.getPatch().addRandomEdit(new Random(4321), allowableEditTypesTree);
+        solution.setObjective(0, 2);
+        solution.setObjective(1, 12.5);
+        solution.setAttribute("NTests", 10);
+        solution.setAttribute("Patch", solution.getPatch().toString());
+        solution.setAttribute(new Object(), "dropped");
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Random problemRandom = new Random(1);
+        Random mutationRandom = new Random(2);
+        Random crossoverRandom = new Random(3);
+        problemRandom.nextInt();
+        SearchCheckpoint checkpoint = new SearchCheckpoint(7, 300, Collections.singletonList(solution),
+                problemRandom, mutationRandom, crossoverRandom, new JavaRandomGenerator(4));
+        File file = new File(folder.getRoot(), "checkpoints/checkpoint-7.ser");
+        checkpoint.write(file);
+
+        SearchCheckpoint restored = SearchCheckpoint.read(file);
+        assertNotNull(restored);
+        assertEquals(7, restored.getMethodID());
+        assertEquals(300, restored.getEvaluations());
+        assertEquals(1, restored.getPopulation().size());
+
+        SearchCheckpoint.SolutionState state = restored.getPopulation().get(0);
+        assertEquals(WorkItem.describe(solution.getPatch()), state.getEdits());
+        assertArrayEquals(new double[]{2, 12.5}, state.getObjectives(), 0.0);
+        assertEquals(10, state.getAttributes().get("NTests"));
+        assertEquals(solution.getPatch().toString(), state.getAttributes().get("Patch"));
+        assertEquals(2, state.getAttributes().size());
+
+        // Generators carry on from where they were saved
+        assertEquals(problemRandom.nextInt(), restored.getProblemRandom().nextInt());
+        assertEquals(mutationRandom.nextDouble(), restored.getMutationRandom().nextDouble(), 0.0);
+        assertEquals(crossoverRandom.nextDouble(), restored.getCrossoverRandom().nextDouble(), 0.0);
+        assertEquals(new JavaRandomGenerator(4).nextInt(0, 1000), restored.getJMetalRandom().nextInt(0, 1000));
+    }
+
+    @Test
+    public void testOverwrite() throws IOException {
+        File file = new File(folder.getRoot(), "checkpoint-1.ser");
+        new SearchCheckpoint(1, 100, Collections.singletonList(solution), new Random(), new Random(), new Random(), new JavaRandomGenerator()).write(file);
+        new SearchCheckpoint(1, 200, Collections.emptyList(), new Random(), new Random(), new Random(), new JavaRandomGenerator()).write(file);
+        assertEquals(200, SearchCheckpoint.read(file).getEvaluations());
+        assertEquals(1, folder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void testMissing() throws IOException {
+        assertNull(SearchCheckpoint.read(new File(folder.getRoot(), "missing.ser")));
+        assertNull(SearchCheckpoint.read(null));
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.base;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class SourceIndexTest {
+
+    private final File projectDir = FileUtils.getFile("./unittests/tempdir/project");
+
+    public SourceIndexTest() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        for (String path : new String[]{"Main.java", "a/b/C.java", "a/b/D.java", "a/E.java", "a/b/notes.txt",
+                ".git/x/F.java", "not-a-package/G.java", "a/b/package-info.java"}) {
+            FileUtils.writeStringToFile(FileUtils.getFile(projectDir, path), "", StandardCharsets.UTF_8);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(FileUtils.getFile("./unittests/tempdir"));
+    }
+
+    @Test
+    public void testFind() {
+        SourceIndex index = SourceIndex.build(projectDir, new ForkJoinPool(4));
+        assertEquals(4, index.size());
+        assertEquals(FileUtils.getFile(projectDir, "Main.java"), index.find("Main"));
+        assertEquals(FileUtils.getFile(projectDir, "a/b/C.java"), index.find("a.b.C"));
+        assertEquals(FileUtils.getFile(projectDir, "a/b/D.java"), index.find("a.b.D"));
+        assertEquals(FileUtils.getFile(projectDir, "a/E.java"), index.find("a.E"));
+        assertNull(index.find("C"));
+        assertNull(index.find("x.F"));
+        assertNull(index.find("a.b.Missing"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotADirectory() {
+        SourceIndex.build(FileUtils.getFile(projectDir, "Main.java"));
+    }
+
+}
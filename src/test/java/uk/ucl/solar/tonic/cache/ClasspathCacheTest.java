@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.cache;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class ClasspathCacheTest {
+
+    private final File tempDir = FileUtils.getFile("./unittests/tempdir");
+    private final File projectDir = FileUtils.getFile(tempDir, "project");
+    private final File jar = FileUtils.getFile(tempDir, "repository", "lib.jar");
+    private ClasspathCache cache;
+    private String classPath;
+
+    public ClasspathCacheTest() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        FileUtils.writeStringToFile(FileUtils.getFile(projectDir, "pom.xml"), "<project/>", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(FileUtils.getFile(projectDir, "module", "pom.xml"), "<project/>", StandardCharsets.UTF_8);
+        FileUtils.forceMkdir(FileUtils.getFile(projectDir, "target", "classes"));
+        FileUtils.writeStringToFile(jar, "jar", StandardCharsets.UTF_8);
+        classPath = FileUtils.getFile(projectDir, "target", "classes").getPath() + File.pathSeparator + jar.getPath();
+        cache = new ClasspathCache(FileUtils.getFile(tempDir, "cache"));
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(tempDir);
+    }
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        String fingerprint = ClasspathCache.fingerprint(projectDir, null);
+        assertNull(cache.get(projectDir, fingerprint));
+        cache.put(projectDir, fingerprint, classPath);
+        assertEquals(classPath, cache.get(projectDir, fingerprint));
+        assertEquals(classPath, new ClasspathCache(cache.getDirectory()).get(projectDir, fingerprint));
+        assertNull(cache.get(projectDir, "another fingerprint"));
+    }
+
+    @Test
+    public void testFingerprint() throws Exception {
+        String fingerprint = ClasspathCache.fingerprint(projectDir, null);
+        assertEquals(fingerprint, ClasspathCache.fingerprint(projectDir, null));
+        assertNotEquals(fingerprint, ClasspathCache.fingerprint(projectDir, FileUtils.getFile(tempDir, "maven")));
+
+        // Build outputs and sources do not matter
+        FileUtils.writeStringToFile(FileUtils.getFile(projectDir, "target", "classes", "META-INF", "pom.xml"), "<copy/>", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(FileUtils.getFile(projectDir, "src", "Main.java"), "class Main {}", StandardCharsets.UTF_8);
+        assertEquals(fingerprint, ClasspathCache.fingerprint(projectDir, null));
+
+        FileUtils.writeStringToFile(FileUtils.getFile(projectDir, "module", "pom.xml"), "<project></project>", StandardCharsets.UTF_8);
+        assertNotEquals(fingerprint, ClasspathCache.fingerprint(projectDir, null));
+    }
+
+    @Test
+    public void testRepositoryChanged() throws Exception {
+        String fingerprint = ClasspathCache.fingerprint(projectDir, null);
+        cache.put(projectDir, fingerprint, classPath);
+
+        // The project's classes are rebuilt all the time
+        FileUtils.getFile(projectDir, "target", "classes").setLastModified(0);
+        assertEquals(classPath, cache.get(projectDir, fingerprint));
+
+        FileUtils.writeStringToFile(jar, "new jar", StandardCharsets.UTF_8);
+        assertNull(cache.get(projectDir, fingerprint));
+
+        cache.put(projectDir, fingerprint, classPath);
+        assertEquals(classPath, cache.get(projectDir, fingerprint));
+        FileUtils.deleteQuietly(jar);
+        assertNull(cache.get(projectDir, fingerprint));
+    }
+
+}
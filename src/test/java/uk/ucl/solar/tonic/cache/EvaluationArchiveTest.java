@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.cache;
+
+import gin.test.UnitTest;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ucl.solar.tonic.distributed.WorkResult;
+import uk.ucl.solar.tonic.runner.TestOutcome;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class EvaluationArchiveTest {
+
+    private final File archiveDir = FileUtils.getFile("./unittests/tempdir/archive");
+    private final List<UnitTest> tests = Arrays.asList(new UnitTest("SmallTest", "testA"), new UnitTest("SmallTest", "testB"));
+    private EvaluationArchive archive;
+
+    public EvaluationArchiveTest() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        archive = new EvaluationArchive(archiveDir, 1024 * 1024);
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(FileUtils.getFile("./unittests/tempdir"));
+    }
+
+    private static WorkResult createResult(long executionTime) {
+        TestOutcome outcome = new TestOutcome(1, 0);
+        outcome.setPassed(true);
+        outcome.setExecutionTime(executionTime);
+        return new WorkResult(0, true, Collections.singletonList(true), true, false, Collections.singletonList(outcome));
+    }
+
+    private String createKey(String edit) {
+        return EvaluationArchive.key("hash", "mode", new PatchFingerprint(1, Collections.singletonList(edit)), tests);
+    }
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        String key = createKey("edit");
+        assertNull(archive.get(key));
+        assertFalse(archive.contains(key));
+        archive.put(key, createResult(42));
+        assertTrue(archive.contains(key));
+        WorkResult result = archive.get(key);
+        assertNotNull(result);
+        assertEquals(1, result.getOutcomes().size());
+        assertEquals(1, result.getOutcomes().get(0).getTestIndex());
+        assertEquals(42, result.getOutcomes().get(0).getExecutionTime());
+        assertEquals(1, archive.getHits());
+        assertEquals(1, archive.getMisses());
+        assertEquals(1, archive.getWrites());
+    }
+
+    @Test
+    public void testSharedBetweenInstances() throws Exception {
+        archive.put(createKey("edit"), createResult(42));
+        EvaluationArchive other = new EvaluationArchive(archiveDir, 1024 * 1024);
+        assertNotNull(other.get(createKey("edit")));
+        assertTrue(other.getEstimatedBytes() > 0);
+    }
+
+    @Test
+    public void testKey() {
+        PatchFingerprint fingerprint = new PatchFingerprint(1, Collections.singletonList("edit"));
+        String key = EvaluationArchive.key("hash", "mode", fingerprint, tests);
+        assertEquals(key, EvaluationArchive.key("hash", "mode", new PatchFingerprint(1, Collections.singletonList(" edit ")), tests));
+        assertNotEquals(key, EvaluationArchive.key("hash2", "mode", fingerprint, tests));
+        assertNotEquals(key, EvaluationArchive.key("hash", "mode2", fingerprint, tests));
+        assertNotEquals(key, EvaluationArchive.key("hash", "mode", new PatchFingerprint(2, Collections.singletonList("edit")), tests));
+        assertNotEquals(key, EvaluationArchive.key("hash", "mode", new PatchFingerprint(1, Collections.emptyList()), tests));
+        assertNotEquals(key, EvaluationArchive.key("hash", "mode", fingerprint, tests.subList(0, 1)));
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        archive.put(createKey("edit0"), createResult(0));
+        long entrySize = archive.getEstimatedBytes();
+        archive = new EvaluationArchive(archiveDir, entrySize * 10);
+        for (int i = 1; i < 30; i++) {
+            archive.put(createKey("edit" + i), createResult(i));
+            // Keeps the first entry the most recently used
+            assertNotNull(archive.get(createKey("edit0")));
+            Thread.sleep(5);
+        }
+        assertTrue(archive.getEvictions() > 0);
+        assertTrue(archive.getEstimatedBytes() <= entrySize * 10);
+        assertTrue(archive.contains(createKey("edit0")));
+        assertFalse(archive.contains(createKey("edit1")));
+        assertTrue(archive.contains(createKey("edit29")));
+    }
+
+    @Test
+    public void testHashProject() throws Exception {
+        File project = FileUtils.getFile("./unittests/tempdir/project");
+        File source = FileUtils.getFile(project, "src", "Small.java");
+        FileUtils.writeStringToFile(source, "class Small {}", StandardCharsets.UTF_8);
+        String hash = EvaluationArchive.hashProject(project, "lib.jar");
+        assertEquals(hash, EvaluationArchive.hashProject(project, "lib.jar"));
+        assertNotEquals(hash, EvaluationArchive.hashProject(project, "lib2.jar"));
+        FileUtils.writeStringToFile(source, "class Small { }", StandardCharsets.UTF_8);
+        assertNotEquals(hash, EvaluationArchive.hashProject(project, "lib.jar"));
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.cache;
+
+import gin.Patch;
+import gin.SourceFileTree;
+import gin.edit.Edit;
+import gin.test.UnitTestResultSet;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ucl.solar.tonic.base.TargetMethod;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class EvaluationCacheTest {
+
+    private final static String verySmallExampleSourceFilename = "./unittests/Small.java";
+    private final static List<Edit.EditType> allowableEditTypesTree = Arrays.asList(Edit.EditType.STATEMENT, Edit.EditType.MODIFY_STATEMENT);
+
+    private SourceFileTree sourceFileTree;
+    private TargetMethod method;
+    private EvaluationCache cache;
+
+    public EvaluationCacheTest() {
+    }
+
+    @Before
+    public void setUp() {
+        sourceFileTree = new SourceFileTree(verySmallExampleSourceFilename, Collections.emptyList());
+        method = new TargetMethod(new File(verySmallExampleSourceFilename), "Small", "Small.Dummy()", new ArrayList<>(), 1);
+        cache = new EvaluationCache(2);
+    }
+
+    private Patch createPatch(long seed) {
+        Patch patch = new Patch(sourceFileTree);
+        patch.addRandomEdit(new Random(seed), allowableEditTypesTree);
+        return patch;
+    }
+
+    private UnitTestResultSet createResults(Patch patch) {
+        return new UnitTestResultSet(patch, true, new ArrayList<>(), true, false, new ArrayList<>());
+    }
+
+    @Test
+    public void testFingerprintOfEqualPatches() {
+        PatchFingerprint first = PatchFingerprint.of(method, createPatch(1234));
+        PatchFingerprint second = PatchFingerprint.of(method, createPatch(1234));
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(1, first.size());
+    }
+
+    @Test
+    public void testFingerprintOfDifferentMethods() {
+        TargetMethod otherMethod = new TargetMethod(new File(verySmallExampleSourceFilename), "Small", "Small.Dummy()", new ArrayList<>(), 2);
+        Patch patch = createPatch(1234);
+        assertNotEquals(PatchFingerprint.of(method, patch), PatchFingerprint.of(otherMethod, patch));
+    }
+
+    @Test
+    public void testFingerprintNormalisesWhitespace() {
+        PatchFingerprint first = new PatchFingerprint(1, Arrays.asList("gin.edit.modifynode.BinaryOperatorReplacement  unittests\\Small.java:29 OR -> EQUALS"));
+        PatchFingerprint second = new PatchFingerprint(1, Arrays.asList("gin.edit.modifynode.BinaryOperatorReplacement unittests/Small.java:29 OR -> EQUALS"));
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void testHitsAndMisses() {
+        Patch patch = createPatch(1234);
+        PatchFingerprint fingerprint = PatchFingerprint.of(method, patch);
+        assertNull(cache.get(fingerprint));
+        UnitTestResultSet results = createResults(patch);
+        cache.put(fingerprint, results);
+        assertSame(results, cache.get(PatchFingerprint.of(method, createPatch(1234))));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        PatchFingerprint first = new PatchFingerprint(1, Arrays.asList("A"));
+        PatchFingerprint second = new PatchFingerprint(1, Arrays.asList("B"));
+        PatchFingerprint third = new PatchFingerprint(1, Arrays.asList("C"));
+        cache.put(first, createResults(null));
+        cache.put(second, createResults(null));
+        // Touches the first entry so that the second becomes the eldest
+        assertNotNull(cache.get(first));
+        cache.put(third, createResults(null));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new EvaluationCache(0);
+    }
+
+}
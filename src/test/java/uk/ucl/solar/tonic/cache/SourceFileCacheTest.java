@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.cache;
+
+import gin.SourceFile;
+import gin.edit.Edit;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class SourceFileCacheTest {
+
+    private final static File verySmallExampleSource = new File("./unittests/Small.java");
+    private final static List<String> targetMethods = Collections.singletonList("Small.Dummy()");
+    private final static List<Class<? extends Edit>> editTypes = Edit.getEditClassesOfTypes(Arrays.asList(Edit.EditType.STATEMENT));
+
+    private final File tempDir = FileUtils.getFile("./unittests/tempdir");
+
+    private SourceFileCache cache;
+
+    public SourceFileCacheTest() {
+    }
+
+    @Before
+    public void setUp() {
+        cache = new SourceFileCache(2);
+    }
+
+    @After
+    public void tearDown() {
+        cache.shutdown();
+        FileUtils.deleteQuietly(tempDir);
+    }
+
+    @Test
+    public void testGetParsesOnce() {
+        SourceFile first = cache.get(editTypes, verySmallExampleSource, targetMethods);
+        SourceFile second = cache.get(editTypes, verySmallExampleSource, targetMethods);
+        assertSame(first, second);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testDifferentTargetMethods() {
+        SourceFile first = cache.get(editTypes, verySmallExampleSource, targetMethods);
+        SourceFile second = cache.get(editTypes, verySmallExampleSource, Collections.emptyList());
+        assertNotSame(first, second);
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testPrefetch() throws InterruptedException {
+        cache.prefetch(editTypes, verySmallExampleSource, targetMethods);
+        for (int i = 0; i < 100 && cache.size() == 0; i++) {
+            Thread.sleep(10);
+        }
+        SourceFile sourceFile = cache.get(editTypes, verySmallExampleSource, targetMethods);
+        assertNotNull(sourceFile);
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    public void testEviction() {
+        cache.get(editTypes, verySmallExampleSource, targetMethods);
+        cache.get(editTypes, verySmallExampleSource, Collections.emptyList());
+        cache.get(editTypes, verySmallExampleSource, Arrays.asList("Small.Dummy()", "Small.Other()"));
+        assertEquals(2, cache.size());
+        cache.get(editTypes, verySmallExampleSource, targetMethods);
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void testNewVersionDropsOldEntries() throws IOException {
+        File source = new File(tempDir, "Small.java");
+        FileUtils.copyFile(verySmallExampleSource, source);
+        SourceFile first = cache.get(editTypes, source, targetMethods);
+        assertSame(first, cache.get(editTypes, source, targetMethods));
+
+        FileUtils.write(source, "\n// changed\n", StandardCharsets.UTF_8, true);
+        SourceFile second = cache.get(editTypes, source, targetMethods);
+        assertNotSame(first, second);
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.size());
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.coverage;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.ucl.solar.tonic.runner.PatchClassLoader;
+import uk.ucl.solar.tonic.runner.PatchCompiler;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class CoverageInstrumenterTest {
+
+    private final static String SOURCE = "package example;\n"
+            + "public class Shapes {\n"
+            + "    private final int sides;\n"
+            + "    public Shapes() { this(3); }\n"
+            + "    public Shapes(int sides) { this.sides = sides; }\n"
+            + "    public int area(int width, int height) { return width * height; }\n"
+            + "    public int area(int side) { return side * side; }\n"
+            + "    public static String name(java.util.List<String> names, String... more) { return names.toString(); }\n"
+            + "}\n";
+
+    private Map<String, byte[]> classes;
+
+    public CoverageInstrumenterTest() {
+    }
+
+    @Before
+    public void setUp() {
+        classes = new PatchCompiler(null).compile("example.Shapes", SOURCE);
+        assertNotNull(classes);
+        CoverageProbe.reset();
+    }
+
+    private Class<?> load(Map<String, byte[]> instrumented) throws ClassNotFoundException {
+        return Class.forName("example.Shapes", true, new PatchClassLoader(null, instrumented, getClass().getClassLoader()));
+    }
+
+    @Test
+    public void testMethod() throws Exception {
+        Map<String, byte[]> instrumented = new CoverageInstrumenter("example.Shapes.area(int,int)").instrument(classes);
+        assertNotNull(instrumented);
+        Class<?> shapes = load(instrumented);
+        Object instance = shapes.getConstructor().newInstance();
+        shapes.getMethod("area", int.class).invoke(instance, 2);
+        assertEquals(0, CoverageProbe.reset());
+        assertEquals(6, shapes.getMethod("area", int.class, int.class).invoke(instance, 2, 3));
+        assertEquals(1, CoverageProbe.reset());
+    }
+
+    @Test
+    public void testConstructor() throws Exception {
+        Class<?> shapes = load(new CoverageInstrumenter("example.Shapes.Shapes(int)").instrument(classes));
+        shapes.getConstructor().newInstance();
+        assertEquals(1, CoverageProbe.reset());
+    }
+
+    @Test
+    public void testGenericAndVarargsParameters() throws Exception {
+        assertNotNull(new CoverageInstrumenter("example.Shapes.name(java.util.List<String>,String...)").instrument(classes));
+    }
+
+    @Test
+    public void testMissingMethod() {
+        assertNull(new CoverageInstrumenter("example.Shapes.perimeter(int)").instrument(classes));
+        assertNull(new CoverageInstrumenter("example.Other.area(int)").instrument(classes));
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.coverage;
+
+import gin.test.UnitTest;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ucl.solar.tonic.base.TargetMethod;
+import uk.ucl.solar.tonic.problem.gi.impl.RuntimeGeneticImprovementProblem;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class CoverageTestSelectorTest {
+
+    private final static File source = FileUtils.getFile("./unittests/maven-simple/src/main/java/com/mycompany/app/App.java");
+    private final static String className = "com.mycompany.app.App";
+    private final static String methodName = "com.mycompany.app.App.classifyTriangle(int,int,int)";
+
+    private final File cacheFile = FileUtils.getFile("./unittests/tempdir/coverage.csv");
+    private final UnitTest reachingTest = new UnitTest("com.mycompany.app.AppTest", "testScaleneTriangles");
+    private final UnitTest otherTest = new UnitTest("com.mycompany.app.AppTest", "shouldAnswerWithTrue");
+    private String classPath;
+
+    public CoverageTestSelectorTest() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        Properties properties = new Properties();
+        try (FileReader reader = new FileReader("./unittests/maven-simple/tonic.properties")) {
+            properties.load(reader);
+        }
+        RuntimeGeneticImprovementProblem problem = new RuntimeGeneticImprovementProblem(properties);
+        this.classPath = problem.getClassPath();
+        problem.shutdown();
+        FileUtils.forceMkdir(cacheFile.getParentFile());
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(FileUtils.getFile("./unittests/tempdir"));
+    }
+
+    @Test
+    public void testSelect() {
+        CoverageTestSelector selector = new CoverageTestSelector(classPath, cacheFile);
+        TargetMethod method = new TargetMethod(source, className, methodName, Arrays.asList(otherTest, reachingTest), 1);
+        List<UnitTest> selected = selector.select(method);
+        assertEquals(Collections.singletonList(reachingTest), selected);
+        assertTrue(cacheFile.isFile());
+    }
+
+    @Test
+    public void testSelectAfterTestsWereReplaced() {
+        CoverageTestSelector selector = new CoverageTestSelector(classPath, cacheFile);
+        TargetMethod method = new TargetMethod(source, className, methodName, Arrays.asList(otherTest, reachingTest), 1);
+        List<UnitTest> selected = selector.select(method);
+        // The problem replaces the tests of the method with the selection
+        method.setGinTests(selected);
+        assertEquals(selected, selector.select(method));
+    }
+
+    @Test
+    public void testReuseSavedSelection() {
+        new CoverageTestSelector(classPath, cacheFile).select(new TargetMethod(source, className, methodName, Arrays.asList(otherTest, reachingTest), 1));
+        CoverageTestSelector selector = new CoverageTestSelector(classPath, cacheFile);
+        TargetMethod method = new TargetMethod(source, className, methodName, Arrays.asList(otherTest, reachingTest), 1);
+        assertEquals(Collections.singletonList(reachingTest), selector.select(method));
+    }
+
+}
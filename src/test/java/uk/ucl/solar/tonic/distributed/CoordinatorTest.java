@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.distributed;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ucl.solar.tonic.runner.TestOutcome;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class CoordinatorTest {
+
+    private final List<RemoteWorker> workers = new ArrayList<>();
+    private Coordinator coordinator;
+
+    public CoordinatorTest() {
+    }
+
+    @Before
+    public void setUp() {
+        workers.clear();
+        coordinator = null;
+    }
+
+    @After
+    public void tearDown() {
+        workers.forEach(RemoteWorker::stop);
+        if (coordinator != null) {
+            coordinator.close();
+        }
+    }
+
+    // Reports one passing test per edit, taking as long as the edit says
+    private static WorkResult evaluate(WorkItem item) {
+        List<TestOutcome> outcomes = new ArrayList<>();
+        for (String edit : item.getEdits()) {
+            TestOutcome outcome = new TestOutcome(0, outcomes.size());
+            outcome.setPassed(true);
+            outcome.setExecutionTime(Long.parseLong(edit));
+            outcomes.add(outcome);
+        }
+        return new WorkResult(item.getId(), true, Collections.emptyList(), true, false, outcomes);
+    }
+
+    private void startWorker(int port, Function<WorkItem, WorkResult> evaluator) {
+        RemoteWorker worker = new RemoteWorker("localhost", port, evaluator);
+        workers.add(worker);
+        Thread thread = new Thread(worker);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Test
+    public void testEvaluateOnSeveralWorkers() throws Exception {
+        coordinator = new Coordinator(0, 10000);
+        startWorker(coordinator.getPort(), CoordinatorTest::evaluate);
+        startWorker(coordinator.getPort(), CoordinatorTest::evaluate);
+
+        List<CompletableFuture<WorkResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(coordinator.submit(1, Arrays.asList(String.valueOf(i), "1")));
+        }
+        for (int i = 0; i < 20; i++) {
+            WorkResult result = futures.get(i).get(30, TimeUnit.SECONDS);
+            assertEquals(2, result.getOutcomes().size());
+            assertEquals(i, result.getOutcomes().get(0).getExecutionTime());
+        }
+        assertEquals(2, coordinator.getConnectedWorkers());
+    }
+
+    @Test
+    public void testRequeueOnTimeout() throws Exception {
+        coordinator = new Coordinator(0, 500);
+        startWorker(coordinator.getPort(), item -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return evaluate(item);
+        });
+        Thread.sleep(500);
+        startWorker(coordinator.getPort(), CoordinatorTest::evaluate);
+
+        WorkResult result = coordinator.submit(1, Collections.singletonList("7")).get(30, TimeUnit.SECONDS);
+        assertEquals(7, result.getOutcomes().get(0).getExecutionTime());
+    }
+
+    @Test
+    public void testWorkerConnectsBeforeCoordinator() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        startWorker(port, CoordinatorTest::evaluate);
+        Thread.sleep(1500);
+        coordinator = new Coordinator(port, 10000);
+        WorkResult result = coordinator.submit(1, Collections.singletonList("3")).get(30, TimeUnit.SECONDS);
+        assertEquals(3, result.getOutcomes().get(0).getExecutionTime());
+    }
+
+    @Test
+    public void testWorkerFailureIsNotAResult() throws Exception {
+        coordinator = new Coordinator(0, 10000);
+        startWorker(coordinator.getPort(), item -> {
+            throw new IllegalStateException("No test JVM.");
+        });
+        WorkResult result = coordinator.submit(1, Collections.singletonList("1")).get(30, TimeUnit.SECONDS);
+        assertTrue(result.isFailed());
+        assertTrue(result.getFailure().contains("No test JVM."));
+        try {
+            coordinator.evaluate(1, Collections.singletonList("1"));
+            fail("A failed evaluation must be reported as an IOException.");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage().contains("No test JVM."));
+        }
+    }
+
+    @Test
+    public void testFailedTestRunnerIsNotAResult() throws Exception {
+        coordinator = new Coordinator(0, 10000);
+        startWorker(coordinator.getPort(), item -> {
+            TestOutcome outcome = new TestOutcome(0, 0);
+            outcome.setExceptionType(TestOutcome.EVALUATION_FAILED);
+            outcome.setExceptionMessage("Worker JVM died.");
+            return new WorkResult(item.getId(), true, Collections.emptyList(), false, false, Collections.singletonList(outcome));
+        });
+        try {
+            coordinator.evaluate(1, Collections.singletonList("1"));
+            fail("A failed evaluation must be reported as an IOException.");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage().contains("Worker JVM died."));
+        }
+    }
+
+    @Test
+    public void testCloseFailsPendingItems() throws IOException, InterruptedException {
+        coordinator = new Coordinator(0, 10000);
+        CompletableFuture<WorkResult> future = coordinator.submit(1, Collections.singletonList("1"));
+        coordinator.close();
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+}
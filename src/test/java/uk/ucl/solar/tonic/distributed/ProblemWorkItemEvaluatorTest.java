@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.distributed;
+
+import gin.test.UnitTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ucl.solar.tonic.problem.gi.GeneticImprovementProblem;
+import uk.ucl.solar.tonic.problem.gi.impl.RuntimeGeneticImprovementProblem;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class ProblemWorkItemEvaluatorTest {
+
+    private String propertiesFile = "./unittests/maven-simple/tonic.properties";
+    private Properties propertiesObject;
+    private RuntimeGeneticImprovementProblem problem;
+
+    public ProblemWorkItemEvaluatorTest() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        this.propertiesObject = new Properties();
+        try (FileReader reader = new FileReader(this.propertiesFile)) {
+            propertiesObject.load(reader);
+        }
+        propertiesObject.setProperty("adaptiveReps", "true");
+        propertiesObject.setProperty("minReps", "2");
+        propertiesObject.setProperty("maxReps", "4");
+        propertiesObject.setProperty("dynamicTimeouts", "true");
+        propertiesObject.setProperty("timeoutMultiplier", "2");
+        propertiesObject.setProperty("timeoutFloorMS", "500");
+    }
+
+    @After
+    public void tearDown() {
+        if (problem != null) {
+            problem.shutdown();
+        }
+    }
+
+    @Test
+    public void testMeasuresOriginalProgramFirst() throws IOException {
+        problem = new RuntimeGeneticImprovementProblem(propertiesObject);
+        problem.nextMethod();
+        problem.createSolution();
+        PatchSolution solution = problem.createSolution();
+        int methodID = problem.getTargetedMethod().getMethodID();
+
+        ProblemWorkItemEvaluator evaluator = new ProblemWorkItemEvaluator(problem);
+        WorkResult result = evaluator.apply(new WorkItem(1, methodID, WorkItem.describe(solution.getPatch())));
+        assertEquals(1, result.getId());
+
+        // The patch is raced and cut off against the worker's own measurements
+        GeneticImprovementProblem methodProblem = evaluator.getMethodProblem(methodID);
+        assertNotNull(methodProblem.getOriginalProgramResults());
+        assertEquals(4, RuntimeGeneticImprovementProblem.repetitionTimes(methodProblem.getOriginalProgramResults()).length);
+        for (UnitTest test : methodProblem.getTargetedMethod().getGinTests()) {
+            assertTrue(methodProblem.getContext().getTestTimeouts().get(test) < 10000);
+        }
+    }
+
+    @Test
+    public void testEmptyPatchIsMeasuredOnce() throws IOException {
+        problem = new RuntimeGeneticImprovementProblem(propertiesObject);
+        problem.nextMethod();
+        int methodID = problem.getTargetedMethod().getMethodID();
+
+        ProblemWorkItemEvaluator evaluator = new ProblemWorkItemEvaluator(problem);
+        WorkResult result = evaluator.apply(new WorkItem(1, methodID, Collections.emptyList()));
+        GeneticImprovementProblem methodProblem = evaluator.getMethodProblem(methodID);
+        assertEquals(result.getOutcomes().size(), methodProblem.getOriginalProgramResults().getResults().size());
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.distributed;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ucl.solar.tonic.problem.gi.impl.CPUTimeGeneticImprovementProblem;
+import uk.ucl.solar.tonic.problem.gi.impl.RuntimeGeneticImprovementProblem;
+import uk.ucl.solar.tonic.runner.TestOutcome;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class RemoteProblemEvaluatorTest {
+
+    private String propertiesFile = "./unittests/maven-simple/tonic.properties";
+    private RemoteProblemEvaluator evaluator;
+    private RemoteWorker worker;
+    private Coordinator coordinator;
+
+    public RemoteProblemEvaluatorTest() {
+    }
+
+    @Before
+    public void setUp() {
+        evaluator = new RemoteProblemEvaluator(propertiesFile);
+    }
+
+    @After
+    public void tearDown() {
+        if (worker != null) {
+            worker.stop();
+        }
+        if (coordinator != null) {
+            coordinator.close();
+        }
+        evaluator.close();
+    }
+
+    @Test
+    public void testMeasuredObjectiveRemotely() throws Exception {
+        coordinator = new Coordinator(0, 60000, CPUTimeGeneticImprovementProblem.class.getName());
+        worker = new RemoteWorker("localhost", coordinator.getPort(), evaluator);
+        Thread thread = new Thread(worker);
+        thread.setDaemon(true);
+        thread.start();
+
+        WorkResult result = coordinator.submit(1, Collections.emptyList()).get(120, TimeUnit.SECONDS);
+        assertTrue(result.isCleanCompile());
+        assertFalse(result.getOutcomes().isEmpty());
+        long cpuTime = 0;
+        for (TestOutcome outcome : result.getOutcomes()) {
+            assertTrue(outcome.isPassed());
+            cpuTime += outcome.getCpuTime();
+        }
+        assertTrue(cpuTime > 0);
+
+        // The worker measured with the coordinator's problem and its settings
+        assertTrue(evaluator.getProblem(CPUTimeGeneticImprovementProblem.class.getName()) instanceof CPUTimeGeneticImprovementProblem);
+        assertTrue(evaluator.getProblem(CPUTimeGeneticImprovementProblem.class.getName()).isWorkerPool());
+    }
+
+    @Test
+    public void testDefaultProblem() {
+        WorkResult result = evaluator.apply(new WorkItem(1, 1, Collections.emptyList()));
+        assertEquals(1, result.getId());
+        assertTrue(evaluator.getProblem(RuntimeGeneticImprovementProblem.class.getName()) instanceof RuntimeGeneticImprovementProblem);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownProblem() {
+        evaluator.apply(new WorkItem(1, 1, Collections.emptyList(), "uk.ucl.solar.tonic.NoSuchProblem"));
+    }
+
+}
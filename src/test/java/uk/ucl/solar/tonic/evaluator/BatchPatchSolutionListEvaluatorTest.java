@@ -0,0 +1,114 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.evaluator;
+
+import gin.SourceFileTree;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.uma.jmetal.problem.AbstractGenericProblem;
+import uk.ucl.solar.tonic.problem.gi.impl.RuntimeGeneticImprovementProblem;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class BatchPatchSolutionListEvaluatorTest {
+
+    private String propertiesFile = "./unittests/maven-simple/tonic.properties";
+    private Properties propertiesObject;
+    private RuntimeGeneticImprovementProblem problem;
+    private BatchPatchSolutionListEvaluator evaluator;
+
+    public BatchPatchSolutionListEvaluatorTest() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        this.propertiesObject = new Properties();
+        try (FileReader reader = new FileReader(this.propertiesFile)) {
+            propertiesObject.load(reader);
+        }
+        propertiesObject.setProperty("batchEvaluation", "true");
+        evaluator = new BatchPatchSolutionListEvaluator();
+    }
+
+    @After
+    public void tearDown() {
+        evaluator.shutdown();
+        if (problem != null) {
+            problem.shutdown();
+        }
+    }
+
+    @Test
+    public void testEvaluate() throws IOException {
+        problem = new RuntimeGeneticImprovementProblem(propertiesObject);
+        problem.nextMethod();
+        PatchSolution original = problem.createSolution();
+        PatchSolution solution = problem.createSolution();
+
+        List<PatchSolution> solutions = Arrays.asList(solution, original);
+        assertSame(solutions, evaluator.evaluate(solutions, problem));
+        assertNotNull(problem.getOriginalProgramResults());
+        assertEquals(true, original.getAttribute("AllTestsPassed"));
+        assertEquals(0.0, original.getAttribute("FitnessImprovement_1"));
+        assertEquals(1, solution.getAttribute("PatchSize"));
+        assertNotNull(solution.getAttribute("Fitness_1"));
+    }
+
+    @Test
+    public void testOriginalProgramMeasuredFirst() throws IOException {
+        propertiesObject.setProperty("adaptiveReps", "true");
+        propertiesObject.setProperty("minReps", "2");
+        propertiesObject.setProperty("maxReps", "4");
+        problem = new RuntimeGeneticImprovementProblem(propertiesObject);
+        problem.nextMethod();
+        PatchSolution original = problem.createSolution();
+        PatchSolution solution = problem.createSolution();
+
+        // The original program is measured with every repetition, even if
+        // it is not the first of the batch
+        evaluator.evaluate(Arrays.asList(solution, original), problem);
+        assertEquals(4, original.getAttribute("Reps"));
+        assertEquals(4, RuntimeGeneticImprovementProblem.repetitionTimes(problem.getOriginalProgramResults()).length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEvaluateOtherProblem() {
+        evaluator.evaluate(Collections.emptyList(), new AbstractGenericProblem<PatchSolution>() {
+            @Override
+            public PatchSolution evaluate(PatchSolution solution) {
+                return solution;
+            }
+
+            @Override
+            public PatchSolution createSolution() {
+                return new PatchSolution(1, new SourceFileTree("./unittests/Small.java", Collections.emptyList()));
+            }
+        });
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.evaluator;
+
+import gin.SourceFileTree;
+import gin.edit.Edit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.uma.jmetal.problem.AbstractGenericProblem;
+import org.uma.jmetal.util.JMetalException;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class ParallelPatchSolutionListEvaluatorTest {
+
+    private final static String verySmallExampleSourceFilename = "./unittests/Small.java";
+    private final static List<Edit.EditType> allowableEditTypesTree = Arrays.asList(Edit.EditType.STATEMENT, Edit.EditType.MODIFY_STATEMENT);
+
+    private SourceFileTree sourceFileTree;
+    private ParallelPatchSolutionListEvaluator evaluator;
+    private List<PatchSolution> solutions;
+
+    public ParallelPatchSolutionListEvaluatorTest() {
+    }
+
+    @Before
+    public void setUp() {
+        sourceFileTree = new SourceFileTree(verySmallExampleSourceFilename, Collections.emptyList());
+        evaluator = new ParallelPatchSolutionListEvaluator(4);
+        solutions = new ArrayList<>();
+        solutions.add(new PatchSolution(1, sourceFileTree));
+        for (int i = 0; i < 20; i++) {
+            PatchSolution solution = new PatchSolution(1, sourceFileTree);
+            solution.addRandomEdit(new Random(i), allowableEditTypesTree);
+            solutions.add(solution);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        evaluator.shutdown();
+    }
+
+    @Test
+    public void testEvaluate() {
+        ConcurrentLinkedQueue<PatchSolution> evaluationOrder = new ConcurrentLinkedQueue<>();
+        evaluator.evaluate(solutions, new CountingProblem(evaluationOrder, false));
+        assertEquals(solutions.size(), evaluationOrder.size());
+        assertSame(solutions.get(0), evaluationOrder.peek());
+        for (PatchSolution solution : solutions) {
+            assertEquals(solution.getNumberOfVariables(), solution.getObjective(0), 0.0);
+        }
+    }
+
+    @Test(expected = JMetalException.class)
+    public void testEvaluateFailure() {
+        evaluator.evaluate(solutions, new CountingProblem(new ConcurrentLinkedQueue<>(), true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidParallelism() {
+        new ParallelPatchSolutionListEvaluator(0);
+    }
+
+    private class CountingProblem extends AbstractGenericProblem<PatchSolution> {
+
+        private final Queue<PatchSolution> evaluationOrder;
+        private final boolean shouldFail;
+
+        CountingProblem(Queue<PatchSolution> evaluationOrder, boolean shouldFail) {
+            this.evaluationOrder = evaluationOrder;
+            this.shouldFail = shouldFail;
+            this.setNumberOfObjectives(1);
+        }
+
+        @Override
+        public PatchSolution evaluate(PatchSolution solution) {
+            if (shouldFail && solution.getNumberOfVariables() > 0) {
+                throw new IllegalStateException("Evaluation failed.");
+            }
+            solution.setObjective(0, solution.getNumberOfVariables());
+            evaluationOrder.add(solution);
+            return solution;
+        }
+
+        @Override
+        public PatchSolution createSolution() {
+            return new PatchSolution(1, sourceFileTree);
+        }
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.print;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ucl.solar.tonic.exception.TonicException;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class ColumnarArchiveTest {
+
+    private static final String NEWLINE = System.lineSeparator();
+    private static final String CSV = "MethodName,MethodIndex,Patch,Compiled,TotalExecutionTime(ms),Fitness,Note" + NEWLINE
+            + "Small.foo(),1,| a.java:28 <-> a.java:6 | a.java:29 OR -> EQUALS |,true,1.5,10.0," + NEWLINE
+            + "Small.foo(),1,|,false,20.25,,x | y" + NEWLINE
+            + "Small.bar(int),2,| a.java:29 OR -> EQUALS |,true,3.0,-1.0E-4,10" + NEWLINE;
+
+    private final File outputDir = FileUtils.getFile("./unittests/tempdir");
+    private File csv;
+    private File archive;
+
+    public ColumnarArchiveTest() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        csv = FileUtils.getFile(outputDir, "PATCH.csv");
+        archive = FileUtils.getFile(outputDir, "PATCH.tca");
+        FileUtils.writeStringToFile(csv, CSV, StandardCharsets.UTF_8);
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(outputDir);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        ColumnarArchiveConverter.toArchive(csv, archive, ",");
+        File converted = FileUtils.getFile(outputDir, "CONVERTED.csv");
+        ColumnarArchiveConverter.toCsv(archive, converted, ",");
+        assertEquals(CSV, FileUtils.readFileToString(converted, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRoundTripCompressed() throws Exception {
+        File compressed = FileUtils.getFile(outputDir, "PATCH.csv.gz");
+        ColumnarArchiveConverter.toCsv(archive(), compressed, ",");
+        File archive2 = FileUtils.getFile(outputDir, "PATCH2.tca");
+        ColumnarArchiveConverter.toArchive(compressed, archive2, ",");
+        File converted = FileUtils.getFile(outputDir, "CONVERTED.csv");
+        ColumnarArchiveConverter.toCsv(archive2, converted, ",");
+        assertEquals(CSV, FileUtils.readFileToString(converted, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        try (ColumnarArchive input = ColumnarArchive.open(archive())) {
+            assertEquals(3, input.getRowCount());
+            assertEquals(Arrays.asList("MethodName", "MethodIndex", "Patch", "Compiled", "TotalExecutionTime(ms)", "Fitness", "Note"),
+                    input.getColumnNames());
+            assertEquals(Arrays.asList(ColumnType.STRING, ColumnType.LONG, ColumnType.PATCH, ColumnType.STRING,
+                    ColumnType.DOUBLE, ColumnType.DOUBLE, ColumnType.STRING), input.getColumnTypes());
+
+            int methodName = input.getColumnIndex("MethodName");
+            assertEquals(Arrays.asList("Small.foo()", "Small.bar(int)"), input.getDictionary(methodName));
+            assertEquals(input.getCode(methodName, 0), input.getCode(methodName, 1));
+            assertEquals("Small.bar(int)", input.getString(methodName, 2));
+
+            assertEquals(2L, input.getLong(input.getColumnIndex("MethodIndex"), 2));
+
+            int patch = input.getColumnIndex("Patch");
+            assertEquals(2, input.getDictionary(patch).size());
+            assertEquals(Arrays.asList("a.java:28 <-> a.java:6", "a.java:29 OR -> EQUALS"), input.getEdits(patch, 0));
+            assertEquals(Collections.emptyList(), input.getEdits(patch, 1));
+            assertEquals("| a.java:29 OR -> EQUALS |", input.getString(patch, 2));
+
+            int fitness = input.getColumnIndex("Fitness");
+            assertFalse(input.isNull(fitness, 0));
+            assertTrue(input.isNull(fitness, 1));
+            assertEquals(-1.0E-4, input.getDouble(fitness, 2), 0.0);
+            assertEquals("", input.getString(fitness, 1));
+            assertArrayEquals(new double[]{1.5, 20.25, 3.0}, input.getDoubles(input.getColumnIndex("TotalExecutionTime(ms)")), 0.0);
+
+            assertEquals(-1, input.getColumnIndex("Missing"));
+        }
+    }
+
+    @Test
+    public void testWriteRows() throws Exception {
+        ColumnarArchiveWriter writer = new ColumnarArchiveWriter(Arrays.asList("Patch", "NTests", "Fitness"),
+                Arrays.asList(ColumnType.PATCH, ColumnType.LONG, ColumnType.DOUBLE));
+        for (int i = 0; i < 3000; i++) {
+            writer.addRow(Arrays.asList("| edit" + (i % 7) + " | edit" + (i % 5) + " |", i, i == 10 ? null : i / 2.0));
+        }
+        writer.write(archive);
+        try (ColumnarArchive input = ColumnarArchive.open(archive)) {
+            assertEquals(3000, input.getRowCount());
+            assertEquals(7, input.getDictionary(0).size());
+            assertEquals(Arrays.asList("edit3", "edit4"), input.getEdits(0, 2999));
+            assertEquals(2999L, input.getLong(1, 2999));
+            assertEquals(1499.5, input.getDouble(2, 2999), 0.0);
+            assertTrue(input.isNull(2, 10));
+            assertFalse(input.isNull(2, 11));
+        }
+    }
+
+    @Test
+    public void testColumnTypes() {
+        assertTrue(ColumnType.LONG.accepts("10"));
+        assertFalse(ColumnType.LONG.accepts("10.0"));
+        assertFalse(ColumnType.LONG.accepts("010"));
+        assertTrue(ColumnType.DOUBLE.accepts("10.0"));
+        assertFalse(ColumnType.DOUBLE.accepts("10"));
+        assertTrue(ColumnType.DOUBLE.accepts(""));
+        assertTrue(ColumnType.PATCH.accepts("|"));
+        assertTrue(ColumnType.PATCH.accepts("| a | b |"));
+        assertFalse(ColumnType.PATCH.accepts("a | b"));
+        assertFalse(ColumnType.PATCH.accepts("||"));
+        assertFalse(ColumnType.PATCH.accepts(""));
+        List<String> edits = ColumnType.splitPatch("| a | b |");
+        assertEquals(Arrays.asList("a", "b"), edits);
+        assertEquals("| a | b |", ColumnType.joinPatch(edits));
+    }
+
+    @Test(expected = TonicException.class)
+    public void testWrongNumberOfValues() throws Exception {
+        FileUtils.writeStringToFile(csv, "A,B" + NEWLINE + "1,2,3" + NEWLINE, StandardCharsets.UTF_8);
+        ColumnarArchiveConverter.toArchive(csv, archive, ",");
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void testOpenNotAnArchive() throws Exception {
+        ColumnarArchive.open(csv);
+    }
+
+    private File archive() throws Exception {
+        ColumnarArchiveConverter.toArchive(csv, archive, ",");
+        return archive;
+    }
+
+}
@@ -27,10 +27,14 @@ import org.uma.jmetal.solution.binarysolution.impl.DefaultBinarySolution;
 import uk.ucl.solar.tonic.exception.TonicException;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
@@ -109,6 +113,46 @@ public class DefaultResultsPrinterTest {
         }
     }
 
+    @Test
+    public void testPrintSequentially() throws Exception {
+        printer.setConcurrentWrites(false);
+        printer.setBufferSize(16);
+        printer.print();
+        try (CSVReader reader = new CSVReader(new FileReader(FileUtils.getFile(outputDir.getAbsolutePath(), "FUN.csv")))) {
+            List<String[]> allLines = reader.readAll();
+            assertArrayEquals(new String[]{"Objective1", "Objective2"}, allLines.get(0));
+            assertArrayEquals(new String[]{"10.0", "-1.0"}, allLines.get(1));
+            assertArrayEquals(new String[]{"11.0", "-10.0"}, allLines.get(2));
+        }
+
+        try (CSVReader reader = new CSVReader(new FileReader(FileUtils.getFile(outputDir.getAbsolutePath(), "VAR.csv")))) {
+            List<String[]> allLines = reader.readAll();
+            assertArrayEquals(new String[]{"10101"}, allLines.get(0));
+            assertArrayEquals(new String[]{"01010"}, allLines.get(1));
+        }
+    }
+
+    @Test
+    public void testPrintCompressed() throws Exception {
+        printer.setCompression(OutputCompression.GZIP);
+        printer.print();
+        assertFalse(FileUtils.getFile(outputDir.getAbsolutePath(), "FUN.csv").exists());
+        try (CSVReader reader = new CSVReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(
+                FileUtils.getFile(outputDir.getAbsolutePath(), "FUN.csv.gz"))), StandardCharsets.UTF_8))) {
+            List<String[]> allLines = reader.readAll();
+            assertArrayEquals(new String[]{"Objective1", "Objective2"}, allLines.get(0));
+            assertArrayEquals(new String[]{"10.0", "-1.0"}, allLines.get(1));
+            assertArrayEquals(new String[]{"11.0", "-10.0"}, allLines.get(2));
+        }
+
+        try (CSVReader reader = new CSVReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(
+                FileUtils.getFile(outputDir.getAbsolutePath(), "TIME.csv.gz"))), StandardCharsets.UTF_8))) {
+            List<String[]> allLines = reader.readAll();
+            assertArrayEquals(new String[]{"FullExecTime"}, allLines.get(0));
+            assertArrayEquals(new String[]{"1024"}, allLines.get(1));
+        }
+    }
+
     @Test
     public void testPrintWithoutHeaders() throws Exception {
         printer.setShouldPrintHeaders(false);
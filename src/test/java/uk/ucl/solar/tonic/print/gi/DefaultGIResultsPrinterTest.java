@@ -23,6 +23,9 @@ import org.apache.commons.io.FileUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import uk.ucl.solar.tonic.print.ColumnType;
+import uk.ucl.solar.tonic.print.ColumnarArchive;
+import uk.ucl.solar.tonic.print.ColumnarArchiveConverter;
 import uk.ucl.solar.tonic.solution.PatchSolution;
 
 import java.io.File;
@@ -208,12 +211,55 @@ public class DefaultGIResultsPrinterTest {
         }
     }
 
+    @Test
+    public void testPrintSummary() throws Exception {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("CacheHits", 3L);
+        summary.put("CacheHitRate", 0.75);
+        printer.setSummary(summary);
+        printer.print();
+        try (CSVReader reader = new CSVReader(new FileReader(FileUtils.getFile(outputDir.getAbsolutePath(), "SUMMARY.csv")))) {
+            List<String[]> allLines = reader.readAll();
+            assertArrayEquals(new String[]{"Name", "Value"}, allLines.get(0));
+            assertArrayEquals(new String[]{"CacheHits", "3"}, allLines.get(1));
+            assertArrayEquals(new String[]{"CacheHitRate", "0.75"}, allLines.get(2));
+        }
+    }
+
+    @Test
+    public void testPrintArchive() throws Exception {
+        printer.setPatchArchiveFileName("PATCH.tca");
+        printer.print();
+        File archive = FileUtils.getFile(outputDir.getAbsolutePath(), "PATCH.tca");
+        try (ColumnarArchive input = ColumnarArchive.open(archive)) {
+            assertEquals(2, input.getRowCount());
+            assertEquals(14, input.getColumnCount());
+            int nTests = input.getColumnIndex("NTests");
+            assertEquals(ColumnType.LONG, input.getColumnType(nTests));
+            assertEquals(10L, input.getLong(nTests, 0));
+            int objective = input.getColumnIndex("Objective2");
+            assertEquals(ColumnType.DOUBLE, input.getColumnType(objective));
+            assertEquals(-1.0, input.getDouble(objective, 0), 0.0);
+            assertEquals(-0.5, input.getDouble(objective, 1), 0.0);
+        }
+
+        File patches = FileUtils.getFile(outputDir.getAbsolutePath(), "PATCH2.csv");
+        ColumnarArchiveConverter.toCsv(archive, patches, ",");
+        try (CSVReader reader = new CSVReader(new FileReader(patches))) {
+            List<String[]> allLines = reader.readAll();
+            assertArrayEquals(new String[]{"MethodName", "MethodIndex", "Patch", "Compiled", "AllTestsPassed", "NTests", "NPassed", "NFailed", "TotalExecutionTime(ms)", "Fitness", "FitnessImprovement", "TimeStamp", "Objective1", "Objective2"}, allLines.get(0));
+            assertArrayEquals(new String[]{"", "", "", "", "", "10", "6", "4", "", "", "", "1000", "10.0", "-1.0"}, allLines.get(1));
+            assertArrayEquals(new String[]{"", "", "", "", "", "10", "7", "3", "", "", "", "2000", "15.0", "-0.5"}, allLines.get(2));
+        }
+    }
+
     @Test
     public void testShouldPrintNothing() throws Exception {
         printer.setTimes(new ArrayList<>());
         printer.setSolutionList(new ArrayList<>());
         printer.print();
         assertFalse(FileUtils.getFile(outputDir.getAbsolutePath(), "PATCH.csv").exists());
+        assertFalse(FileUtils.getFile(outputDir.getAbsolutePath(), "SUMMARY.csv").exists());
     }
 
     @Test
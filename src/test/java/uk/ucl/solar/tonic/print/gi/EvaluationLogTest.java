@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.print.gi;
+
+import gin.SourceFileTree;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class EvaluationLogTest {
+
+    private final static String verySmallExampleSourceFilename = "unittests/Small.java";
+    private final static List<String> COLUMNS = Arrays.asList("NTests", "NPassed", "TimeStamp");
+    private final File outputDir = FileUtils.getFile("./unittests/tempdir");
+    private final File logFile = FileUtils.getFile(outputDir, "EVALUATIONS.csv");
+    private SourceFileTree sourceFileTree;
+
+    public EvaluationLogTest() {
+    }
+
+    @Before
+    public void setUp() {
+        sourceFileTree = new SourceFileTree(verySmallExampleSourceFilename, Collections.emptyList());
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(outputDir);
+    }
+
+    private PatchSolution solution(int passed, long timeStamp) {
+        PatchSolution solution = new PatchSolution(2, sourceFileTree);
+        solution.setAttribute("NTests", 10);
+        solution.setAttribute("NPassed", passed);
+        solution.setAttribute("TimeStamp", timeStamp);
+        return solution;
+    }
+
+    private List<String> lines() throws Exception {
+        return FileUtils.readLines(logFile, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testAppend() throws Exception {
+        try (EvaluationLog log = new EvaluationLog(logFile, COLUMNS)) {
+            log.accept(solution(10, 1000L));
+            log.accept(solution(7, 2000L));
+        }
+        assertEquals(Arrays.asList("NTests,NPassed,TimeStamp", "10,10,1000", "10,7,2000"), lines());
+
+        // Reopening appends without repeating the header
+        try (EvaluationLog log = new EvaluationLog(logFile, COLUMNS)) {
+            log.accept(new PatchSolution(2, sourceFileTree));
+        }
+        assertEquals(Arrays.asList("NTests,NPassed,TimeStamp", "10,10,1000", "10,7,2000", ",,"), lines());
+    }
+
+    @Test
+    public void testPeriodicFlush() throws Exception {
+        try (EvaluationLog log = new EvaluationLog(logFile, COLUMNS, 16, 50, ",")) {
+            log.accept(solution(10, 1000L));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (lines().size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(Arrays.asList("NTests,NPassed,TimeStamp", "10,10,1000"), lines());
+        }
+    }
+
+    @Test
+    public void testBoundedQueue() throws Exception {
+        try (EvaluationLog log = new EvaluationLog(logFile, COLUMNS, 1, 10, ",")) {
+            for (int i = 0; i < 200; i++) {
+                log.accept(solution(i, i));
+            }
+        }
+        List<String> lines = lines();
+        assertEquals(201, lines.size());
+        assertEquals("10,199,199", lines.get(200));
+    }
+
+    @Test
+    public void testIncompleteRow() throws Exception {
+        FileUtils.forceMkdir(outputDir);
+        FileUtils.writeStringToFile(logFile, "NTests,NPassed,TimeStamp" + System.lineSeparator() + "10,10,1000" + System.lineSeparator() + "10,7", StandardCharsets.UTF_8);
+        try (EvaluationLog log = new EvaluationLog(logFile, COLUMNS)) {
+            log.accept(solution(8, 3000L));
+        }
+        assertEquals(Arrays.asList("NTests,NPassed,TimeStamp", "10,10,1000", "10,8,3000"), lines());
+    }
+
+}
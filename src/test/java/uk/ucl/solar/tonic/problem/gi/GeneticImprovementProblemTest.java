@@ -28,6 +28,7 @@ import uk.ucl.solar.tonic.solution.PatchSolution;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Properties;
 
 import static org.junit.Assert.*;
@@ -151,6 +152,60 @@ public class GeneticImprovementProblemTest {
         RuntimeGeneticImprovementProblem problem = new RuntimeGeneticImprovementProblem(propertiesObject);
     }
 
+    @Test
+    public void testParallelismEnablesWorkerPool() throws IOException {
+        this.propertiesObject.setProperty("parallelism", "2");
+        RuntimeGeneticImprovementProblem problem = new RuntimeGeneticImprovementProblem(propertiesObject);
+        assertTrue(problem.isWorkerPool());
+        assertEquals(2, (int) problem.getWorkerPoolSize());
+        problem.shutdown();
+    }
+
+    @Test
+    public void testBytecodeEquivalence() throws IOException {
+        this.propertiesObject.setProperty("bytecodeEquivalence", "true");
+        this.propertiesObject.setProperty("workerPool", "true");
+        RuntimeGeneticImprovementProblem problem = new RuntimeGeneticImprovementProblem(propertiesObject);
+        try {
+            problem.nextMethod();
+            PatchSolution original = problem.createSolution();
+            problem.evaluate(original);
+            assertEquals(false, original.getAttribute("BytecodeEquivalent"));
+
+            // Another empty patch compiles to the same bytes
+            PatchSolution solution = problem.createSolution(Collections.emptyList());
+            problem.evaluate(solution);
+            assertEquals(true, solution.getAttribute("BytecodeEquivalent"));
+            assertEquals(true, solution.getAttribute("Compiled"));
+            assertEquals(original.getAttribute("NPassed"), solution.getAttribute("NPassed"));
+
+            assertNull(solution.getAttribute("BytecodeEquivalenceHitRate"));
+            assertEquals(2L, problem.getSummary().get("BytecodeEquivalenceLookups"));
+            assertEquals(1L, problem.getSummary().get("BytecodeEquivalenceHits"));
+            assertEquals(0.5, (double) problem.getSummary().get("BytecodeEquivalenceHitRate"), 1e-9);
+        } finally {
+            problem.shutdown();
+        }
+    }
+
+    @Test
+    public void testFitnessMode() throws IOException {
+        RuntimeGeneticImprovementProblem problem = new RuntimeGeneticImprovementProblem(propertiesObject);
+        String fitnessMode = problem.getFitnessMode();
+        assertEquals(fitnessMode, new RuntimeGeneticImprovementProblem(propertiesObject).getFitnessMode());
+
+        // Settings the measurements depend on are part of the mode
+        problem.setTimeoutMS(5000L);
+        assertNotEquals(fitnessMode, problem.getFitnessMode());
+        problem.setTimeoutMS(10000L);
+        assertEquals(fitnessMode, problem.getFitnessMode());
+        problem.setMaxReps(20);
+        assertNotEquals(fitnessMode, problem.getFitnessMode());
+        problem.setMaxReps(10);
+        problem.setWorkerPool(true);
+        assertNotEquals(fitnessMode, problem.getFitnessMode());
+    }
+
     @Test
     public void testNullEdits() throws IOException {
         this.propertiesObject.remove("editType");
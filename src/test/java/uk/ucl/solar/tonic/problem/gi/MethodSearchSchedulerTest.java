@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.problem.gi;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.ucl.solar.tonic.base.TargetMethod;
+import uk.ucl.solar.tonic.problem.gi.impl.RuntimeGeneticImprovementProblem;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class MethodSearchSchedulerTest {
+
+    private String propertiesFile = "./unittests/maven-simple/tonic.properties";
+    private RuntimeGeneticImprovementProblem problem;
+
+    public MethodSearchSchedulerTest() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        Properties propertiesObject = new Properties();
+        try (FileReader reader = new FileReader(this.propertiesFile)) {
+            propertiesObject.load(reader);
+        }
+        propertiesObject.setProperty("inSubprocess", "false");
+        propertiesObject.setProperty("eachRepetitionInNewSubprocess", "false");
+        problem = new RuntimeGeneticImprovementProblem(propertiesObject);
+    }
+
+    @Test
+    public void testForMethod() {
+        TargetMethod method = problem.getMethodData().get(1);
+        GeneticImprovementProblem copy = problem.forMethod(method);
+        assertNotSame(problem, copy);
+        assertTrue(copy instanceof RuntimeGeneticImprovementProblem);
+        assertEquals(method, copy.getTargetedMethod());
+        assertNotNull(copy.getTargetedSourceFile());
+        assertNull(problem.getTargetedMethod());
+
+        PatchSolution solution = copy.createSolution();
+        assertSame(solution, copy.getOriginalPatchSolution());
+        assertNull(problem.getOriginalPatchSolution());
+    }
+
+    @Test
+    public void testRun() throws InterruptedException {
+        MethodSearchScheduler scheduler = new MethodSearchScheduler(problem, 2);
+        Map<TargetMethod, Integer> results = scheduler.run(methodProblem -> {
+            PatchSolution solution = methodProblem.createSolution();
+            methodProblem.evaluate(solution);
+            assertNotNull(methodProblem.getOriginalProgramResults());
+            return (Integer) solution.getAttribute("MethodIndex");
+        });
+        assertEquals(problem.getMethodData().size(), results.size());
+        for (Map.Entry<TargetMethod, Integer> entry : results.entrySet()) {
+            assertEquals(entry.getKey().getMethodID(), entry.getValue());
+        }
+        assertNull(problem.getOriginalProgramResults());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConcurrency() {
+        new MethodSearchScheduler(problem, 0);
+    }
+
+}
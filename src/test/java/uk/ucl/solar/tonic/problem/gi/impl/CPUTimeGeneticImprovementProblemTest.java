@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.problem.gi.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class CPUTimeGeneticImprovementProblemTest {
+
+    private String propertiesFile = "./unittests/maven-simple/tonic.properties";
+    private Properties propertiesObject;
+
+    public CPUTimeGeneticImprovementProblemTest() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        this.propertiesObject = new Properties();
+        try (FileReader reader = new FileReader(this.propertiesFile)) {
+            propertiesObject.load(reader);
+        }
+    }
+
+    @Test
+    public void evaluate() throws IOException {
+        CPUTimeGeneticImprovementProblem problem = new CPUTimeGeneticImprovementProblem(propertiesObject);
+        assertTrue(problem.isWorkerPool());
+        try {
+            problem.nextMethod();
+
+            PatchSolution solution = problem.createSolution();
+            problem.evaluate(solution);
+
+            assertEquals(true, solution.getAttribute("AllTestsPassed"));
+            double cpuTime = (double) solution.getAttribute("TotalCPUTime(ms)");
+            double userTime = (double) solution.getAttribute("UserCPUTime(ms)");
+            double systemTime = (double) solution.getAttribute("SystemCPUTime(ms)");
+            assertTrue(cpuTime > 0);
+            assertEquals(cpuTime, userTime + systemTime, 1e-6);
+            assertEquals(cpuTime, solution.getObjective(1), 0.0);
+            assertEquals(0.0, solution.getAttribute("FitnessImprovement_1"));
+        } finally {
+            problem.shutdown();
+        }
+    }
+
+}
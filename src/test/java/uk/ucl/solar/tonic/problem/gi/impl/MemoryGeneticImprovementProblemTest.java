@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.problem.gi.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.ucl.solar.tonic.solution.PatchSolution;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class MemoryGeneticImprovementProblemTest {
+
+    private String propertiesFile = "./unittests/maven-simple/tonic.properties";
+    private Properties propertiesObject;
+
+    public MemoryGeneticImprovementProblemTest() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        this.propertiesObject = new Properties();
+        try (FileReader reader = new FileReader(this.propertiesFile)) {
+            propertiesObject.load(reader);
+        }
+    }
+
+    @Test
+    public void evaluate() throws IOException {
+        MemoryGeneticImprovementProblem problem = new MemoryGeneticImprovementProblem(propertiesObject);
+        assertTrue(problem.isWorkerPool());
+        assertTrue(problem.isCollectGarbage());
+        assertEquals(3, problem.getNumberOfObjectives());
+        try {
+            problem.nextMethod();
+
+            PatchSolution solution = problem.createSolution();
+            problem.evaluate(solution);
+
+            assertEquals(true, solution.getAttribute("AllTestsPassed"));
+            assertTrue((double) solution.getAttribute("AllocatedMemory(MB)") > 0);
+            assertTrue((double) solution.getAttribute("PeakHeap(MB)") > 0);
+            assertEquals(solution.getAttribute("AllocatedMemory(MB)"), solution.getObjective(1));
+            assertEquals(solution.getAttribute("PeakHeap(MB)"), solution.getObjective(2));
+            assertEquals(0.0, solution.getAttribute("FitnessImprovement_1"));
+        } finally {
+            problem.shutdown();
+        }
+    }
+
+    @Test
+    public void runtimeObjective() throws IOException {
+        propertiesObject.setProperty("memoryWithRuntime", "true");
+        MemoryGeneticImprovementProblem problem = new MemoryGeneticImprovementProblem(propertiesObject);
+        try {
+            assertEquals(4, problem.getNumberOfObjectives());
+            problem.nextMethod();
+
+            PatchSolution solution = problem.createSolution();
+            problem.evaluate(solution);
+            assertEquals(solution.getAttribute("TotalExecutionTime(ms)"), solution.getObjective(3));
+        } finally {
+            problem.shutdown();
+        }
+    }
+
+}
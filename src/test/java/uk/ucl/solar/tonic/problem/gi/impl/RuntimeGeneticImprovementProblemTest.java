@@ -15,6 +15,7 @@
  */
 package uk.ucl.solar.tonic.problem.gi.impl;
 
+import gin.test.UnitTest;
 import org.junit.Before;
 import org.junit.Test;
 import uk.ucl.solar.tonic.solution.PatchSolution;
@@ -93,4 +94,92 @@ public class RuntimeGeneticImprovementProblemTest {
         assertTrue((double) solution.getAttribute("FitnessImprovement_1") == Double.MAX_VALUE * -1);
     }
 
+    @Test
+    public void evaluateWithAdaptiveReps() throws IOException {
+        propertiesObject.setProperty("adaptiveReps", "true");
+        propertiesObject.setProperty("minReps", "2");
+        propertiesObject.setProperty("maxReps", "4");
+        RuntimeGeneticImprovementProblem problem = new RuntimeGeneticImprovementProblem(propertiesObject);
+        problem.nextMethod();
+
+        PatchSolution solution = problem.createSolution();
+        problem.evaluate(solution);
+        assertEquals(4, solution.getAttribute("Reps"));
+        assertEquals(4, RuntimeGeneticImprovementProblem.repetitionTimes(problem.getOriginalProgramResults()).length);
+        assertEquals((double) solution.getAttribute("TotalExecutionTime(ms)") / 4, (double) solution.getAttribute("Fitness_1"), 1e-9);
+
+        solution = problem.createSolution();
+        problem.evaluate(solution);
+        int reps = (int) solution.getAttribute("Reps");
+        assertTrue(reps >= 2 && reps <= 4);
+    }
+
+    @Test
+    public void evaluateWithUninformedSurrogate() throws IOException {
+        propertiesObject.setProperty("surrogate", "true");
+        propertiesObject.setProperty("surrogateExplorationRate", "0");
+        propertiesObject.setProperty("surrogateMinObservations", "50");
+        RuntimeGeneticImprovementProblem problem = new RuntimeGeneticImprovementProblem(propertiesObject);
+        problem.nextMethod();
+        problem.evaluate(problem.createSolution());
+
+        // Three unseen edits are below the validity threshold on priors
+        // alone, but an untrained surrogate skips nothing
+        for (int i = 0; i < 5; i++) {
+            PatchSolution solution = problem.createSolution();
+            solution.addRandomEditOfClasses(problem.getRandom(), problem.getEditTypes());
+            solution.addRandomEditOfClasses(problem.getRandom(), problem.getEditTypes());
+            problem.evaluate(solution);
+            assertEquals(false, solution.getAttribute("SurrogateSkipped"));
+            assertEquals(3, solution.getAttribute("PatchSize"));
+        }
+        assertEquals(0L, problem.getSurrogateModel().getSkipped());
+    }
+
+    @Test
+    public void evaluateSkippedBySurrogate() throws IOException {
+        propertiesObject.setProperty("surrogate", "true");
+        propertiesObject.setProperty("surrogateExplorationRate", "0");
+        propertiesObject.setProperty("surrogateMinObservations", "0");
+        propertiesObject.setProperty("surrogateValidThreshold", "1");
+        RuntimeGeneticImprovementProblem problem = new RuntimeGeneticImprovementProblem(propertiesObject);
+        problem.nextMethod();
+        PatchSolution original = problem.createSolution();
+        problem.evaluate(original);
+
+        // A copy of the evaluated original inherits its test results
+        PatchSolution solution = original.copy();
+        solution.addRandomEditOfClasses(problem.getRandom(), problem.getEditTypes());
+        problem.evaluate(solution);
+        assertEquals(true, solution.getAttribute("SurrogateSkipped"));
+        assertEquals("", solution.getAttribute("Compiled"));
+        assertEquals("", solution.getAttribute("AllTestsPassed"));
+        assertEquals("", solution.getAttribute("NTests"));
+        assertEquals(1, solution.getAttribute("PatchSize"));
+        assertEquals(Double.MAX_VALUE, solution.getAttribute("Fitness_1"));
+        assertEquals(true, original.getAttribute("Compiled"));
+    }
+
+    @Test
+    public void evaluateWithDynamicTimeouts() throws IOException {
+        propertiesObject.setProperty("dynamicTimeouts", "true");
+        propertiesObject.setProperty("timeoutMultiplier", "2");
+        propertiesObject.setProperty("timeoutFloorMS", "500");
+        RuntimeGeneticImprovementProblem problem = new RuntimeGeneticImprovementProblem(propertiesObject);
+        problem.nextMethod();
+
+        for (UnitTest test : problem.getTargetedMethod().getGinTests()) {
+            assertEquals(10000L, test.getTimeoutMS());
+        }
+        assertTrue(problem.getContext().getTestTimeouts().isEmpty());
+        problem.evaluate(problem.createSolution());
+        // The timeouts are kept in the context, the shared tests keep theirs
+        for (UnitTest test : problem.getTargetedMethod().getGinTests()) {
+            assertEquals(10000L, test.getTimeoutMS());
+            long timeoutMS = problem.getContext().getTestTimeouts().get(test);
+            assertTrue(timeoutMS >= 500);
+            assertTrue(timeoutMS < 10000);
+        }
+    }
+
 }
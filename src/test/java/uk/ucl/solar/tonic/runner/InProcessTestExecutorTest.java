@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class InProcessTestExecutorTest {
+
+    private final static String TEST_CLASS_SOURCE = "import org.junit.Test;\n"
+            + "import static org.junit.Assert.*;\n"
+            + "public class SampleTest {\n"
+            + "    @Test public void passes() { assertEquals(2, 1 + 1); }\n"
+            + "    @Test public void fails() { assertEquals(3, 1 + 1); }\n"
+            + "    @Test public void loops() throws Exception { Thread.sleep(60000); }\n"
+            + "    @Test public void sleeps() throws Exception { Thread.sleep(300); }\n"
+            + "    @Test public void allocates() { assertEquals(32 << 20, new byte[32 << 20].length); }\n"
+            + "    @Test public void spins() { long end = System.nanoTime() + 300000000L; while (System.nanoTime() < end) { } }\n"
+            + "}\n";
+
+    private String classPath;
+    private Map<String, byte[]> classes;
+    private InProcessTestExecutor executor;
+
+    public InProcessTestExecutorTest() {
+    }
+
+    @Before
+    public void setUp() {
+        classPath = System.getProperty("java.class.path");
+        classes = new PatchCompiler(classPath).compile("SampleTest", TEST_CLASS_SOURCE);
+        assertNotNull(classes);
+        executor = new InProcessTestExecutor();
+    }
+
+    @Test
+    public void testExecute() {
+        TestRequest request = new TestRequest("SampleTest", classPath, classes, Arrays.asList(
+                new TestDescriptor("SampleTest", "passes", 10000),
+                new TestDescriptor("SampleTest", "fails", 10000)), 2, false);
+        TestResponse response = executor.execute(request);
+        assertFalse(response.isTainted());
+        assertEquals(4, response.getOutcomes().size());
+
+        TestOutcome passed = response.getOutcomes().get(0);
+        assertEquals(0, passed.getTestIndex());
+        assertEquals(0, passed.getRep());
+        assertTrue(passed.isPassed());
+        assertTrue(passed.getExecutionTime() > 0);
+
+        TestOutcome failed = response.getOutcomes().get(3);
+        assertEquals(1, failed.getTestIndex());
+        assertEquals(1, failed.getRep());
+        assertFalse(failed.isPassed());
+        assertEquals(AssertionError.class.getName(), failed.getExceptionType());
+    }
+
+    @Test
+    public void testFailFast() {
+        TestRequest request = new TestRequest("SampleTest", classPath, classes, Arrays.asList(
+                new TestDescriptor("SampleTest", "fails", 10000),
+                new TestDescriptor("SampleTest", "passes", 10000)), 2, true);
+        TestResponse response = executor.execute(request);
+        assertEquals(1, response.getOutcomes().size());
+    }
+
+    @Test
+    public void testTimeout() {
+        TestRequest request = new TestRequest("SampleTest", classPath, classes, Arrays.asList(
+                new TestDescriptor("SampleTest", "loops", 200)), 1, false);
+        TestResponse response = executor.execute(request);
+        assertEquals(1, response.getOutcomes().size());
+        assertTrue(response.getOutcomes().get(0).isTimedOut());
+        assertFalse(response.getOutcomes().get(0).isPassed());
+        // Thread.sleep honours interrupts, so the test thread is stopped
+        assertFalse(response.isTainted());
+    }
+
+    @Test
+    public void testBudget() {
+        TestRequest request = new TestRequest("SampleTest", classPath, classes, Arrays.asList(
+                new TestDescriptor("SampleTest", "passes", 10000),
+                new TestDescriptor("SampleTest", "loops", 10000),
+                new TestDescriptor("SampleTest", "passes", 10000)), 1, false, 200000000L);
+        long start = System.currentTimeMillis();
+        TestResponse response = executor.execute(request);
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertEquals(2, response.getOutcomes().size());
+        assertTrue(response.getOutcomes().get(0).isPassed());
+        assertFalse(response.getOutcomes().get(1).isPassed());
+        assertEquals(TestOutcome.BUDGET_EXCEEDED, response.getOutcomes().get(1).getExceptionType());
+    }
+
+    @Test
+    public void testCpuTime() {
+        TestRequest request = new TestRequest("SampleTest", classPath, classes, Arrays.asList(
+                new TestDescriptor("SampleTest", "sleeps", 10000),
+                new TestDescriptor("SampleTest", "spins", 10000)), 1, false);
+        TestResponse response = executor.execute(request);
+        TestOutcome sleeps = response.getOutcomes().get(0);
+        TestOutcome spins = response.getOutcomes().get(1);
+        assertTrue(sleeps.getExecutionTime() >= 300000000L);
+        assertTrue(sleeps.getCpuTime() < 150000000L);
+        assertTrue(spins.getCpuTime() > 150000000L);
+        assertTrue(spins.getUserTime() <= spins.getCpuTime());
+    }
+
+    @Test
+    public void testMemory() {
+        TestRequest request = new TestRequest("SampleTest", classPath, classes, Arrays.asList(
+                new TestDescriptor("SampleTest", "passes", 10000),
+                new TestDescriptor("SampleTest", "allocates", 10000)), 1, false);
+        TestResponse response = executor.execute(request);
+        TestOutcome passes = response.getOutcomes().get(0);
+        TestOutcome allocates = response.getOutcomes().get(1);
+        assertTrue(allocates.isPassed());
+        assertTrue(allocates.getAllocatedBytes() >= 32 << 20);
+        assertTrue(passes.getAllocatedBytes() < 32 << 20);
+        assertTrue(allocates.getPeakHeapBytes() >= 32 << 20);
+    }
+
+    @Test
+    public void testMissingTestClass() {
+        TestRequest request = new TestRequest("SampleTest", classPath, classes, Arrays.asList(
+                new TestDescriptor("MissingTest", "passes", 10000)), 1, false);
+        TestResponse response = executor.execute(request);
+        assertFalse(response.getOutcomes().get(0).isPassed());
+        assertEquals(ClassNotFoundException.class.getName(), response.getOutcomes().get(0).getExceptionType());
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class InstructionCountInstrumenterTest {
+
+    private final static String SOURCE = "package example;\n"
+            + "public class Loops {\n"
+            + "    private final int start;\n"
+            + "    public Loops() { this(1 > 0 ? 0 : 1); }\n"
+            + "    public Loops(int start) { this.start = start; }\n"
+            + "    public int sum(int n) {\n"
+            + "        int total = start;\n"
+            + "        for (int i = 0; i < n; i++) { total += i; }\n"
+            + "        return total;\n"
+            + "    }\n"
+            + "    public int parse(String value) {\n"
+            + "        try { return Integer.parseInt(value); } catch (NumberFormatException ex) { return -1; }\n"
+            + "    }\n"
+            + "    public String name(int sides) {\n"
+            + "        switch (sides) { case 3: return \"triangle\"; case 4: return \"square\"; default: return \"polygon\"; }\n"
+            + "    }\n"
+            + "}\n";
+
+    private Map<String, byte[]> classes;
+
+    public InstructionCountInstrumenterTest() {
+    }
+
+    @Before
+    public void setUp() {
+        classes = new PatchCompiler(null).compile("example.Loops", SOURCE);
+        assertNotNull(classes);
+        InstructionCounter.reset();
+    }
+
+    private Class<?> load(InstructionCountScope scope) throws ClassNotFoundException {
+        return Class.forName("example.Loops", true, new PatchClassLoader(null, classes, getClass().getClassLoader(), scope));
+    }
+
+    @Test
+    public void testCount() throws Exception {
+        Class<?> loops = load(InstructionCountScope.PATCHED);
+        Object instance = loops.getConstructor().newInstance();
+        Method sum = loops.getMethod("sum", int.class);
+        InstructionCounter.reset();
+
+        assertEquals(45, sum.invoke(instance, 10));
+        long ten = InstructionCounter.reset();
+        assertEquals(190, sum.invoke(instance, 20));
+        long twenty = InstructionCounter.reset();
+        assertEquals(45, sum.invoke(instance, 10));
+        assertEquals(ten, InstructionCounter.reset());
+        // Every iteration runs the same instructions, on top of a fixed cost
+        long iteration = (twenty - ten) / 10;
+        assertEquals(0, (twenty - ten) % 10);
+        assertTrue(iteration > 0);
+        assertTrue(ten - 10 * iteration > 0);
+    }
+
+    @Test
+    public void testBranches() throws Exception {
+        Class<?> loops = load(InstructionCountScope.PATCHED);
+        Object instance = loops.getConstructor(int.class).newInstance(0);
+        assertEquals(12, loops.getMethod("parse", String.class).invoke(instance, "12"));
+        assertEquals(-1, loops.getMethod("parse", String.class).invoke(instance, "twelve"));
+        assertEquals("square", loops.getMethod("name", int.class).invoke(instance, 4));
+        assertEquals("polygon", loops.getMethod("name", int.class).invoke(instance, 5));
+        assertTrue(InstructionCounter.reset() > 0);
+    }
+
+    @Test
+    public void testNone() throws Exception {
+        Class<?> loops = load(InstructionCountScope.NONE);
+        Object instance = loops.getConstructor().newInstance();
+        assertEquals(45, loops.getMethod("sum", int.class).invoke(instance, 10));
+        assertEquals(0, InstructionCounter.reset());
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class PatchCompilerTest {
+
+    private final static String verySmallExampleSourceFilename = "./unittests/Small.java";
+
+    private PatchCompiler compiler;
+    private String source;
+
+    public PatchCompilerTest() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        compiler = new PatchCompiler(null);
+        source = FileUtils.readFileToString(new File(verySmallExampleSourceFilename), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testCompile() {
+        Map<String, byte[]> classes = compiler.compile("Small", source);
+        assertNotNull(classes);
+        assertTrue(classes.containsKey("Small"));
+        assertTrue(classes.get("Small").length > 0);
+    }
+
+    @Test
+    public void testCompileNestedClasses() {
+        Map<String, byte[]> classes = compiler.compile("Outer", "public class Outer { static class Inner { } }");
+        assertNotNull(classes);
+        assertEquals(2, classes.size());
+        assertTrue(classes.containsKey("Outer$Inner"));
+    }
+
+    @Test
+    public void testCompileFailure() {
+        assertNull(compiler.compile("Small", source.replace("int b = 2;", "int b = ;")));
+    }
+
+}
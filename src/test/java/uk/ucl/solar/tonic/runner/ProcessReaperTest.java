@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.runner;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class ProcessReaperTest {
+
+    private static final String PREFIX = "tonic-reaper-test";
+
+    public ProcessReaperTest() {
+    }
+
+    @After
+    public void tearDown() {
+        File[] directories = new File(System.getProperty("java.io.tmpdir")).listFiles(file -> file.getName().startsWith(PREFIX));
+        if (directories != null) {
+            for (File directory : directories) {
+                FileUtils.deleteQuietly(directory);
+            }
+        }
+    }
+
+    @Test
+    public void testSweep() throws IOException {
+        File stale = Files.createTempDirectory(PREFIX).toFile();
+        ProcessReaper.lock(stale).channel().close();
+        File live = Files.createTempDirectory(PREFIX).toFile();
+        FileLock lock = ProcessReaper.lock(live);
+        File unlocked = Files.createTempDirectory(PREFIX).toFile();
+        try {
+            assertEquals(1, ProcessReaper.sweepStaleDirectories(PREFIX));
+            assertFalse(stale.exists());
+            assertTrue(live.exists());
+            // Directories without a lock file are not Tonic's to delete
+            assertTrue(unlocked.exists());
+        } finally {
+            lock.channel().close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testLockTwice() throws IOException {
+        File directory = Files.createTempDirectory(PREFIX).toFile();
+        FileLock lock = ProcessReaper.lock(directory);
+        try {
+            ProcessReaper.lock(directory);
+        } finally {
+            lock.channel().close();
+        }
+    }
+
+}
@@ -64,9 +64,10 @@ public class PatchSolutionTest {
         PatchSolution secondSolution = solution.copy();
         assertFalse(solution == secondSolution);
         assertEquals(solution, secondSolution);
-        assertNotEquals(solution.getPatch(), secondSolution.getPatch());
+        assertSame(solution.getPatch(), secondSolution.getPatch());
         assertFalse(solution.getVariables() == secondSolution.getVariables());
         assertEquals(solution.getVariables(), secondSolution.getVariables());
+        assertNotEquals(solution.getPatch(), secondSolution.getPatch());
         assertFalse(solution.getObjectives() == secondSolution.getObjectives());
         assertArrayEquals(solution.getObjectives(), secondSolution.getObjectives(), 0.01);
         assertFalse(solution.getConstraints() == secondSolution.getConstraints());
@@ -75,6 +76,62 @@ public class PatchSolutionTest {
         assertEquals(solution.getAttributes(), secondSolution.getAttributes());
     }
 
+    @Test
+    public void testCopyOnWrite() {
+        PatchSolution secondSolution = solution.copy();
+        Edit first = solution.getVariable(0);
+        CopyStatement copyStatement = new CopyStatement(sourceFileTree, new Random(1234));
+        secondSolution.setVariable(0, copyStatement);
+        secondSolution.setAttribute("NTests", 12);
+        assertEquals(copyStatement, secondSolution.getVariable(0));
+        assertEquals(first, solution.getVariable(0));
+        assertEquals(12, secondSolution.getAttribute("NTests"));
+        assertEquals(10, solution.getAttribute("NTests"));
+
+        PatchSolution thirdSolution = solution.copy();
+        solution.add(copyStatement);
+        solution.setAttribute("NPassed", 7);
+        assertEquals(5, solution.getNumberOfVariables());
+        assertEquals(4, thirdSolution.getNumberOfVariables());
+        assertEquals(6, thirdSolution.getAttribute("NPassed"));
+    }
+
+    @Test
+    public void testAttributesCopiedOnSet() {
+        PatchSolution secondSolution = solution.copy();
+        assertEquals(10, secondSolution.getAttributes().get("NTests"));
+        try {
+            secondSolution.getAttributes().put("NTests", 12);
+            fail("Shared attributes must be read-only.");
+        } catch (UnsupportedOperationException ex) {
+            assertEquals(10, solution.getAttribute("NTests"));
+        }
+        secondSolution.setAttribute("NTests", 12);
+        secondSolution.getAttributes().put("NPassed", 7);
+        assertEquals(7, secondSolution.getAttribute("NPassed"));
+        assertEquals(10, solution.getAttribute("NTests"));
+        assertEquals(6, solution.getAttribute("NPassed"));
+    }
+
+    @Test
+    public void testCopyKeepsLastApply() {
+        solution.apply();
+        PatchSolution secondSolution = solution.copy();
+        assertEquals(solution.lastApplyWasValid(), secondSolution.lastApplyWasValid());
+        assertEquals(solution.getEditsInvalidOnLastApply(), secondSolution.getEditsInvalidOnLastApply());
+        assertSame(solution.getPatch(), secondSolution.getPatch());
+    }
+
+    @Test
+    public void testApplyOwnsPatch() {
+        PatchSolution secondSolution = solution.copy();
+        Patch shared = solution.getPatch();
+        secondSolution.apply();
+        assertSame(shared, solution.getPatch());
+        assertNotSame(shared, secondSolution.getPatch());
+        assertEquals(shared.getEdits(), secondSolution.getPatch().getEdits());
+    }
+
     @Test
     public void testGetNumberOfVariables() {
         assertEquals(4, solution.getNumberOfVariables());
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.statistics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class MannWhitneyUTestTest {
+
+    public MannWhitneyUTestTest() {
+    }
+
+    @Test
+    public void testU() {
+        assertEquals(0.0, MannWhitneyUTest.u(new double[]{1, 2}, new double[]{3, 4, 5}), 0.0);
+        assertEquals(6.0, MannWhitneyUTest.u(new double[]{3, 4, 5}, new double[]{1, 2}), 0.0);
+        assertEquals(0.5, MannWhitneyUTest.u(new double[]{1}, new double[]{1}), 0.0);
+    }
+
+    @Test
+    public void testSeparatedSamples() {
+        double[] fast = {10, 11, 12, 10, 11};
+        double[] slow = {20, 21, 22, 20, 21, 23, 22, 20, 21, 22};
+        assertTrue(MannWhitneyUTest.pValue(fast, slow) < 0.01);
+        assertTrue(MannWhitneyUTest.isSmaller(fast, slow));
+        assertFalse(MannWhitneyUTest.isSmaller(slow, fast));
+    }
+
+    @Test
+    public void testOverlappingSamples() {
+        double[] x = {10, 12, 14, 16};
+        double[] y = {11, 13, 15, 17};
+        assertTrue(MannWhitneyUTest.pValue(x, y) > 0.5);
+    }
+
+    @Test
+    public void testIdenticalSamples() {
+        assertEquals(1.0, MannWhitneyUTest.pValue(new double[]{5, 5, 5}, new double[]{5, 5}), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptySample() {
+        MannWhitneyUTest.u(new double[0], new double[]{1});
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 Giovani.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ucl.solar.tonic.surrogate;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Giovani
+ */
+public class SurrogateModelTest {
+
+    private static final String DELETE = "gin.edit.statement.DeleteStatement \"src/Foo.java\":12";
+    private static final String SWAP = "gin.edit.statement.SwapStatement \"src/Foo.java\":12 <-> \"src/Foo.java\":30";
+
+    public SurrogateModelTest() {
+    }
+
+    @Test
+    public void testFeatures() {
+        assertEquals("DeleteStatement", SurrogateModel.typeOf(DELETE));
+        assertEquals("DeleteStatement@src/Foo.java:12", SurrogateModel.locationOf(DELETE));
+        assertEquals("SwapStatement@src/Foo.java:30", SurrogateModel.locationOf(SWAP));
+        assertNull(SurrogateModel.locationOf("gin.edit.NoLocation"));
+    }
+
+    @Test
+    public void testPrior() {
+        SurrogateModel model = new SurrogateModel(1);
+        Prediction prediction = model.predict(Collections.singletonList(DELETE));
+        assertEquals(0.5, prediction.getCompileProbability(), 0.0);
+        assertEquals(0.5, prediction.getPassProbability(), 0.0);
+        assertTrue(Double.isNaN(prediction.getRuntimeRatio()));
+        assertFalse(prediction.isInformed());
+    }
+
+    @Test
+    public void testUninformedNeverRejects() {
+        SurrogateModel model = new SurrogateModel(10);
+        List<String> broken = Collections.singletonList(DELETE);
+        for (int i = 0; i < 9; i++) {
+            model.update(broken, false, false, Double.NaN);
+        }
+        Prediction prediction = model.predict(Arrays.asList(DELETE, DELETE, SWAP));
+        assertFalse(prediction.isInformed());
+        assertTrue(prediction.getValidProbability() < 0.05);
+        assertFalse(prediction.isRejected(0.05, 2.0));
+        assertFalse(prediction.isRejected(1.0, 0.0));
+
+        model.update(broken, false, false, Double.NaN);
+        assertTrue(model.predict(Arrays.asList(DELETE, DELETE, SWAP)).isRejected(0.05, 2.0));
+    }
+
+    @Test
+    public void testLearning() {
+        SurrogateModel model = new SurrogateModel(10);
+        List<String> broken = Collections.singletonList(DELETE);
+        List<String> slow = Collections.singletonList(SWAP);
+        for (int i = 0; i < 10; i++) {
+            model.update(broken, false, false, Double.NaN);
+            model.update(slow, true, true, 3.0);
+        }
+        assertEquals(20, model.getObservations());
+
+        Prediction brokenPrediction = model.predict(broken);
+        assertTrue(brokenPrediction.isInformed());
+        assertTrue(brokenPrediction.getCompileProbability() < 0.1);
+        assertTrue(brokenPrediction.isRejected(0.1, 2.0));
+
+        Prediction slowPrediction = model.predict(slow);
+        assertTrue(slowPrediction.getValidProbability() > 0.8);
+        assertEquals(3.0, slowPrediction.getRuntimeRatio(), 1e-9);
+        assertTrue(slowPrediction.isRejected(0.1, 2.0));
+        assertFalse(slowPrediction.isRejected(0.1, 4.0));
+
+        // Larger patches compound the failure probability of their edits
+        Prediction combined = model.predict(Arrays.asList(DELETE, SWAP));
+        assertTrue(combined.getValidProbability() < brokenPrediction.getValidProbability());
+    }
+
+    @Test
+    public void testAccuracy() {
+        SurrogateModel model = new SurrogateModel(0);
+        assertEquals(0.0, model.getAccuracy(), 0.0);
+        model.recordOutcome(true, true);
+        model.recordOutcome(false, false);
+        model.recordOutcome(true, false);
+        model.recordSkipped();
+        assertEquals(3, model.getPredictions());
+        assertEquals(2.0 / 3.0, model.getAccuracy(), 1e-9);
+        assertEquals(1, model.getSkipped());
+    }
+
+    @Test
+    public void testExplore() {
+        SurrogateModel model = new SurrogateModel(0, new Random(1));
+        SurrogateModel sameSeed = new SurrogateModel(0, new Random(1));
+        assertFalse(model.explore(0.0));
+        assertTrue(model.explore(1.0));
+        sameSeed.explore(0.0);
+        sameSeed.explore(1.0);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(model.explore(0.5), sameSeed.explore(0.5));
+        }
+    }
+
+}